@@ -0,0 +1,109 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gageot.excel.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.poi.hssf.usermodel.HSSFCell;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.ss.usermodel.Row;
+import org.gageot.excel.core.CellMapper;
+import org.gageot.excel.core.ObjectCellMapper;
+import org.gageot.excel.core.StringCellMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import com.google.common.collect.Lists;
+
+/**
+ * Benchmarks the CellMapper implementations alone, on the cells of a
+ * generated workbook that is parsed once.
+ *
+ * @author David Gageot
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CellMapperBenchmark {
+	@Param({"1000"})
+	private int rows;
+
+	@Param({"30"})
+	private int columns;
+
+	@Param({"0.5"})
+	private double stringRatio;
+
+	@Param({"0.1"})
+	private double formulaRatio;
+
+	private HSSFCell[] cells;
+
+	private final StringCellMapper stringCellMapper = new StringCellMapper();
+	private final ObjectCellMapper objectCellMapper = new ObjectCellMapper();
+	private final ObjectCellMapper longObjectCellMapper = new ObjectCellMapper(true);
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		HSSFSheet sheet = new WorkbookGenerator(rows, columns, stringRatio, formulaRatio).generate().getSheet(WorkbookGenerator.SHEET_NAME);
+
+		List<HSSFCell> allCells = Lists.newArrayList();
+		for (int i = 1; i <= sheet.getLastRowNum(); i++) {
+			HSSFRow row = sheet.getRow(i);
+			for (int j = 0; j < row.getLastCellNum(); j++) {
+				allCells.add(row.getCell(j, Row.RETURN_BLANK_AS_NULL));
+			}
+		}
+
+		cells = allCells.toArray(new HSSFCell[allCells.size()]);
+	}
+
+	@Benchmark
+	public void stringCellMapper(Blackhole blackhole) throws IOException {
+		map(stringCellMapper, blackhole);
+	}
+
+	@Benchmark
+	public void objectCellMapper(Blackhole blackhole) throws IOException {
+		map(objectCellMapper, blackhole);
+	}
+
+	@Benchmark
+	public void objectCellMapperWithLongs(Blackhole blackhole) throws IOException {
+		map(longObjectCellMapper, blackhole);
+	}
+
+	private void map(CellMapper<?> cellMapper, Blackhole blackhole) throws IOException {
+		for (int i = 0; i < cells.length; i++) {
+			blackhole.consume(cellMapper.mapCell(cells[i], i / columns, i % columns));
+		}
+	}
+}
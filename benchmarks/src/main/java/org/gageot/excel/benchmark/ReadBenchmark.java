@@ -0,0 +1,123 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gageot.excel.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.gageot.excel.core.EventCell;
+import org.gageot.excel.core.EventRowCallbackHandler;
+import org.gageot.excel.core.ExcelTemplate;
+import org.gageot.excel.core.WorkbookCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the ExcelTemplate read methods on a generated workbook.
+ * With <code>cached=true</code>, the parsed workbook is reused and only
+ * the extraction is measured.
+ *
+ * @author David Gageot
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReadBenchmark {
+	@Param({"1000", "10000"})
+	private int rows;
+
+	@Param({"10", "30"})
+	private int columns;
+
+	@Param({"0.5"})
+	private double stringRatio;
+
+	@Param({"0.1"})
+	private double formulaRatio;
+
+	@Param({"false", "true"})
+	private boolean cached;
+
+	private File file;
+	private ExcelTemplate template;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		file = new WorkbookGenerator(rows, columns, stringRatio, formulaRatio).generateFile();
+
+		template = new ExcelTemplate(file);
+		if (cached) {
+			template.setWorkbookCache(new WorkbookCache(1));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Benchmark
+	public String[][] read() {
+		return template.read(WorkbookGenerator.SHEET_NAME);
+	}
+
+	@Benchmark
+	public double[][] readDoubles() {
+		return template.readDoubles(WorkbookGenerator.SHEET_NAME);
+	}
+
+	@Benchmark
+	public List<Map<String, String>> readList() {
+		return template.readList(WorkbookGenerator.SHEET_NAME);
+	}
+
+	@Benchmark
+	public List<SampleBean> readBeans() {
+		return template.readBeans(WorkbookGenerator.SHEET_NAME, SampleBean.class);
+	}
+
+	@Benchmark
+	public List<SampleObject> readObjects() {
+		return template.readObjects(WorkbookGenerator.SHEET_NAME, SampleObject.class);
+	}
+
+	@Benchmark
+	public void stream(final Blackhole blackhole) {
+		template.stream(WorkbookGenerator.SHEET_NAME, new EventRowCallbackHandler() {
+			@Override
+			public void processRow(EventCell[] cells, int rowNum) {
+				blackhole.consume(cells);
+			}
+		});
+	}
+}
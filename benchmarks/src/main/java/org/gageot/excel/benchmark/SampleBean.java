@@ -0,0 +1,70 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gageot.excel.benchmark;
+
+/**
+ * Bean populated by readBeans from a generated workbook.
+ * Columns without a matching property are ignored.
+ *
+ * @author David Gageot
+ */
+public class SampleBean {
+	private String text0;
+	private String text1;
+	private double number0;
+	private double number1;
+	private double formula0;
+
+	public String getText0() {
+		return text0;
+	}
+
+	public void setText0(String text0) {
+		this.text0 = text0;
+	}
+
+	public String getText1() {
+		return text1;
+	}
+
+	public void setText1(String text1) {
+		this.text1 = text1;
+	}
+
+	public double getNumber0() {
+		return number0;
+	}
+
+	public void setNumber0(double number0) {
+		this.number0 = number0;
+	}
+
+	public double getNumber1() {
+		return number1;
+	}
+
+	public void setNumber1(double number1) {
+		this.number1 = number1;
+	}
+
+	public double getFormula0() {
+		return formula0;
+	}
+
+	public void setFormula0(double formula0) {
+		this.formula0 = formula0;
+	}
+}
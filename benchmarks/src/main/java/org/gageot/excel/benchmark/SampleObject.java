@@ -0,0 +1,43 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gageot.excel.benchmark;
+
+import org.gageot.excel.beans.ExcelColumn;
+import org.gageot.excel.beans.ExcelCreator;
+
+/**
+ * Immutable object created by readObjects from a generated workbook.
+ *
+ * @author David Gageot
+ */
+public class SampleObject {
+	private final String text;
+	private final double number;
+
+	@ExcelCreator
+	public SampleObject(@ExcelColumn("TEXT0") String aText, @ExcelColumn("NUMBER0") double aNumber) {
+		text = aText;
+		number = aNumber;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public double getNumber() {
+		return number;
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gageot.excel.benchmark;
+
+import static com.google.common.base.Preconditions.*;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.util.CellReference;
+
+/**
+ * Generates synthetic .xls workbooks of a given shape.
+ *
+ * <p>The generated sheet has a header row followed by data rows. Columns are
+ * laid out as text columns (<code>TEXT0</code>, <code>TEXT1</code>...), then
+ * numerical columns (<code>NUMBER0</code>...), then formula columns
+ * (<code>FORMULA0</code>...) computed from the first numerical column.
+ * Content is pseudo-random, but the same for a given shape.
+ *
+ * @author David Gageot
+ */
+public class WorkbookGenerator {
+	public static final String SHEET_NAME = "Data";
+
+	private static final int DISTINCT_TEXT_VALUES = 1000;
+
+	private final int rows;
+	private final int textColumns;
+	private final int numberColumns;
+	private final int formulaColumns;
+
+	/**
+	 * @param aRows number of data rows, not counting the header row
+	 * @param aColumns number of columns
+	 * @param aStringRatio share of text columns, between 0 and 1
+	 * @param aFormulaRatio share of formulas among the other columns, between 0 and 1
+	 */
+	public WorkbookGenerator(int aRows, int aColumns, double aStringRatio, double aFormulaRatio) {
+		checkArgument((aRows >= 0) && (aRows < 65536), "rows must be between 0 and 65535");
+		checkArgument((aColumns > 0) && (aColumns <= 256), "columns must be between 1 and 256");
+		checkArgument((aStringRatio >= 0) && (aStringRatio <= 1), "stringRatio must be between 0 and 1");
+		checkArgument((aFormulaRatio >= 0) && (aFormulaRatio <= 1), "formulaRatio must be between 0 and 1");
+
+		rows = aRows;
+		textColumns = (int) Math.round(aColumns * aStringRatio);
+
+		// Formulas need at least one numerical column to compute from.
+		//
+		int otherColumns = aColumns - textColumns;
+		formulaColumns = (int) Math.min(Math.max(0, otherColumns - 1), Math.round(otherColumns * aFormulaRatio));
+		numberColumns = otherColumns - formulaColumns;
+	}
+
+	public HSSFWorkbook generate() {
+		HSSFWorkbook workbook = new HSSFWorkbook();
+		HSSFSheet sheet = workbook.createSheet(SHEET_NAME);
+
+		HSSFRow header = sheet.createRow(0);
+		for (int i = 0; i < textColumns; i++) {
+			header.createCell(i).setCellValue("TEXT" + i);
+		}
+		for (int i = 0; i < numberColumns; i++) {
+			header.createCell(textColumns + i).setCellValue("NUMBER" + i);
+		}
+		for (int i = 0; i < formulaColumns; i++) {
+			header.createCell(textColumns + numberColumns + i).setCellValue("FORMULA" + i);
+		}
+
+		Random random = new Random(rows);
+		for (int rowNum = 1; rowNum <= rows; rowNum++) {
+			HSSFRow row = sheet.createRow(rowNum);
+
+			int columnNum = 0;
+			for (int i = 0; i < textColumns; i++) {
+				row.createCell(columnNum++).setCellValue("Value" + random.nextInt(DISTINCT_TEXT_VALUES));
+			}
+			for (int i = 0; i < numberColumns; i++) {
+				row.createCell(columnNum++).setCellValue(random.nextBoolean() ? random.nextInt(1000) : random.nextDouble() * 1000);
+			}
+
+			String firstNumber = new CellReference(rowNum, textColumns).formatAsString();
+			for (int i = 0; i < formulaColumns; i++) {
+				row.createCell(columnNum++).setCellFormula(firstNumber + "*" + (i + 2));
+			}
+		}
+
+		return workbook;
+	}
+
+	/**
+	 * Generate a workbook into a temporary file.
+	 */
+	public File generateFile() throws IOException {
+		File file = File.createTempFile("benchmark", ".xls");
+		file.deleteOnExit();
+
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+		try {
+			generate().write(out);
+		} finally {
+			out.close();
+		}
+
+		return file;
+	}
+}
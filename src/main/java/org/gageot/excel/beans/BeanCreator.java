@@ -0,0 +1,172 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.beans;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.SimpleTypeConverter;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.util.ReflectionUtils;
+import com.google.common.collect.Lists;
+
+/**
+ * Creates objects of a given class from all the values of a row,
+ * through a constructor or a static factory method, in a single call.
+ * This is the way to read immutable objects, that have no setters.
+ *
+ * <p>The creator is the constructor or static method annotated with
+ * {@link ExcelCreator}. If there is none, the single public constructor
+ * of the class is used.
+ *
+ * <p>An instance of this class is not thread-safe.
+ *
+ * @author David Gageot
+ * @see ExcelCreator
+ * @see ExcelColumn
+ */
+public class BeanCreator<T> {
+	private final Class<T> clazz;
+	private final Member creator;
+	private final String[] columnNames;
+	private final ValueConverter[] converters;
+	private final SimpleTypeConverter typeConverter;
+
+	/**
+	 * Create a new BeanCreator.
+	 * @param aClass the class of the objects to create
+	 * @throws BeanCreationException if there is no creator
+	 */
+	public BeanCreator(Class<T> aClass) throws BeansException {
+		clazz = aClass;
+		creator = findCreator(aClass);
+		typeConverter = ValueConverter.createTypeConverter();
+
+		Class<?>[] parameterTypes = getParameterTypes(creator);
+		Annotation[][] parameterAnnotations = getParameterAnnotations(creator);
+
+		columnNames = new String[parameterTypes.length];
+		converters = new ValueConverter[parameterTypes.length];
+		for (int i = 0; i < parameterTypes.length; i++) {
+			columnNames[i] = getColumnName(parameterAnnotations[i]);
+			converters[i] = new ValueConverter(parameterTypes[i]);
+		}
+
+		if (creator instanceof Method) {
+			ReflectionUtils.makeAccessible((Method) creator);
+		} else {
+			ReflectionUtils.makeAccessible((Constructor<?>) creator);
+		}
+	}
+
+	/**
+	 * Get the class of the objects created.
+	 */
+	public Class<T> getBeanClass() {
+		return clazz;
+	}
+
+	/**
+	 * Get the number of values needed to create an object.
+	 */
+	public int getParameterCount() {
+		return columnNames.length;
+	}
+
+	/**
+	 * Get the name of the column bound to a parameter.
+	 * @return the column name, or <code>null</code> if the parameter is bound by position
+	 */
+	public String getColumnName(int parameterIndex) {
+		return columnNames[parameterIndex];
+	}
+
+	/**
+	 * Create an object from the values of a row.
+	 * Values are converted in place to the type of the parameters, so that
+	 * the same array can be reused for each row.
+	 * @param values one value per parameter, <code>null</code> if missing
+	 */
+	public T create(Object[] values) throws BeansException {
+		for (int i = 0; i < converters.length; i++) {
+			Object value = converters[i].convert(values[i], typeConverter);
+			values[i] = (null != value) ? value : converters[i].getDefaultValue();
+		}
+
+		try {
+			if (creator instanceof Method) {
+				return clazz.cast(((Method) creator).invoke(null, values));
+			}
+			return clazz.cast(((Constructor<?>) creator).newInstance(values));
+		} catch (InvocationTargetException e) {
+			throw new BeanCreationException("Impossible to create bean", e.getTargetException());
+		} catch (InstantiationException e) {
+			throw new BeanCreationException("Impossible to create bean", e);
+		} catch (IllegalAccessException e) {
+			throw new BeanCreationException("Impossible to create bean", e);
+		}
+	}
+
+	private static Member findCreator(Class<?> clazz) throws BeansException {
+		List<Member> creators = Lists.newArrayList();
+
+		for (Constructor<?> constructor : clazz.getDeclaredConstructors()) {
+			if (constructor.isAnnotationPresent(ExcelCreator.class)) {
+				creators.add(constructor);
+			}
+		}
+		for (Method method : clazz.getDeclaredMethods()) {
+			if (method.isAnnotationPresent(ExcelCreator.class)) {
+				if (!Modifier.isStatic(method.getModifiers()) || !clazz.isAssignableFrom(method.getReturnType())) {
+					throw new BeanCreationException("@ExcelCreator method must be static and return a " + clazz.getName() + ": " + method);
+				}
+				creators.add(method);
+			}
+		}
+
+		if (creators.isEmpty() && (1 == clazz.getConstructors().length)) {
+			return clazz.getConstructors()[0];
+		}
+		if (1 != creators.size()) {
+			throw new BeanCreationException("Impossible to create bean: " + clazz.getName() + " needs exactly one @ExcelCreator");
+		}
+
+		return creators.get(0);
+	}
+
+	private static Class<?>[] getParameterTypes(Member creator) {
+		return (creator instanceof Method) ? ((Method) creator).getParameterTypes() : ((Constructor<?>) creator).getParameterTypes();
+	}
+
+	private static Annotation[][] getParameterAnnotations(Member creator) {
+		return (creator instanceof Method) ? ((Method) creator).getParameterAnnotations() : ((Constructor<?>) creator).getParameterAnnotations();
+	}
+
+	private static String getColumnName(Annotation[] annotations) {
+		for (Annotation annotation : annotations) {
+			if (annotation instanceof ExcelColumn) {
+				return ((ExcelColumn) annotation).value();
+			}
+		}
+		return null;
+	}
+}
@@ -16,60 +16,145 @@
 
 package org.gageot.excel.beans;
 
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyDescriptor;
-import java.text.NumberFormat;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.Map;
 import org.gageot.excel.core.BeanCellCallbackHandler;
 import org.gageot.excel.core.CellCallbackHandler;
 import org.gageot.excel.core.ExcelTemplate;
-import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.BeansException;
-import org.springframework.beans.PropertyAccessorFactory;
-import org.springframework.beans.propertyeditors.CustomNumberEditor;
+import org.springframework.beans.FatalBeanException;
+import org.springframework.beans.MethodInvocationException;
+import org.springframework.beans.SimpleTypeConverter;
+import org.springframework.util.ReflectionUtils;
+import com.google.common.base.Function;
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Maps;
 
 /**
- * Simple BeanSetter implementation based on BeanWrapperImpl Spring class.
+ * Simple BeanSetter implementation based on JavaBeans introspection.
+ *
+ * <p>The writable properties of each bean class are resolved once, and
+ * shared by all instances: setting a property is a map lookup followed
+ * by a setter call. Numbers are converted directly to the property type;
+ * other conversions are delegated to Spring's type conversion.
+ * Resolved properties reference their class, so they are softly held:
+ * they do not prevent a class loader from being collected.
+ *
+ * <p>An instance of this class is not thread-safe.
  *
  * @author David Gageot
  * @see BeanCellCallbackHandler
  * @see ExcelTemplate#read(String,CellCallbackHandler)
  */
 public class BeanSetterImpl implements BeanSetter {
-	private BeanWrapper currentWrapper;
-	private Object currentBean;
-
-	protected BeanWrapper getWrapper(Object bean) {
-		if (bean != currentBean) {
-			currentBean = bean;
-			currentWrapper = PropertyAccessorFactory.forBeanPropertyAccess(currentBean);
-
-			// To make sure that Double values can be converted into an int.
-			//
-			currentWrapper.registerCustomEditor(int.class, new CustomNumberEditor(Integer.class, NumberFormat.getInstance(), false));
+	private static final Map<Class<?>, Map<String, BeanProperty>> PROPERTIES_BY_CLASS = new MapMaker().weakKeys().softValues().makeComputingMap(new Function<Class<?>, Map<String, BeanProperty>>() {
+		@Override
+		public Map<String, BeanProperty> apply(Class<?> beanClass) {
+			return introspect(beanClass);
 		}
+	});
+
+	private final SimpleTypeConverter typeConverter;
 
-		return currentWrapper;
+	public BeanSetterImpl() {
+		typeConverter = ValueConverter.createTypeConverter();
 	}
 
 	/**
 	 * Set the value of a property on the current bean.
-	 * 
+	 *
 	 * @param bean bean instance to populate
 	 * @param propertyName the name of the property (case insensitive)
 	 * @param propertyValue the value of the property
 	 */
 	@Override
 	public void setProperty(Object bean, String propertyName, Object propertyValue) throws BeansException {
-		BeanWrapper wrapper = getWrapper(bean);
+		BeanProperty property = getProperty(bean.getClass(), propertyName);
+		if (null != property) {
+			property.setValue(bean, propertyValue, typeConverter);
+		}
+	}
+
+	/**
+	 * Resolve a property of a bean class once, to set it on many beans.
+	 *
+	 * @param beanClass the class of the beans to populate
+	 * @param propertyName the name of the property (case insensitive)
+	 * @return the PropertySetter, or <code>null</code> if there is no such property
+	 */
+	public PropertySetter getPropertySetter(Class<?> beanClass, String propertyName) {
+		final BeanProperty property = getProperty(beanClass, propertyName);
+		if (null == property) {
+			return null;
+		}
+
+		return new PropertySetter() {
+			@Override
+			public void setValue(Object bean, Object propertyValue) throws BeansException {
+				property.setValue(bean, propertyValue, typeConverter);
+			}
+		};
+	}
+
+	private static BeanProperty getProperty(Class<?> beanClass, String propertyName) {
+		if (null == propertyName) {
+			return null;
+		}
 
-		PropertyDescriptor[] propertyDescriptors = wrapper.getPropertyDescriptors();
+		return PROPERTIES_BY_CLASS.get(beanClass).get(propertyName.toLowerCase(Locale.ENGLISH));
+	}
+
+	/**
+	 * Find the writable properties of a bean class, indexed by their lower
+	 * case name. This way, we can accept any type of case in the spreadsheet file.
+	 */
+	private static Map<String, BeanProperty> introspect(Class<?> beanClass) {
+		Map<String, BeanProperty> properties = Maps.newHashMap();
+
+		for (PropertyDescriptor propertyDescriptor : BeanUtils.getPropertyDescriptors(beanClass)) {
+			Method writeMethod = propertyDescriptor.getWriteMethod();
+			String key = propertyDescriptor.getName().toLowerCase(Locale.ENGLISH);
+
+			if ((null != writeMethod) && !properties.containsKey(key)) {
+				ReflectionUtils.makeAccessible(writeMethod);
+				properties.put(key, new BeanProperty(propertyDescriptor.getName(), writeMethod));
+			}
+		}
+
+		return properties;
+	}
+
+	/**
+	 * A writable property, with its setter and type resolved.
+	 */
+	private static class BeanProperty {
+		private final String name;
+		private final Method writeMethod;
+		private final ValueConverter converter;
+
+		BeanProperty(String aName, Method aWriteMethod) {
+			name = aName;
+			writeMethod = aWriteMethod;
+			converter = new ValueConverter(aWriteMethod.getParameterTypes()[0]);
+		}
+
+		void setValue(Object bean, Object value, SimpleTypeConverter typeConverter) throws BeansException {
+			if ((null == value) && converter.isPrimitive()) {
+				return; // Keep default value
+			}
 
-		// Find a bean property by its name ignoring case.
-		// this way, we can accept any type of case in the spreadsheet file
-		//
-		for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
-			if (propertyDescriptor.getName().equalsIgnoreCase(propertyName)) {
-				wrapper.setPropertyValue(propertyDescriptor.getName(), propertyValue.toString());
-				break;
+			Object convertedValue = converter.convert(value, typeConverter);
+			try {
+				writeMethod.invoke(bean, convertedValue);
+			} catch (InvocationTargetException e) {
+				throw new MethodInvocationException(new PropertyChangeEvent(bean, name, null, value), e.getTargetException());
+			} catch (IllegalAccessException e) {
+				throw new FatalBeanException("Impossible to set property " + name, e);
 			}
 		}
 	}
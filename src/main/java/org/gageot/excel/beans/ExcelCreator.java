@@ -0,0 +1,41 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.beans;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the constructor or static factory method used to create
+ * an object from all the values of a row, in a single call.
+ * Its parameters are bound to columns by their {@link ExcelColumn}
+ * annotation, or by position if not annotated.
+ *
+ * @author David Gageot
+ * @see BeanCreator
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({
+		ElementType.CONSTRUCTOR, ElementType.METHOD
+})
+public @interface ExcelCreator {
+	// Marker
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.beans;
+
+import org.springframework.beans.BeansException;
+
+/**
+ * Sets one resolved property on beans of a given class.
+ * Obtained once from a BeanSetterImpl, then used for every row.
+ *
+ * @author David Gageot
+ * @see BeanSetterImpl#getPropertySetter(Class,String)
+ */
+public interface PropertySetter {
+	/**
+	 * Set the value of the property on a bean, converting it if necessary.
+	 * @param bean bean instance to populate
+	 * @param propertyValue the value of the property
+	 */
+	void setValue(Object bean, Object propertyValue) throws BeansException;
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.beans;
+
+import java.lang.reflect.Array;
+import java.text.NumberFormat;
+import org.springframework.beans.SimpleTypeConverter;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.beans.propertyeditors.CustomNumberEditor;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.NumberUtils;
+
+/**
+ * Converts cell values into a given Java type, resolved once.
+ * Numbers are converted directly; other conversions are delegated
+ * to Spring's type conversion.
+ *
+ * @author David Gageot
+ */
+class ValueConverter {
+	private final Class<?> parameterType;
+	private final Class<?> type;
+	private final boolean number;
+	private final Object defaultValue;
+
+	ValueConverter(Class<?> aParameterType) {
+		parameterType = aParameterType;
+		type = ClassUtils.resolvePrimitiveIfNecessary(parameterType);
+		number = Number.class.isAssignableFrom(type);
+		defaultValue = parameterType.isPrimitive() ? Array.get(Array.newInstance(parameterType, 1), 0) : null;
+	}
+
+	/**
+	 * Create the TypeConverter used for conversions that are not built-in.
+	 * A TypeConverter is not thread-safe.
+	 */
+	static SimpleTypeConverter createTypeConverter() {
+		SimpleTypeConverter typeConverter = new SimpleTypeConverter();
+
+		// To make sure that Double values can be converted into an int.
+		//
+		typeConverter.registerCustomEditor(int.class, new CustomNumberEditor(Integer.class, NumberFormat.getInstance(), false));
+
+		return typeConverter;
+	}
+
+	boolean isPrimitive() {
+		return parameterType.isPrimitive();
+	}
+
+	/**
+	 * Get the value to use in place of <code>null</code>:
+	 * zero or false for primitive types, <code>null</code> otherwise.
+	 */
+	Object getDefaultValue() {
+		return defaultValue;
+	}
+
+	@SuppressWarnings("unchecked")
+	Object convert(Object value, SimpleTypeConverter typeConverter) throws TypeMismatchException {
+		if ((null == value) || type.isInstance(value)) {
+			return value;
+		}
+		if (number && (value instanceof Number)) {
+			return NumberUtils.convertNumberToTargetClass((Number) value, (Class<Number>) type);
+		}
+		if (String.class == type) {
+			return value.toString();
+		}
+
+		return typeConverter.convertIfNecessary(value.toString(), parameterType);
+	}
+}
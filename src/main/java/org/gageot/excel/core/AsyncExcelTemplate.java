@@ -0,0 +1,163 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import static com.google.common.base.Preconditions.*;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+
+/**
+ * Asynchronous facade over an ExcelTemplate. Each read runs on the given
+ * Executor and returns at once with a ListenableFuture of its result, so
+ * that the calling thread doesn't wait for slow resources.
+ *
+ * <p>Concurrent reads of the same .xls Resource share one parse in flight:
+ * only the first read parses the file, the others wait for its workbook.
+ * The DataAccessExceptions of a failed read are given as the cause of the
+ * ExecutionException thrown by the future.
+ *
+ * @author David Gageot
+ * @see ExcelTemplate
+ */
+public class AsyncExcelTemplate {
+	private final ExcelTemplate excelTemplate;
+	private final Executor executor;
+
+	/**
+	 * Create a new AsyncExcelTemplate.
+	 * @param anExcelTemplate the template that will do the actual reads
+	 * @param anExecutor the executor that will run the reads
+	 */
+	public AsyncExcelTemplate(ExcelTemplate anExcelTemplate, Executor anExecutor) {
+		excelTemplate = checkNotNull(anExcelTemplate, "excelTemplate must not be null");
+		executor = checkNotNull(anExecutor, "executor must not be null");
+	}
+
+	/**
+	 * @see ExcelTemplate#getSheetNames()
+	 */
+	public ListenableFuture<String[]> getSheetNames() {
+		return submit(new Callable<String[]>() {
+			@Override
+			public String[] call() {
+				return excelTemplate.getSheetNames();
+			}
+		});
+	}
+
+	/**
+	 * @see ExcelTemplate#read(String,SheetExtractor)
+	 */
+	public <T> ListenableFuture<T> read(final String sheetName, final SheetExtractor<T> sheetExtractor) {
+		return submit(new Callable<T>() {
+			@Override
+			public T call() {
+				return excelTemplate.read(sheetName, sheetExtractor);
+			}
+		});
+	}
+
+	/**
+	 * @see ExcelTemplate#read(String)
+	 */
+	public ListenableFuture<String[][]> read(final String sheetName) {
+		return submit(new Callable<String[][]>() {
+			@Override
+			public String[][] call() {
+				return excelTemplate.read(sheetName);
+			}
+		});
+	}
+
+	/**
+	 * @see ExcelTemplate#read(String,CellMapper,Class)
+	 */
+	public <T> ListenableFuture<T[][]> read(final String sheetName, final CellMapper<T> cellMapper, final Class<T> clazz) {
+		return submit(new Callable<T[][]>() {
+			@Override
+			public T[][] call() {
+				return excelTemplate.read(sheetName, cellMapper, clazz);
+			}
+		});
+	}
+
+	/**
+	 * @see ExcelTemplate#readList(String)
+	 */
+	public ListenableFuture<List<Map<String, String>>> readList(final String sheetName) {
+		return submit(new Callable<List<Map<String, String>>>() {
+			@Override
+			public List<Map<String, String>> call() {
+				return excelTemplate.readList(sheetName);
+			}
+		});
+	}
+
+	/**
+	 * @see ExcelTemplate#readList(String,CellMapper)
+	 */
+	public <T> ListenableFuture<List<Map<String, T>>> readList(final String sheetName, final CellMapper<T> cellMapper) {
+		return submit(new Callable<List<Map<String, T>>>() {
+			@Override
+			public List<Map<String, T>> call() {
+				return excelTemplate.readList(sheetName, cellMapper);
+			}
+		});
+	}
+
+	/**
+	 * @see ExcelTemplate#readList(String,RowMapper)
+	 */
+	public <T> ListenableFuture<List<T>> readList(final String sheetName, final RowMapper<T> rowMapper) {
+		return submit(new Callable<List<T>>() {
+			@Override
+			public List<T> call() {
+				return excelTemplate.readList(sheetName, rowMapper);
+			}
+		});
+	}
+
+	/**
+	 * @see ExcelTemplate#readBeans(String,Class)
+	 */
+	public <T> ListenableFuture<List<T>> readBeans(final String sheetName, final Class<T> clazz) {
+		return submit(new Callable<List<T>>() {
+			@Override
+			public List<T> call() {
+				return excelTemplate.readBeans(sheetName, clazz);
+			}
+		});
+	}
+
+	private <T> ListenableFuture<T> submit(Callable<T> read) {
+		ListenableFutureTask<T> task = new ListenableFutureTask<T>(read);
+		executor.execute(task);
+		return task;
+	}
+
+	public ExcelTemplate getExcelTemplate() {
+		return excelTemplate;
+	}
+
+	public Executor getExecutor() {
+		return executor;
+	}
+}
@@ -17,38 +17,67 @@
 package org.gageot.excel.core;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.poi.hssf.usermodel.HSSFCell;
 import org.gageot.excel.beans.BeanSetter;
 import org.gageot.excel.beans.BeanSetterImpl;
+import org.gageot.excel.beans.PropertySetter;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanCreationException;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 
 /**
  * CallbackHandler implementation that creates a bean of the given class
  * for each row, representing all columns as bean properties.
+ * It can process both HSSFCells and streamed cells.
+ *
+ * <p>The first row gives the property names. Once it has been read, each
+ * column is bound to its property setter, so that the following rows
+ * only need an array lookup per cell. Columns that match no property
+ * are reported once and never converted. A ColumnProjection can restrict
+ * the columns even more. When streamed, cells of unused columns are not
+ * even decoded.
  *
  * @author David Gageot
  * @see ExcelTemplate#read(String,CellCallbackHandler)
  * @see BeanSetter
  */
-public class BeanCellCallbackHandler<T> implements CellCallbackHandler {
+public class BeanCellCallbackHandler<T> implements CellCallbackHandler, EventCellCallbackHandler, ColumnFilter {
+	private static final Log LOG = LogFactory.getLog(BeanCellCallbackHandler.class);
+
 	private final Class<T> clazz;
 	private final List<T> beans;
-	private final BeanSetter beanSetter;
-	private final Map<Integer, String> propertyNames;
-	private final CellMapper<Object> cellMapper;
-	private final CellMapper<String> headerMapper;
+	private final BeanSetterImpl beanSetter;
+	private final List<String> propertyNames;
+	private final List<String> unmappedPropertyNames;
+	private final ObjectCellMapper cellMapper;
+	private final StringCellMapper headerMapper;
+	private final ColumnProjection projection;
+	private PropertySetter[] propertySetters;
+	private int currentRowNum = -1;
+	private T currentBean;
 
 	public BeanCellCallbackHandler(Class<T> aClass) {
+		this(aClass, null);
+	}
+
+	/**
+	 * Create a BeanCellCallbackHandler that only sets the properties
+	 * of some columns.
+	 * @param aClass the class of the beans to create
+	 * @param aProjection the columns to read, or <code>null</code> for all
+	 */
+	public BeanCellCallbackHandler(Class<T> aClass, ColumnProjection aProjection) {
 		clazz = aClass;
+		projection = aProjection;
 		beans = Lists.newArrayList();
 		cellMapper = new ObjectCellMapper();
 		headerMapper = new StringCellMapper();
-		propertyNames = Maps.newTreeMap();
+		propertyNames = Lists.newArrayList();
+		unmappedPropertyNames = Lists.newArrayList();
 		beanSetter = new BeanSetterImpl();
 	}
 
@@ -56,26 +85,104 @@ public class BeanCellCallbackHandler<T> implements CellCallbackHandler {
 		return beans;
 	}
 
+	/**
+	 * Get the names of the columns that match no property of the bean class.
+	 */
+	public List<String> getUnmappedPropertyNames() {
+		return Collections.unmodifiableList(unmappedPropertyNames);
+	}
+
 	@Override
 	public void processCell(HSSFCell cell, int rowNum, int columnNum) throws IOException, BeansException {
 		if (0 == rowNum) {
-			String propertyName = headerMapper.mapCell(cell, rowNum, columnNum);
-			propertyNames.put(columnNum, propertyName);
+			addPropertyName(columnNum, headerMapper.mapCell(cell, rowNum, columnNum));
+			return;
+		}
+
+		T bean = getBean(rowNum);
+
+		PropertySetter propertySetter = getPropertySetter(columnNum);
+		if (null != propertySetter) {
+			propertySetter.setValue(bean, cellMapper.mapCell(cell, rowNum, columnNum));
+		}
+	}
+
+	@Override
+	public void processCell(EventCell cell, int rowNum, int columnNum) throws IOException, BeansException {
+		if (0 == rowNum) {
+			addPropertyName(columnNum, headerMapper.mapCell(cell, rowNum, columnNum));
 			return;
 		}
 
-		Object cellValue = cellMapper.mapCell(cell, rowNum, columnNum);
-		String propertyName = propertyNames.get(columnNum);
+		T bean = getBean(rowNum);
+
+		PropertySetter propertySetter = getPropertySetter(columnNum);
+		if (null != propertySetter) {
+			propertySetter.setValue(bean, cellMapper.mapCell(cell, rowNum, columnNum));
+		}
+	}
+
+	private void addPropertyName(int columnNum, String propertyName) {
+		while (propertyNames.size() <= columnNum) {
+			propertyNames.add(null);
+		}
+		propertyNames.set(columnNum, propertyName);
+	}
+
+	@Override
+	public boolean isColumnIncluded(int rowNum, int columnNum) {
+		if ((0 == rowNum) || (null == propertySetters)) {
+			return true;
+		}
+
+		return (columnNum < propertySetters.length) && (null != propertySetters[columnNum]);
+	}
+
+	private T getBean(int rowNum) throws BeansException {
+		if (rowNum != currentRowNum) {
+			currentRowNum = rowNum;
+			currentBean = createBean(clazz);
+			beans.add(currentBean);
+		}
+
+		return currentBean;
+	}
 
-		T bean;
-		if (rowNum <= beans.size()) {
-			bean = beans.get(rowNum - 1);
-		} else {
-			bean = createBean(clazz);
-			beans.add(bean);
+	private PropertySetter getPropertySetter(int columnNum) {
+		if (null == propertySetters) {
+			bindPropertySetters();
 		}
 
-		beanSetter.setProperty(bean, propertyName, cellValue);
+		return (columnNum < propertySetters.length) ? propertySetters[columnNum] : null;
+	}
+
+	/**
+	 * Resolve the property setter of each column, once the first row is read.
+	 */
+	private void bindPropertySetters() {
+		String[] headers = propertyNames.toArray(new String[propertyNames.size()]);
+		boolean[] projected = (null == projection) ? null : ColumnProjection.toMask(projection.resolve(headers));
+
+		propertySetters = new PropertySetter[headers.length];
+
+		for (int columnNum = 0; columnNum < propertySetters.length; columnNum++) {
+			String propertyName = headers[columnNum];
+			if ((null == propertyName) || (0 == propertyName.length())) {
+				continue;
+			}
+			if ((null != projected) && ((columnNum >= projected.length) || !projected[columnNum])) {
+				continue;
+			}
+
+			propertySetters[columnNum] = beanSetter.getPropertySetter(clazz, propertyName);
+			if (null == propertySetters[columnNum]) {
+				unmappedPropertyNames.add(propertyName);
+			}
+		}
+
+		if (!unmappedPropertyNames.isEmpty() && LOG.isInfoEnabled()) {
+			LOG.info("Columns " + unmappedPropertyNames + " match no property of " + clazz.getName() + " and are ignored");
+		}
 	}
 
 	/**
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.poi.hssf.usermodel.HSSFCell;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.ss.usermodel.Row;
+import org.gageot.excel.beans.BeanCreator;
+import org.gageot.excel.beans.ExcelColumn;
+import org.gageot.excel.beans.ExcelCreator;
+import org.springframework.beans.BeansException;
+import com.google.common.collect.Lists;
+
+/**
+ * RowCallbackHandler implementation that creates an object of the given class
+ * for each row, in a single call to its constructor or static factory method.
+ * Unlike BeanCellCallbackHandler, it needs no setters and can create
+ * immutable objects. It can process both HSSFRows and streamed rows.
+ *
+ * <p>The first row gives the column names. Each following row is converted
+ * into a reusable array of values, one per creator parameter, that is then
+ * given to the BeanCreator. Parameters whose column name matches no
+ * column are reported once and always given <code>null</code>, or the
+ * default value of their primitive type.
+ *
+ * @author David Gageot
+ * @see ExcelTemplate#readObjects(String,Class)
+ * @see BeanCreator
+ * @see ExcelCreator
+ * @see ExcelColumn
+ */
+public class BeanCreatorRowCallbackHandler<T> implements RowCallbackHandler, EventRowCallbackHandler {
+	private static final Log LOG = LogFactory.getLog(BeanCreatorRowCallbackHandler.class);
+
+	private final BeanCreator<T> beanCreator;
+	private final List<T> beans;
+	private final ObjectCellMapper cellMapper;
+	private final StringCellMapper headerMapper;
+	private final Object[] values;
+	private final List<String> unmappedColumnNames;
+	private int[] columns;
+
+	public BeanCreatorRowCallbackHandler(Class<T> aClass) throws BeansException {
+		this(new BeanCreator<T>(aClass));
+	}
+
+	public BeanCreatorRowCallbackHandler(BeanCreator<T> aBeanCreator) {
+		beanCreator = aBeanCreator;
+		beans = Lists.newArrayList();
+		cellMapper = new ObjectCellMapper();
+		headerMapper = new StringCellMapper();
+		values = new Object[aBeanCreator.getParameterCount()];
+		unmappedColumnNames = Lists.newArrayList();
+	}
+
+	public List<T> getBeans() {
+		return beans;
+	}
+
+	/**
+	 * Get the column names of the creator parameters that match no column.
+	 */
+	public List<String> getUnmappedColumnNames() {
+		return Collections.unmodifiableList(unmappedColumnNames);
+	}
+
+	@Override
+	public void processRow(HSSFRow row, int rowNum) throws IOException, BeansException {
+		if (null == row) {
+			return;
+		}
+
+		if (null == columns) { // First line, read column names
+			List<String> columnNames = Lists.newArrayList();
+			for (int columnNum = 0; columnNum < row.getLastCellNum(); columnNum++) {
+				columnNames.add(headerMapper.mapCell(row.getCell(columnNum, Row.RETURN_BLANK_AS_NULL), rowNum, columnNum));
+			}
+			bindColumns(columnNames);
+			return;
+		}
+
+		for (int i = 0; i < values.length; i++) {
+			HSSFCell cell = (columns[i] < 0) ? null : row.getCell(columns[i], Row.RETURN_BLANK_AS_NULL);
+			values[i] = (null == cell) ? null : cellMapper.mapCell(cell, rowNum, columns[i]);
+		}
+
+		beans.add(beanCreator.create(values));
+	}
+
+	@Override
+	public void processRow(EventCell[] cells, int rowNum) throws IOException, BeansException {
+		if (null == columns) { // First line, read column names
+			List<String> columnNames = Lists.newArrayList();
+			for (int columnNum = 0; columnNum < cells.length; columnNum++) {
+				columnNames.add(headerMapper.mapCell(cells[columnNum], rowNum, columnNum));
+			}
+			bindColumns(columnNames);
+			return;
+		}
+
+		for (int i = 0; i < values.length; i++) {
+			EventCell cell = ((columns[i] < 0) || (columns[i] >= cells.length)) ? null : cells[columns[i]];
+			values[i] = cellMapper.mapCell(cell, rowNum, columns[i]);
+		}
+
+		beans.add(beanCreator.create(values));
+	}
+
+	/**
+	 * Resolve the column of each creator parameter, by name or by position.
+	 */
+	private void bindColumns(List<String> columnNames) {
+		columns = new int[values.length];
+
+		for (int i = 0; i < columns.length; i++) {
+			String columnName = beanCreator.getColumnName(i);
+			if (null == columnName) {
+				columns[i] = i;
+				continue;
+			}
+
+			columns[i] = -1;
+			for (int columnNum = 0; columnNum < columnNames.size(); columnNum++) {
+				if (columnName.equalsIgnoreCase(columnNames.get(columnNum))) {
+					columns[i] = columnNum;
+					break;
+				}
+			}
+			if (columns[i] < 0) {
+				unmappedColumnNames.add(columnName);
+			}
+		}
+
+		if (!unmappedColumnNames.isEmpty() && LOG.isInfoEnabled()) {
+			LOG.info("Columns " + unmappedColumnNames + " of " + beanCreator.getBeanClass().getName() + " match no column and are left empty");
+		}
+	}
+}
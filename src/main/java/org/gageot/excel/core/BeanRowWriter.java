@@ -0,0 +1,103 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import static com.google.common.base.Preconditions.*;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.List;
+import org.apache.poi.ss.usermodel.Row;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.InvalidPropertyException;
+import org.springframework.util.ReflectionUtils;
+import com.google.common.collect.Lists;
+
+/**
+ * RowWriter implementation that writes the properties of a bean,
+ * one column per property. It is the inverse of BeanCellCallbackHandler:
+ * the headers it gives are the property names, so that the sheet
+ * can be read back into beans.
+ *
+ * <p>The getters are resolved once, when the writer is created.
+ * By default, all readable properties are written, sorted by name.
+ *
+ * <p>An instance of this class is not thread-safe.
+ *
+ * @author David Gageot
+ * @see ExcelTemplate#writeBeans(String,Iterable,Class)
+ * @see BeanCellCallbackHandler
+ */
+public class BeanRowWriter<T> implements RowWriter<T> {
+	private final String[] headers;
+	private final Method[] readMethods;
+	private final CellValueWriter cellValueWriter;
+
+	/**
+	 * Create a BeanRowWriter for all the readable properties of a class.
+	 * @param aClass the class of the beans to write
+	 */
+	public BeanRowWriter(Class<T> aClass) {
+		this(aClass, readablePropertyNames(aClass));
+	}
+
+	/**
+	 * Create a BeanRowWriter for some properties of a class, in the given order.
+	 * @param aClass the class of the beans to write
+	 * @param somePropertyNames the properties to write, one per column
+	 */
+	public BeanRowWriter(Class<T> aClass, String... somePropertyNames) {
+		checkNotNull(aClass, "class must not be null");
+		checkNotNull(somePropertyNames, "propertyNames must not be null");
+
+		headers = somePropertyNames.clone();
+		readMethods = new Method[headers.length];
+		for (int i = 0; i < headers.length; i++) {
+			PropertyDescriptor propertyDescriptor = BeanUtils.getPropertyDescriptor(aClass, headers[i]);
+			if ((null == propertyDescriptor) || (null == propertyDescriptor.getReadMethod())) {
+				throw new InvalidPropertyException(aClass, headers[i], "No readable property");
+			}
+
+			readMethods[i] = propertyDescriptor.getReadMethod();
+			ReflectionUtils.makeAccessible(readMethods[i]);
+		}
+		cellValueWriter = new CellValueWriter();
+	}
+
+	private static String[] readablePropertyNames(Class<?> aClass) {
+		List<String> propertyNames = Lists.newArrayList();
+		for (PropertyDescriptor propertyDescriptor : BeanUtils.getPropertyDescriptors(aClass)) {
+			if ((null != propertyDescriptor.getReadMethod()) && !"class".equals(propertyDescriptor.getName())) {
+				propertyNames.add(propertyDescriptor.getName());
+			}
+		}
+		return propertyNames.toArray(new String[propertyNames.size()]);
+	}
+
+	/**
+	 * Get the names of the written properties, to be used as the first row.
+	 */
+	public String[] getHeaders() {
+		return headers.clone();
+	}
+
+	@Override
+	public void writeRow(Row row, T bean) {
+		for (int i = 0; i < readMethods.length; i++) {
+			cellValueWriter.writeCell(row, i, ReflectionUtils.invokeMethod(readMethods[i], bean));
+		}
+	}
+}
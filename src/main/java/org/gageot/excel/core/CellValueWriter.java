@@ -0,0 +1,78 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import java.util.Calendar;
+import java.util.Date;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+
+/**
+ * Writes Java values into cells, with the cell type matching the value:
+ * numbers, booleans and dates are written as such, anything else as text.
+ * Dates share one cell style per workbook.
+ *
+ * <p>An instance of this class is not thread-safe.
+ *
+ * @author David Gageot
+ * @see RowWriter
+ */
+class CellValueWriter {
+	/** Built-in date format "m/d/yy", shown in the locale of the reader */
+	private static final short DATE_FORMAT = 14;
+
+	private Workbook workbook;
+	private CellStyle dateStyle;
+
+	/**
+	 * Write a value into a new cell of a row. No cell is created
+	 * for <code>null</code> values.
+	 */
+	void writeCell(Row row, int columnNum, Object value) {
+		if (null == value) {
+			return;
+		}
+
+		Cell cell = row.createCell(columnNum);
+		if (value instanceof String) {
+			cell.setCellValue((String) value);
+		} else if (value instanceof Number) {
+			cell.setCellValue(((Number) value).doubleValue());
+		} else if (value instanceof Boolean) {
+			cell.setCellValue(((Boolean) value).booleanValue());
+		} else if (value instanceof Date) {
+			cell.setCellValue((Date) value);
+			cell.setCellStyle(getDateStyle(row.getSheet().getWorkbook()));
+		} else if (value instanceof Calendar) {
+			cell.setCellValue((Calendar) value);
+			cell.setCellStyle(getDateStyle(row.getSheet().getWorkbook()));
+		} else {
+			cell.setCellValue(value.toString());
+		}
+	}
+
+	private CellStyle getDateStyle(Workbook aWorkbook) {
+		if (aWorkbook != workbook) {
+			workbook = aWorkbook;
+			dateStyle = aWorkbook.createCellStyle();
+			dateStyle.setDataFormat(DATE_FORMAT);
+		}
+		return dateStyle;
+	}
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gageot.excel.core;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * Iterator over the rows of a sheet, mapped lazily as they are pulled.
+ * It should be closed if it's not iterated until the end, to release
+ * the sheet it holds.
+ *
+ * @author David Gageot
+ * @see ExcelTemplate#iterate(String,RowMapper)
+ */
+public interface CloseableIterator<T> extends Iterator<T>, Closeable {
+	/**
+	 * Stop the iteration. Further calls to <code>hasNext</code> return false.
+	 */
+	@Override
+	void close();
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import static com.google.common.base.Preconditions.*;
+import java.util.BitSet;
+
+/**
+ * One column of a ColumnTable: a value, or nothing, for each row.
+ * Missing values are tracked in a bitmap, so that values themselves
+ * can be stored in primitive arrays.
+ *
+ * @author David Gageot
+ * @see ColumnTable
+ */
+public abstract class Column {
+	private final String name;
+	private final BitSet nulls;
+
+	Column(String aName, BitSet someNulls) {
+		name = aName;
+		nulls = someNulls;
+	}
+
+	/**
+	 * Get the name of the column, as given by the first row.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Get the number of rows.
+	 */
+	public abstract int size();
+
+	/**
+	 * Is the value of a row missing.
+	 * @param row index of the row, starting at 0 for the first row after the column names
+	 */
+	public boolean isNull(int row) {
+		checkElementIndex(row, size());
+
+		return nulls.get(row);
+	}
+
+	/**
+	 * Get the bitmap of the rows whose value is missing.
+	 * @return a copy of the bitmap
+	 */
+	public BitSet getNulls() {
+		return (BitSet) nulls.clone();
+	}
+
+	/**
+	 * Get the value of a row, boxed.
+	 * @param row index of the row, starting at 0 for the first row after the column names
+	 * @return the value, or <code>null</code> if it's missing
+	 */
+	public abstract Object getValue(int row);
+}
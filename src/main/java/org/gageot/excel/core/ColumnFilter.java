@@ -0,0 +1,36 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gageot.excel.core;
+
+/**
+ * Optional interface of an EventRowCallbackHandler that only needs some of
+ * the columns. The cells of excluded columns are not decoded by the streaming
+ * readers, and are given as <code>null</code> to the handler. Rows without
+ * any included cell are not given to the handler.
+ *
+ * <p>This method is called for each cell, so it should be cheap.
+ *
+ * @author David Gageot
+ * @see ExcelTemplate#stream(String,EventRowCallbackHandler)
+ */
+public interface ColumnFilter {
+	/**
+	 * Should a cell be decoded and given to the handler.
+	 * @param rowNum number of the current row
+	 * @param columnNum number of the column
+	 */
+	boolean isColumnIncluded(int rowNum, int columnNum);
+}
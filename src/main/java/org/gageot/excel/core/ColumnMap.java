@@ -0,0 +1,269 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import com.google.common.collect.Maps;
+
+/**
+ * Compact <code>java.util.Map</code> representation of a row: the values
+ * are stored in a plain array, and the case-insensitive column names are
+ * shared by all rows of a sheet through an immutable Index.
+ *
+ * <p>Entries are kept in column order. Values of existing columns are
+ * replaced in place. The first time a column is added or removed, the
+ * row is copied into a <code>LinkedCaseInsensitiveMap</code> that is used
+ * from then on. A ColumnMap is serialized as such a map.
+ *
+ * @author David Gageot
+ * @see ColumnMapRowMapper
+ */
+final class ColumnMap<T> extends AbstractMap<String, T> implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final Index index;
+	private final Object[] values;
+	private Map<String, T> copy;
+
+	ColumnMap(Index anIndex, Object[] someValues) {
+		index = anIndex;
+		values = someValues;
+	}
+
+	@Override
+	public int size() {
+		if (null != copy) {
+			return copy.size();
+		}
+		return index.size(values.length);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if (null != copy) {
+			return copy.containsKey(key);
+		}
+		return index.columnOf(key) < values.length;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public T get(Object key) {
+		if (null != copy) {
+			return copy.get(key);
+		}
+
+		int column = index.columnOf(key);
+		return (column < values.length) ? (T) values[column] : null;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public T put(String key, T value) {
+		if (null == copy) {
+			int column = index.columnOf(key);
+			if (column < values.length) {
+				T previous = (T) values[column];
+				values[column] = value;
+				return previous;
+			}
+		}
+
+		return copy().put(key, value);
+	}
+
+	@Override
+	public T remove(Object key) {
+		if ((null == copy) && !containsKey(key)) {
+			return null;
+		}
+		return copy().remove(key);
+	}
+
+	@Override
+	public void clear() {
+		copy().clear();
+	}
+
+	@Override
+	public Set<Map.Entry<String, T>> entrySet() {
+		return new AbstractSet<Map.Entry<String, T>>() {
+			@Override
+			public int size() {
+				return ColumnMap.this.size();
+			}
+
+			@Override
+			public Iterator<Map.Entry<String, T>> iterator() {
+				if (null != copy) {
+					return copy.entrySet().iterator();
+				}
+				return new EntryIterator();
+			}
+		};
+	}
+
+	/**
+	 * Copy the row into a regular map, before a column is added or removed.
+	 */
+	private Map<String, T> copy() {
+		if (null == copy) {
+			copy = toLinkedCaseInsensitiveMap();
+		}
+		return copy;
+	}
+
+	private Map<String, T> toLinkedCaseInsensitiveMap() {
+		Map<String, T> map = new LinkedCaseInsensitiveMap<T>(size());
+		for (Map.Entry<String, T> entry : entrySet()) {
+			map.put(entry.getKey(), entry.getValue());
+		}
+		return map;
+	}
+
+	private Object writeReplace() {
+		return toLinkedCaseInsensitiveMap();
+	}
+
+	/**
+	 * Iterates over the columns of the index. Removing an entry copies the
+	 * row, then the next values are read from the copy.
+	 */
+	private class EntryIterator implements Iterator<Map.Entry<String, T>> {
+		private int position = nextPosition(0);
+		private String lastKey;
+
+		private int nextPosition(int from) {
+			int next = from;
+			while ((next < index.keys.length) && (index.columns[next] >= values.length)) {
+				next++;
+			}
+			return next;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return position < index.keys.length;
+		}
+
+		@Override
+		public Map.Entry<String, T> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			final int current = position;
+			position = nextPosition(position + 1);
+			lastKey = index.keys[current];
+
+			return new AbstractMap.SimpleEntry<String, T>(index.keys[current], get(index.keys[current])) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public T setValue(T value) {
+					super.setValue(value);
+					return put(index.keys[current], value);
+				}
+			};
+		}
+
+		@Override
+		public void remove() {
+			if (null == lastKey) {
+				throw new IllegalStateException();
+			}
+
+			ColumnMap.this.remove(lastKey);
+			lastKey = null;
+		}
+	}
+
+	/**
+	 * Immutable, case-insensitive index of column names, shared by all rows.
+	 * When several columns have the same name, the last one is used.
+	 */
+	static final class Index {
+		private final String[] keys;
+		private final int[] columns;
+		private final Map<String, Integer> positions;
+		private final int columnCount;
+
+		Index(String[] columnNames) {
+			columnCount = columnNames.length;
+
+			Map<String, Integer> columnByKey = Maps.newLinkedHashMap();
+			Map<String, String> keyByLowerCaseKey = Maps.newHashMap();
+
+			for (int column = 0; column < columnNames.length; column++) {
+				String lowerCaseKey = columnNames[column].toLowerCase(Locale.ENGLISH);
+
+				String key = keyByLowerCaseKey.get(lowerCaseKey);
+				if (null == key) {
+					key = columnNames[column];
+					keyByLowerCaseKey.put(lowerCaseKey, key);
+				}
+				columnByKey.put(key, column);
+			}
+
+			keys = columnByKey.keySet().toArray(new String[columnByKey.size()]);
+			columns = new int[keys.length];
+			positions = Maps.newHashMapWithExpectedSize(keys.length);
+
+			int position = 0;
+			for (Map.Entry<String, Integer> entry : columnByKey.entrySet()) {
+				columns[position] = entry.getValue();
+				positions.put(entry.getKey().toLowerCase(Locale.ENGLISH), position);
+				position++;
+			}
+		}
+
+		int getColumnCount() {
+			return columnCount;
+		}
+
+		/**
+		 * Get the column of a key, or <code>Integer.MAX_VALUE</code> for unknown keys.
+		 */
+		int columnOf(Object key) {
+			if (key instanceof String) {
+				Integer position = positions.get(((String) key).toLowerCase(Locale.ENGLISH));
+				if (null != position) {
+					return columns[position];
+				}
+			}
+			return Integer.MAX_VALUE;
+		}
+
+		int size(int columnCount) {
+			int size = 0;
+			for (int column : columns) {
+				if (column < columnCount) {
+					size++;
+				}
+			}
+			return size;
+		}
+	}
+}
@@ -21,13 +21,16 @@ import java.util.Map;
 import org.apache.poi.hssf.usermodel.HSSFRow;
 import org.apache.poi.ss.usermodel.Row;
 import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * RowMapper implementation that creates a <code>java.util.Map</code>
  * for each row, representing all columns as key-value pairs: one
  * entry for each column, with the column name as key.
  *
- * <p>The Map implementation to use can be customized through overriding
+ * <p>By default, each row is a compact, case-insensitive Map: the column
+ * names are shared by all rows and the values are stored in an array.
+ * The Map implementation to use can be customized through overriding
  * <code>createColumnMap</code>.
  *
  * <p>The CellMapper implementation to use can be customized through overriding
@@ -37,37 +40,103 @@ import org.springframework.util.LinkedCaseInsensitiveMap;
  * @see ExcelTemplate#readList(String)
  */
 public class ColumnMapRowMapper<T> implements RowMapper<Map<String, T>> {
+	private final int[] columns;
 	private final String[] keys;
 	private final CellMapper<T> cellMapper;
+	private final ColumnMap.Index columnIndex;
+	private final boolean fillColumnMap;
 
 	public ColumnMapRowMapper(String[] aKeys, CellMapper<T> cellMapper) {
+		this.columns = new int[aKeys.length];
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = i;
+		}
 		this.keys = aKeys;
 		this.cellMapper = cellMapper;
+		this.columnIndex = new ColumnMap.Index(aKeys);
+		this.fillColumnMap = overridesCreateColumnMap(getClass());
+	}
+
+	/**
+	 * Create a ColumnMapRowMapper that maps only some of the columns.
+	 * The cells of other columns are never converted.
+	 * @param headers the names of all the columns
+	 * @param projection the columns to map
+	 * @param cellMapper object that will map each cell
+	 */
+	public ColumnMapRowMapper(String[] headers, ColumnProjection projection, CellMapper<T> cellMapper) {
+		this.columns = projection.resolveSorted(headers);
+		this.cellMapper = cellMapper;
+
+		this.keys = new String[columns.length];
+		for (int i = 0; i < columns.length; i++) {
+			keys[i] = (columns[i] < headers.length) ? headers[columns[i]] : "";
+		}
+		this.columnIndex = new ColumnMap.Index(keys);
+		this.fillColumnMap = overridesCreateColumnMap(getClass());
+	}
+
+	/**
+	 * Subclasses written for the former <code>createColumnMap(int)</code>
+	 * hook still get an empty map to fill.
+	 */
+	private static boolean overridesCreateColumnMap(Class<?> clazz) {
+		return ColumnMapRowMapper.class != ReflectionUtils.findMethod(clazz, "createColumnMap", int.class).getDeclaringClass();
 	}
 
 	@Override
 	public Map<String, T> mapRow(HSSFRow row, int rowNum) throws IOException {
-		Map<String, T> map = createColumnMap(row.getLastCellNum());
+		int lastColumnNum = row.getLastCellNum();
 
-		short lastColumnNum = row.getLastCellNum();
-		for (short columnNum = 0; columnNum < lastColumnNum; columnNum++) {
-			if (columnNum < keys.length) { // TODO : write test
-				map.put(keys[columnNum], cellMapper.mapCell(row.getCell(columnNum, Row.RETURN_BLANK_AS_NULL), rowNum, columnNum));
-			}
+		int columnCount = 0;
+		while ((columnCount < columns.length) && (columns[columnCount] < lastColumnNum)) {
+			columnCount++;
 		}
 
+		Object[] values = new Object[columnCount];
+		for (int i = 0; i < columnCount; i++) {
+			int columnNum = columns[i];
+			values[i] = cellMapper.mapCell(row.getCell(columnNum, Row.RETURN_BLANK_AS_NULL), rowNum, columnNum);
+		}
+
+		if (fillColumnMap) {
+			return fillColumnMap(values);
+		}
+		return createColumnMap(values);
+	}
+
+	@SuppressWarnings({"unchecked", "deprecation"})
+	private Map<String, T> fillColumnMap(Object[] values) {
+		Map<String, T> map = createColumnMap(values.length);
+		for (int i = 0; i < values.length; i++) {
+			map.put(keys[i], (T) values[i]);
+		}
 		return map;
 	}
 
 	/**
 	 * Create a Map instance to be used as column map.
-	 * <p>By default, a linked case-insensitive Map will be created.
+	 * <p>By default, a compact case-insensitive Map will be created,
+	 * backed by the given array.
+	 * @param values the mapped values of the row, in column order. Columns
+	 * after the last cell of the row, or not projected, are not included
+	 * @return the new Map instance
+	 */
+	protected Map<String, T> createColumnMap(Object[] values) {
+		return new ColumnMap<T>(columnIndex, values);
+	}
+
+	/**
+	 * Create an empty Map instance to be filled, cell by cell, as column map.
+	 * <p>It is only used when overridden, instead of
+	 * <code>createColumnMap(Object[])</code>.
 	 * @param columnCount the column count, to be used as initial
 	 * capacity for the Map
 	 * @return the new Map instance
-	 * @see org.springframework.util.LinkedCaseInsensitiveMap
+	 * @deprecated override {@link #createColumnMap(Object[])} instead
 	 */
+	@Deprecated
 	protected Map<String, T> createColumnMap(int columnCount) {
-		return new LinkedCaseInsensitiveMap<T>();
+		return new LinkedCaseInsensitiveMap<T>(columnCount);
 	}
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gageot.excel.core;
+
+import static com.google.common.base.Preconditions.*;
+import java.util.Arrays;
+import org.springframework.dao.DataRetrievalFailureException;
+
+/**
+ * Selection of the columns to read, by header name or by index.
+ * Cells of the other columns are never converted, and never decoded
+ * when a file is streamed.
+ *
+ * <p>Header names are matched case-insensitively against the first row of
+ * the sheet. Resolving an unknown header name fails.
+ *
+ * @author David Gageot
+ * @see ExcelTemplate#readList(String,ColumnProjection)
+ */
+public final class ColumnProjection {
+	private final String[] names;
+	private final int[] indexes;
+
+	private ColumnProjection(String[] someNames, int[] someIndexes) {
+		names = someNames;
+		indexes = someIndexes;
+	}
+
+	/**
+	 * Select columns by header name.
+	 */
+	public static ColumnProjection byName(String... names) {
+		checkArgument(names.length > 0, "At least one column must be selected");
+		for (String name : names) {
+			checkNotNull(name, "Column names must not be null");
+		}
+
+		return new ColumnProjection(names.clone(), null);
+	}
+
+	/**
+	 * Select columns by index, starting at 0.
+	 */
+	public static ColumnProjection byIndex(int... indexes) {
+		checkArgument(indexes.length > 0, "At least one column must be selected");
+		for (int index : indexes) {
+			checkArgument(index >= 0, "Column indexes must be positive");
+		}
+
+		return new ColumnProjection(null, indexes.clone());
+	}
+
+	/**
+	 * Do we need the header row to resolve the columns.
+	 */
+	boolean isByName() {
+		return null != names;
+	}
+
+	/**
+	 * Resolve the selected columns, in the order of the selection.
+	 * @param headers the header row, only used to select by name
+	 * @return the column indexes
+	 */
+	int[] resolve(String[] headers) {
+		if (!isByName()) {
+			return indexes.clone();
+		}
+
+		int[] columns = new int[names.length];
+		for (int i = 0; i < names.length; i++) {
+			columns[i] = indexOf(headers, names[i]);
+		}
+		return columns;
+	}
+
+	/**
+	 * Resolve the selected columns, in the order of the sheet.
+	 */
+	int[] resolveSorted(String[] headers) {
+		int[] columns = resolve(headers);
+		Arrays.sort(columns);
+		return columns;
+	}
+
+	/**
+	 * Get a lookup table of the given columns.
+	 */
+	static boolean[] toMask(int[] columns) {
+		int size = 0;
+		for (int column : columns) {
+			size = Math.max(size, column + 1);
+		}
+
+		boolean[] mask = new boolean[size];
+		for (int column : columns) {
+			mask[column] = true;
+		}
+		return mask;
+	}
+
+	private static int indexOf(String[] headers, String name) {
+		for (int i = 0; i < headers.length; i++) {
+			if (name.equalsIgnoreCase(headers[i])) {
+				return i;
+			}
+		}
+
+		throw new DataRetrievalFailureException("Unknown column: " + name);
+	}
+
+	@Override
+	public String toString() {
+		return isByName() ? Arrays.toString(names) : Arrays.toString(indexes);
+	}
+}
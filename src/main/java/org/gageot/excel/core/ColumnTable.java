@@ -0,0 +1,223 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Column oriented content of a sheet: the first row gives the column names,
+ * and each column holds the values of the following rows.
+ *
+ * <p>A column whose values are all plain numbers is a LongColumn if they
+ * all are integral, a DoubleColumn otherwise. Any other column is a
+ * dictionary encoded StringColumn. Each kind of column stores its values
+ * in a single primitive array, that can be scanned without boxing.
+ *
+ * @author David Gageot
+ * @see ExcelTemplate#readColumns(String)
+ */
+public final class ColumnTable {
+	private final int rowCount;
+	private final List<Column> columns;
+	private final Map<String, Column> columnsByName;
+
+	ColumnTable(int aRowCount, List<Column> someColumns) {
+		rowCount = aRowCount;
+		columns = Collections.unmodifiableList(someColumns);
+		columnsByName = Maps.newHashMap();
+		for (Column column : someColumns) {
+			String key = column.getName().toLowerCase(Locale.ENGLISH);
+			if (!columnsByName.containsKey(key)) {
+				columnsByName.put(key, column);
+			}
+		}
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	public int getColumnCount() {
+		return columns.size();
+	}
+
+	public List<Column> getColumns() {
+		return columns;
+	}
+
+	public Column getColumn(int index) {
+		return columns.get(index);
+	}
+
+	/**
+	 * Get a column by name. The name is case insensitive.
+	 * @return the first column with this name, or <code>null</code> if none
+	 */
+	public Column getColumn(String name) {
+		return (null == name) ? null : columnsByName.get(name.toLowerCase(Locale.ENGLISH));
+	}
+
+	/**
+	 * Builds a ColumnTable one cell at a time, without knowing the kind of
+	 * the columns in advance. Numbers are kept unmapped, and only mapped
+	 * to strings if their column turns out to hold other values too.
+	 */
+	static class Builder {
+		private final String[] names;
+		private final ColumnBuilder[] columns;
+		private int rowCount;
+
+		Builder(String[] someNames) {
+			names = someNames;
+			columns = new ColumnBuilder[someNames.length];
+			for (int i = 0; i < columns.length; i++) {
+				columns[i] = new ColumnBuilder();
+			}
+		}
+
+		int getColumnCount() {
+			return columns.length;
+		}
+
+		/**
+		 * Start a new row. Cells are then added to this row.
+		 */
+		void addRow() {
+			rowCount++;
+		}
+
+		void addNumber(int column, double value) {
+			columns[column].addNumber(rowCount - 1, value);
+		}
+
+		void addString(int column, String value) {
+			columns[column].addString(rowCount - 1, value);
+		}
+
+		ColumnTable build() {
+			List<Column> built = Lists.newArrayListWithCapacity(columns.length);
+			for (int i = 0; i < columns.length; i++) {
+				built.add(columns[i].build((null == names[i]) ? "" : names[i], rowCount));
+			}
+			return new ColumnTable(rowCount, built);
+		}
+	}
+
+	private static class ColumnBuilder {
+		/** Greatest magnitude below which every integral double is exact */
+		private static final double MAX_EXACT_INTEGER = 9007199254740992.0;
+
+		private final BitSet numberRows = new BitSet();
+		private final BitSet stringRows = new BitSet();
+		private double[] numbers;
+		private int[] codes;
+		private List<String> dictionary;
+		private Map<String, Integer> codesByString;
+
+		void addNumber(int row, double value) {
+			if (null == numbers) {
+				numbers = new double[Math.max(16, row + 1)];
+			} else if (row >= numbers.length) {
+				numbers = Arrays.copyOf(numbers, Math.max(row + 1, numbers.length * 2));
+			}
+
+			numbers[row] = value;
+			numberRows.set(row);
+		}
+
+		void addString(int row, String value) {
+			if (null == codes) {
+				codes = new int[Math.max(16, row + 1)];
+				dictionary = Lists.newArrayList();
+				codesByString = Maps.newHashMap();
+			} else if (row >= codes.length) {
+				codes = Arrays.copyOf(codes, Math.max(row + 1, codes.length * 2));
+			}
+
+			codes[row] = code(value);
+			stringRows.set(row);
+		}
+
+		private int code(String value) {
+			Integer code = codesByString.get(value);
+			if (null == code) {
+				code = dictionary.size();
+				codesByString.put(value, code);
+				dictionary.add(value);
+			}
+			return code;
+		}
+
+		Column build(String name, int rowCount) {
+			BitSet nulls = new BitSet(rowCount);
+			nulls.set(0, rowCount);
+			nulls.andNot(numberRows);
+			nulls.andNot(stringRows);
+
+			if (stringRows.isEmpty() && !numberRows.isEmpty()) {
+				return buildNumbers(name, rowCount, nulls);
+			}
+
+			if (null == codes) {
+				codes = new int[0];
+				dictionary = Lists.newArrayList();
+				codesByString = Maps.newHashMap();
+			}
+
+			int[] values = new int[rowCount];
+			Arrays.fill(values, -1);
+			for (int row = stringRows.nextSetBit(0); row >= 0; row = stringRows.nextSetBit(row + 1)) {
+				values[row] = codes[row];
+			}
+			for (int row = numberRows.nextSetBit(0); row >= 0; row = numberRows.nextSetBit(row + 1)) {
+				values[row] = code(Double.toString(numbers[row]));
+			}
+
+			return new StringColumn(name, values, dictionary.toArray(new String[dictionary.size()]), nulls);
+		}
+
+		private Column buildNumbers(String name, int rowCount, BitSet nulls) {
+			boolean integral = true;
+			for (int row = numberRows.nextSetBit(0); integral && (row >= 0); row = numberRows.nextSetBit(row + 1)) {
+				double value = numbers[row];
+				integral = (Math.rint(value) == value) && (Math.abs(value) <= MAX_EXACT_INTEGER);
+			}
+
+			if (integral) {
+				long[] values = new long[rowCount];
+				for (int row = numberRows.nextSetBit(0); row >= 0; row = numberRows.nextSetBit(row + 1)) {
+					values[row] = (long) numbers[row];
+				}
+				return new LongColumn(name, values, nulls);
+			}
+
+			double[] values = new double[rowCount];
+			Arrays.fill(values, Double.NaN);
+			for (int row = numberRows.nextSetBit(0); row >= 0; row = numberRows.nextSetBit(row + 1)) {
+				values[row] = numbers[row];
+			}
+			return new DoubleColumn(name, values, nulls);
+		}
+	}
+}
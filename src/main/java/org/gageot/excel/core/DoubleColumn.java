@@ -0,0 +1,57 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import java.util.BitSet;
+
+/**
+ * Column of numbers, stored in a <code>double[]</code>.
+ * Missing values are stored as NaN.
+ *
+ * @author David Gageot
+ * @see ColumnTable
+ */
+public final class DoubleColumn extends Column {
+	private final double[] values;
+
+	DoubleColumn(String aName, double[] someValues, BitSet someNulls) {
+		super(aName, someNulls);
+		values = someValues;
+	}
+
+	@Override
+	public int size() {
+		return values.length;
+	}
+
+	public double getDouble(int row) {
+		return values[row];
+	}
+
+	/**
+	 * Get the values, one per row. The array is not copied,
+	 * so that it can be scanned without overhead: it must not be modified.
+	 */
+	public double[] getValues() {
+		return values;
+	}
+
+	@Override
+	public Double getValue(int row) {
+		return isNull(row) ? null : Double.valueOf(values[row]);
+	}
+}
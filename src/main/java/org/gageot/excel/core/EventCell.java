@@ -0,0 +1,127 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import java.util.Date;
+import org.apache.poi.hssf.usermodel.HSSFDateUtil;
+import org.apache.poi.ss.usermodel.Cell;
+
+/**
+ * Immutable value of a cell, as decoded by ExcelTemplate's streaming readers.
+ * Unlike a HSSFCell, an EventCell is detached from any workbook.
+ *
+ * <p>The cell type is one of <code>Cell.CELL_TYPE_NUMERIC</code>,
+ * <code>Cell.CELL_TYPE_STRING</code>, <code>Cell.CELL_TYPE_BOOLEAN</code> or
+ * <code>Cell.CELL_TYPE_ERROR</code>. Formula cells are given the type of
+ * their cached result.
+ *
+ * @author David Gageot
+ * @see EventCellMapper
+ * @see ExcelTemplate#stream(String,EventRowCallbackHandler)
+ */
+public final class EventCell {
+	private final int cellType;
+	private final boolean formula;
+	private final double numericValue;
+	private final String stringValue;
+	private final boolean booleanValue;
+	private final byte errorValue;
+	private final short dataFormat;
+	private final String dataFormatString;
+	private final boolean date1904;
+
+	private EventCell(int aCellType, boolean aFormula, double aNumericValue, String aStringValue, boolean aBooleanValue, byte anErrorValue, short aDataFormat, String aDataFormatString, boolean aDate1904) {
+		cellType = aCellType;
+		formula = aFormula;
+		numericValue = aNumericValue;
+		stringValue = aStringValue;
+		booleanValue = aBooleanValue;
+		errorValue = anErrorValue;
+		dataFormat = aDataFormat;
+		dataFormatString = aDataFormatString;
+		date1904 = aDate1904;
+	}
+
+	public static EventCell numeric(double value, short dataFormat, String dataFormatString, boolean date1904, boolean formula) {
+		return new EventCell(Cell.CELL_TYPE_NUMERIC, formula, value, null, false, (byte) 0, dataFormat, dataFormatString, date1904);
+	}
+
+	public static EventCell string(String value, short dataFormat, String dataFormatString, boolean formula) {
+		return new EventCell(Cell.CELL_TYPE_STRING, formula, 0.0, value, false, (byte) 0, dataFormat, dataFormatString, false);
+	}
+
+	public static EventCell bool(boolean value, boolean formula) {
+		return new EventCell(Cell.CELL_TYPE_BOOLEAN, formula, 0.0, null, value, (byte) 0, (short) 0, null, false);
+	}
+
+	public static EventCell error(byte value, boolean formula) {
+		return new EventCell(Cell.CELL_TYPE_ERROR, formula, 0.0, null, false, value, (short) 0, null, false);
+	}
+
+	public int getCellType() {
+		return cellType;
+	}
+
+	/**
+	 * Is this cell the cached result of a formula.
+	 */
+	public boolean isFormula() {
+		return formula;
+	}
+
+	public double getNumericCellValue() {
+		return numericValue;
+	}
+
+	/**
+	 * Convert the numeric value into a date, honoring the
+	 * date windowing (1900 or 1904) of the workbook.
+	 */
+	public Date getDateCellValue() {
+		return HSSFDateUtil.getJavaDate(numericValue, date1904);
+	}
+
+	boolean isDate1904() {
+		return date1904;
+	}
+
+	public String getStringCellValue() {
+		return stringValue;
+	}
+
+	public boolean getBooleanCellValue() {
+		return booleanValue;
+	}
+
+	public byte getErrorCellValue() {
+		return errorValue;
+	}
+
+	/**
+	 * Get the index of the data format applied to this cell.
+	 */
+	public short getDataFormat() {
+		return dataFormat;
+	}
+
+	/**
+	 * Get the data format applied to this cell, <code>null</code> if unknown.
+	 */
+	public String getDataFormatString() {
+		return dataFormatString;
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import java.io.IOException;
+
+/**
+ * Callback interface used by ExcelTemplate's streaming methods.
+ * This is the streaming counterpart of CellCallbackHandler.
+ *
+ * @author David Gageot
+ * @see CellCallbackHandler
+ * @see ExcelTemplate#stream(String,EventCellCallbackHandler)
+ */
+public interface EventCellCallbackHandler {
+	/**
+	 * Implementations must implement this method to process each cell of data
+	 * in the sheet.
+	 * @param cell the EventCell to process, <code>null</code> for a blank cell
+	 * @param rowNum the number of the current row
+	 * @param columnNum the number of the current column
+	 * @throws IOException if a IOException is encountered getting
+	 * column values (that is, there's no need to catch IOException)
+	 */
+	void processCell(EventCell cell, int rowNum, int columnNum) throws IOException;
+}
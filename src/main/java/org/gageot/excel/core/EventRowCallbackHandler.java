@@ -0,0 +1,44 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import java.io.IOException;
+
+/**
+ * Callback interface used by ExcelTemplate's streaming methods.
+ * This is the streaming counterpart of RowCallbackHandler: rows are pushed
+ * one after the other as the file is read, and are never kept in memory
+ * by the reader.
+ *
+ * <p>Only rows containing at least one cell are processed.
+ *
+ * @author David Gageot
+ * @see RowCallbackHandler
+ * @see ExcelTemplate#stream(String,EventRowCallbackHandler)
+ */
+public interface EventRowCallbackHandler {
+	/**
+	 * Implementations must implement this method to process each row of data
+	 * in the sheet.
+	 * @param cells the cells of the row, indexed by column number.
+	 * Blank cells are <code>null</code>
+	 * @param rowNum the number of the current row
+	 * @throws IOException if a IOException is encountered getting
+	 * column values (that is, there's no need to catch IOException)
+	 */
+	void processRow(EventCell[] cells, int rowNum) throws IOException;
+}
@@ -18,17 +18,47 @@ package org.gageot.excel.core;
 
 import static com.google.common.base.Preconditions.*;
 import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.poi.hssf.usermodel.HSSFCell;
 import org.apache.poi.hssf.usermodel.HSSFRow;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.FileSystemResource;
@@ -36,9 +66,19 @@ import org.springframework.core.io.Resource;
 import org.springframework.dao.CleanupFailureDataAccessException;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import com.google.common.base.Function;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.ObjectArrays;
+import com.google.common.io.CountingInputStream;
+import com.google.common.util.concurrent.MoreExecutors;
 
 /**
  * <b>This is the central class in the Excel core package.</b>
@@ -53,6 +93,18 @@ import com.google.common.collect.ObjectArrays;
  * with a Resource reference, or get prepared in an application context
  * and given to services as bean reference.
  *
+ * <p>Both .xls and .xlsx files can be read. The .xlsx files are always
+ * streamed: they can be read with the stream methods, or with the methods
+ * that don't expose HSSF types and the built-in CellMappers.
+ *
+ * <p>Concurrent reads of a .xls file through the same template share a single
+ * parse of the file, and so the same HSSFWorkbook, just like the reads of a
+ * workbook kept in a WorkbookCache. Callbacks given HSSF objects, such as
+ * SheetExtractors, RowCallbackHandlers and RowMappers, must only read them.
+ *
+ * <p>Files can also be written, one sheet at a time, with a RowWriter
+ * filling each row. Large .xlsx files are written in bounded memory.
+ *
  * <p>The motivation and design of this class is inspired from JdbcTemplate.
  *
  * <p>Because this class is parameterizable by the callback interfaces,
@@ -62,11 +114,52 @@ import com.google.common.collect.ObjectArrays;
  * @see SheetExtractor
  * @see RowCallbackHandler
  * @see RowMapper
+ * @see RowWriter
  */
 public class ExcelTemplate implements InitializingBean {
+	private static final Log LOG = LogFactory.getLog(ExcelTemplate.class);
+
+	/** Selects all the rows that exist */
+	private static final RowFilter EXISTING_ROWS = new RowFilter() {
+		@Override
+		public boolean accept(HSSFRow row, int rowNum) {
+			return true;
+		}
+	};
+
 	/** Used to obtain Excel data throughout the lifecycle of this object */
 	private Resource resource;
 
+	/** Optional cache of parsed workbooks, shared between templates */
+	private WorkbookCache workbookCache;
+
+	/** Optional cache of extraction results, shared between templates */
+	private ResultCache resultCache;
+
+	/** Optional store of sheet snapshots, shared between templates */
+	private SnapshotStore snapshotStore;
+
+	/** Optional executor used to extract several sheets concurrently */
+	private ExecutorService executorService;
+
+	/** Optional listener notified of the phases of each read */
+	private ReadListener readListener;
+
+	/** Number of rows kept in memory when writing a .xlsx file */
+	private int writeWindowSize = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
+
+	/** Should equal strings mapped during a read share the same instance */
+	private boolean canonicalStrings;
+
+	/** Should formulas of .xls files be evaluated rather than read from their cached result */
+	private boolean evaluateFormulas;
+
+	/** Number of rows from which a sheet is mapped in parallel, 0 to never */
+	private int parallelThreshold;
+
+	/** Parses of .xls files in progress, joined by concurrent reads, keyed on Resource and evaluateFormulas */
+	private final ConcurrentMap<List<Object>, FutureTask<HSSFWorkbook>> parsesInFlight = Maps.newConcurrentMap();
+
 	/**
 	 * Construct a new ExcelTemplate for bean usage.
 	 * Note: The Resource has to be set before using the instance.
@@ -115,6 +208,15 @@ public class ExcelTemplate implements InitializingBean {
 	 * @throws DataAccessException if there is any problem
 	 */
 	public String[] getSheetNames() {
+		if (isOfficeOpenXml()) {
+			return readPackage(new PackageCallback<String[]>() {
+				@Override
+				public String[] doInPackage(OPCPackage pkg) throws IOException {
+					return XSSFEventSheetReader.getSheetNames(pkg);
+				}
+			});
+		}
+
 		return read(new Function<HSSFWorkbook, String[]>() {
 			@Override
 			public String[] apply(HSSFWorkbook workbook) {
@@ -138,258 +240,2291 @@ public class ExcelTemplate implements InitializingBean {
 	 * @return an arbitrary result object, as returned by the ResultSetExtractor
 	 * @throws DataAccessException if there is any problem
 	 */
-	public <T> T read(final String sheetName, final SheetExtractor<T> sheetExtractor) throws DataAccessException {
+	public <T> T read(String sheetName, SheetExtractor<T> sheetExtractor) throws DataAccessException {
+		return read(sheetName, sheetExtractor, true, newSheetCounter());
+	}
+
+	/**
+	 * Read a sheet with a SheetExtractor whose CellMapper evaluates the
+	 * formulas it maps, so that the others don't need to be evaluated.
+	 */
+	private <T> T readMapped(String sheetName, SheetExtractor<T> sheetExtractor, SheetCounter counter) {
+		return read(sheetName, sheetExtractor, false, counter);
+	}
+
+	private <T> T read(final String sheetName, final SheetExtractor<T> sheetExtractor, final boolean evaluateSheet, final SheetCounter counter) {
 		checkNotNull(sheetExtractor, "SheetExtractor must not be null");
 		checkNotNull(sheetName, "sheetName must not be null");
 
 		return read(new Function<HSSFWorkbook, T>() {
 			@Override
 			public T apply(HSSFWorkbook workbook) {
-				HSSFSheet sheet = workbook.getSheet(sheetName);
-				try {
-					return sheetExtractor.extractData(sheet);
-				} catch (IOException e) {
-					throw new DataAccessResourceFailureException("Problem reading file", e);
-				}
+				return extractData(workbook, sheetName, sheetExtractor, (evaluateFormulas && evaluateSheet) ? WorkbookEvaluator.of(workbook) : null, counter);
 			}
 		});
 	}
 
-	private <T> T read(Function<HSSFWorkbook, T> transform) {
-		checkNotNull(getResource(), "resource must not be null");
+	/**
+	 * Read the content of several sheets of an Excel file, parsing the file only once.
+	 * Each sheet is extracted by its own SheetExtractor. Extractions run concurrently
+	 * on the ExecutorService of this template, or one after the other if none is set.
+	 * @param sheetExtractors SheetExtractors indexed by sheet name
+	 * @return the extraction results indexed by sheet name, in the same order
+	 * @throws DataAccessException if there is any problem
+	 * @see #setExecutorService
+	 */
+	public Map<String, Object> readAll(Map<String, ? extends SheetExtractor<?>> sheetExtractors) throws DataAccessException {
+		checkNotNull(sheetExtractors, "sheetExtractors must not be null");
 
-		InputStream in = null;
-		try {
-			in = new BufferedInputStream(getResource().getInputStream());
+		final HSSFWorkbook workbook = getWorkbook();
+		final WorkbookEvaluator evaluator = evaluateFormulas ? WorkbookEvaluator.of(workbook) : null;
+		ExecutorService executor = (null != executorService) ? executorService : MoreExecutors.sameThreadExecutor();
 
-			return transform.apply(new HSSFWorkbook(in, false));
-		} catch (IOException e) {
-			throw new DataAccessResourceFailureException("Problem reading file", e);
-		} finally {
-			if (null != in) {
-				try {
-					in.close();
-				} catch (IOException e) {
-					throw new CleanupFailureDataAccessException("Problem closing file", e);
+		Map<String, Future<?>> futures = Maps.newLinkedHashMap();
+		for (Map.Entry<String, ? extends SheetExtractor<?>> entry : sheetExtractors.entrySet()) {
+			final String sheetName = checkNotNull(entry.getKey(), "sheetName must not be null");
+			final SheetExtractor<?> sheetExtractor = checkNotNull(entry.getValue(), "SheetExtractor must not be null");
+
+			futures.put(sheetName, executor.submit(new Callable<Object>() {
+				@Override
+				public Object call() {
+					return extractData(workbook, sheetName, sheetExtractor, evaluator, newSheetCounter());
 				}
+			}));
+		}
+
+		try {
+			Map<String, Object> results = Maps.newLinkedHashMap();
+			for (Map.Entry<String, Future<?>> entry : futures.entrySet()) {
+				results.put(entry.getKey(), getResult(entry.getValue()));
+			}
+			return results;
+		} finally {
+			for (Future<?> future : futures.values()) {
+				future.cancel(true);
 			}
 		}
 	}
 
-	public String[][] read(String sheetName) throws DataAccessException {
-		return read(sheetName, new StringCellMapper(), String.class);
+	/**
+	 * @param evaluator evaluates every formula of the sheet first, or <code>null</code>
+	 */
+	private <T> T extractData(HSSFWorkbook workbook, String sheetName, SheetExtractor<T> sheetExtractor, WorkbookEvaluator evaluator, SheetCounter counter) {
+		HSSFSheet sheet = workbook.getSheet(sheetName);
+		long start = System.nanoTime();
+		try {
+			if ((null != evaluator) && (null != sheet)) {
+				evaluator.evaluate(sheet);
+			}
+
+			T result = sheetExtractor.extractData(sheet);
+			fireSheetRead(sheetName, counter, start);
+			return result;
+		} catch (IOException e) {
+			throw new DataAccessResourceFailureException("Problem reading file", e);
+		}
 	}
 
-	public <T> T[][] read(String sheetName, CellMapper<T> cellMapper, Class<T> clazz) throws DataAccessException {
-		return read(sheetName, new ObjectArraySheetExtractor<T>(cellMapper, clazz));
+	private static <T> T getResult(Future<T> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DataAccessResourceFailureException("Interrupted while reading file", e);
+		} catch (ExecutionException e) {
+			Throwables.propagateIfPossible(e.getCause());
+			throw new DataAccessResourceFailureException("Problem reading file", e.getCause());
+		}
 	}
 
-	public <T> List<T> readList(String sheetName, RowMapper<T> rowMapper) throws DataAccessException {
-		return read(sheetName, new RowMapperSheetExtractor<T>(rowMapper));
+	private <T> T read(Function<HSSFWorkbook, T> transform) {
+		return transform.apply(getWorkbook());
 	}
 
-	public List<Map<String, String>> readList(String sheetName) throws DataAccessException {
-		return readList(sheetName, new StringCellMapper());
+	/**
+	 * Get the parsed workbook, from the WorkbookCache if one is set
+	 * and the Resource hasn't changed since it was cached.
+	 */
+	private HSSFWorkbook getWorkbook() {
+		checkNotNull(getResource(), "resource must not be null");
+		if (isOfficeOpenXml()) {
+			throw new InvalidDataAccessApiUsageException("HSSF callbacks can't read a .xlsx file, use the stream methods instead");
+		}
+
+		if (null == workbookCache) {
+			return readWorkbook();
+		}
+
+		long lastModified = lastModified(getResource());
+
+		HSSFWorkbook workbook = workbookCache.get(getResource(), lastModified, evaluateFormulas);
+		if (null != workbook) {
+			if (null != readListener) {
+				readListener.cacheHit(getResource());
+			}
+			return workbook;
+		}
+
+		if (null != readListener) {
+			readListener.cacheMiss(getResource());
+		}
+		workbook = readWorkbook();
+		workbookCache.put(getResource(), lastModified, evaluateFormulas, workbook);
+
+		return workbook;
 	}
 
-	public <T> List<Map<String, T>> readList(String sheetName, CellMapper<T> cellMapper) throws DataAccessException {
-		MapListRowCallbackHandler<T> rowHandler = new MapListRowCallbackHandler<T>(cellMapper);
+	/**
+	 * Parse a .xls file. Concurrent reads of the same Resource share
+	 * the parse in flight rather than each starting its own. They get
+	 * the same workbook, that callbacks must only read.
+	 */
+	private HSSFWorkbook readWorkbook() {
+		FutureTask<HSSFWorkbook> parse = new FutureTask<HSSFWorkbook>(new Callable<HSSFWorkbook>() {
+			@Override
+			public HSSFWorkbook call() {
+				return parseWorkbook();
+			}
+		});
 
-		read(sheetName, rowHandler);
+		List<Object> key = Arrays.<Object> asList(getResource(), evaluateFormulas);
+		FutureTask<HSSFWorkbook> parseInFlight = parsesInFlight.putIfAbsent(key, parse);
+		if (null != parseInFlight) {
+			parseInFlightJoined();
+			return getResult(parseInFlight);
+		}
 
-		return rowHandler.getValues();
+		try {
+			parse.run();
+		} finally {
+			parsesInFlight.remove(key, parse);
+		}
+		return getResult(parse);
 	}
 
-	public void read(String sheetName, RowCallbackHandler rowCallbackHandler) throws DataAccessException {
-		read(sheetName, new RowCallbackHandlerSheetExtractor(rowCallbackHandler));
+	/**
+	 * Called when a read waits for the parse in flight of another read,
+	 * instead of parsing the file again. Overridden by tests.
+	 */
+	void parseInFlightJoined() {
+		// Nothing to do
 	}
 
-	public void read(String sheetName, CellCallbackHandler cellCallbackHandler) throws DataAccessException {
-		read(sheetName, new CellCallbackHandlerSheetExtractor(cellCallbackHandler));
+	private HSSFWorkbook parseWorkbook() {
+		return readFileSystem(new FileSystemCallback<HSSFWorkbook>() {
+			@Override
+			public HSSFWorkbook doInFileSystem(DirectoryNode root) throws IOException {
+				long start = System.nanoTime();
+				HSSFWorkbook workbook = new HSSFWorkbook(root, false);
+				if (null != readListener) {
+					readListener.workbookParsed(getResource(), System.nanoTime() - start);
+				}
+				return workbook;
+			}
+		});
 	}
 
-	public <T> List<T> readBeans(String sheetName, Class<T> clazz) throws DataAccessException {
-		BeanCellCallbackHandler<T> handler = new BeanCellCallbackHandler<T>(clazz);
+	/**
+	 * Open the file system of a .xls file, and give it to a callback.
+	 * File resources are read in place, through a FileChannel, rather than
+	 * copied in memory first. Other resources are read as a stream.
+	 */
+	private <T> T readFileSystem(FileSystemCallback<T> callback) {
+		File file = null;
+		NPOIFSFileSystem fileSystem = null;
+		CountingInputStream in = null;
+		long start = System.nanoTime();
+		try {
+			DirectoryNode root;
 
-		read(sheetName, handler);
+			file = getFile();
+			if (null != file) {
+				fileSystem = new NPOIFSFileSystem(file, true);
+				root = fileSystem.getRoot();
+			} else {
+				in = new CountingInputStream(new BufferedInputStream(getResource().getInputStream()));
+				root = new POIFSFileSystem(in).getRoot();
+			}
+			fireResourceOpened(start);
 
-		return handler.getBeans();
+			return callback.doInFileSystem(root);
+		} catch (IOException e) {
+			throw new DataAccessResourceFailureException("Problem reading file", e);
+		} finally {
+			close(fileSystem);
+			close(in);
+			fireResourceClosed(file, in);
+		}
 	}
 
 	/**
-	 * Set the Resource to obtain the Excel stream from.
+	 * Open a .xlsx package, and give it to a callback. File resources are
+	 * read lazily, other resources are fully loaded in memory.
 	 */
-	public Resource getResource() {
-		return resource;
+	private <T> T readPackage(PackageCallback<T> callback) {
+		File file = null;
+		OPCPackage pkg = null;
+		CountingInputStream in = null;
+		long start = System.nanoTime();
+		try {
+			file = getFile();
+			if (null != file) {
+				pkg = OPCPackage.open(file.getPath(), PackageAccess.READ);
+			} else {
+				in = new CountingInputStream(getResource().getInputStream());
+				pkg = OPCPackage.open(in);
+			}
+			fireResourceOpened(start);
+
+			return callback.doInPackage(pkg);
+		} catch (InvalidFormatException e) {
+			throw new DataAccessResourceFailureException("Problem reading file", e);
+		} catch (IOException e) {
+			throw new DataAccessResourceFailureException("Problem reading file", e);
+		} finally {
+			if (null != pkg) {
+				pkg.revert();
+			}
+			close(in);
+			fireResourceClosed(file, in);
+		}
+	}
+
+	private void fireResourceOpened(long start) {
+		if (null != readListener) {
+			readListener.resourceOpened(getResource(), System.nanoTime() - start);
+		}
+	}
+
+	private void fireResourceClosed(File file, CountingInputStream in) {
+		if (null != readListener) {
+			long bytesRead = (null != in) ? in.getCount() : (null != file) ? file.length() : 0L;
+			readListener.resourceClosed(getResource(), bytesRead);
+		}
+	}
+
+	private void fireSheetRead(String sheetName, SheetCounter counter, long start) {
+		if (null != counter) {
+			readListener.sheetRead(getResource(), sheetName, counter.getRowCount(), counter.getCellCount(), System.nanoTime() - start);
+		}
+	}
+
+	private void fireSheetRead(String sheetName, CountingRowCallbackHandler counter, long start) {
+		if (null != counter) {
+			readListener.sheetRead(getResource(), sheetName, counter.getRowCount(), counter.getCellCount(), System.nanoTime() - start);
+		}
 	}
 
 	/**
-	 * Return the Resource used by this template.
+	 * Get the file of the Resource, or <code>null</code> if it can't be
+	 * resolved to a file, typically inside a jar.
 	 */
-	public void setResource(Resource aResource) {
-		resource = aResource;
+	private File getFile() throws IOException {
+		try {
+			return getResource().getFile();
+		} catch (FileNotFoundException e) {
+			return null;
+		}
 	}
 
 	/**
+	 * Is the Resource an Office Open XML (.xlsx) file rather than a .xls file.
 	 */
-	@Override
-	public void afterPropertiesSet() {
-		checkArgument(null != getResource(), "resource is required");
+	private boolean isOfficeOpenXml() {
+		String filename = getResource().getFilename();
+		if (null == filename) {
+			return false;
+		}
+
+		String extension = filename.toLowerCase(Locale.ENGLISH);
+		return extension.endsWith(".xlsx") || extension.endsWith(".xlsm");
 	}
 
 	/**
-	 * RowMapper implementation that creates a <code>java.lang.Object</code> array
-	 * for each row.
+	 * Should sheets be streamed rather than read from a parsed workbook.
+	 * .xlsx files are always streamed, .xls files are when snapshots are enabled,
+	 * unless formulas are evaluated.
 	 */
-	private static class ObjectArrayRowMapper<T> implements RowMapper<T[]> {
-		private final CellMapper<T> cellMapper;
-		private final Class<T> cellClass;
+	private boolean isStreamed() {
+		return isOfficeOpenXml() || ((null != snapshotStore) && !evaluateFormulas);
+	}
 
-		public ObjectArrayRowMapper(CellMapper<T> aCellMapper, Class<T> aCellClass) {
-			cellMapper = aCellMapper;
-			cellClass = aCellClass;
+	private static void close(Closeable closeable) {
+		if (null != closeable) {
+			try {
+				closeable.close();
+			} catch (IOException e) {
+				throw new CleanupFailureDataAccessException("Problem closing file", e);
+			}
 		}
+	}
 
-		@Override
-		public T[] mapRow(HSSFRow row, int rowNum) throws IOException {
-			short lastColumnNum = row.getLastCellNum();
+	/**
+	 * Resources that can't be resolved to a file, typically inside a jar,
+	 * are considered never modified.
+	 */
+	private static long lastModified(Resource resource) {
+		try {
+			return resource.lastModified();
+		} catch (IOException e) {
+			return 0L;
+		}
+	}
 
-			if (lastColumnNum <= 0) {
-				lastColumnNum = 0; // TODO
-			}
+	public String[][] read(String sheetName) throws DataAccessException {
+		return read(sheetName, new StringCellMapper(), String.class);
+	}
 
-			T[] rowValues = ObjectArrays.newArray(cellClass, lastColumnNum);
+	public <T> T[][] read(String sheetName, CellMapper<T> cellMapper, Class<T> clazz) throws DataAccessException {
+		CellMapper<T> mapper = canonical(evaluating(cellMapper));
 
-			for (short columnNum = 0; columnNum < lastColumnNum; columnNum++) {
-				rowValues[columnNum] = cellMapper.mapCell(row.getCell(columnNum, Row.RETURN_BLANK_AS_NULL), rowNum, columnNum);
-			}
+		if (isStreamed() && (mapper instanceof EventCellMapper<?>)) {
+			EventObjectArrayRowCallbackHandler<T> rowHandler = new EventObjectArrayRowCallbackHandler<T>(asEventCellMapper(mapper), clazz);
 
-			return rowValues;
+			stream(sheetName, rowHandler);
+
+			return rowHandler.getValues();
 		}
+
+		SheetCounter counter = newSheetCounter();
+		return readMapped(sheetName, new ObjectArraySheetExtractor<T>(counting(mapper, counter), clazz, counter, parallelExecutor(cellMapper), parallelThreshold), counter);
 	}
 
 	/**
-	 * Adapter to enable use of a ObjectArrayRowMapper inside a SheetExtractor.
+	 * Read the numerical values of a sheet, one array per non empty row.
+	 * Cells without a numerical value, including formulas with a non numerical
+	 * result, are read as NaN.
+	 * @param sheetName name of the excel sheet
+	 * @return the values, without boxing
+	 * @throws DataAccessException if there is any problem
 	 */
-	private static class ObjectArraySheetExtractor<T> implements SheetExtractor<T[][]> {
-		private final CellMapper<T> cellMapper;
-		private final Class<T> cellClass;
+	public double[][] readDoubles(String sheetName) throws DataAccessException {
+		if (isStreamed()) {
+			EventDoubleArrayRowCallbackHandler rowHandler = new EventDoubleArrayRowCallbackHandler();
 
-		public ObjectArraySheetExtractor(CellMapper<T> aCellMapper, Class<T> aCellClass) {
-			cellMapper = aCellMapper;
-			cellClass = aCellClass;
+			stream(sheetName, rowHandler);
+
+			return rowHandler.getValues();
 		}
 
-		@Override
-		@SuppressWarnings("unchecked")
-		public T[][] extractData(HSSFSheet sheet) throws IOException {
-			List<T[]> rowValues = Lists.newArrayList();
+		SheetCounter counter = newSheetCounter();
+		return read(sheetName, new DoubleArraySheetExtractor(counter), true, counter);
+	}
 
-			ObjectArrayRowMapper<T> rowMapper = new ObjectArrayRowMapper<T>(cellMapper, cellClass);
+	/**
+	 * Read a sheet column by column. The first row gives the column names.
+	 * Columns of plain numbers are stored in primitive arrays, other columns
+	 * are dictionary encoded strings, mapped the same way StringCellMapper does.
+	 * @param sheetName name of the excel sheet
+	 * @return the columns, with one value per row after the first one
+	 * @throws DataAccessException if there is any problem
+	 * @see ColumnTable
+	 */
+	public ColumnTable readColumns(String sheetName) throws DataAccessException {
+		if (isStreamed()) {
+			EventColumnTableRowCallbackHandler rowHandler = new EventColumnTableRowCallbackHandler();
 
-			int maxRowSize = 0;
-			int firstRowIndex = sheet.getFirstRowNum();
-			int lastRowIndex = sheet.getLastRowNum();
+			stream(sheetName, rowHandler);
 
-			for (int i = firstRowIndex; i <= lastRowIndex; i++) {
-				HSSFRow row = sheet.getRow(i);
+			return rowHandler.getValues();
+		}
 
-				if (null != row) {
-					T[] currentRowValues = rowMapper.mapRow(row, i);
-					maxRowSize = Math.max(maxRowSize, currentRowValues.length);
-					rowValues.add(currentRowValues);
-				}
-			}
+		SheetCounter counter = newSheetCounter();
+		return read(sheetName, new ColumnTableSheetExtractor(counter), true, counter);
+	}
 
-			return rowValues.toArray((T[][]) Array.newInstance(cellClass, new int[] {
-					rowValues.size(), maxRowSize
-			}));
-		}
+	public String[][] read(String sheetName, ColumnProjection projection) throws DataAccessException {
+		return read(sheetName, projection, new StringCellMapper(), String.class);
 	}
 
 	/**
-	 * RowCallbackHandler implementation that creates a <code>java.util.Map</code>
-	 * for each row and put all maps in a list.
-	 * The first line is used as keys for the maps.
+	 * Read only some of the columns of a sheet, in the order of the projection.
+	 * When the projection is by name, the first row gives the column names.
+	 * Cells of the other columns are never converted.
+	 * @param sheetName name of the excel sheet
+	 * @param projection the columns to read
+	 * @param cellMapper object that will map each cell
+	 * @param clazz the class of mapped values
+	 * @return the values, one array per non empty row
+	 * @throws DataAccessException if there is any problem
 	 */
-	private static class MapListRowCallbackHandler<T> implements RowCallbackHandler {
-		private final List<Map<String, T>> values = new ArrayList<Map<String, T>>();
-		private ColumnMapRowMapper<T> rowMapper;
-		protected final CellMapper<T> cellMapper;
-
-		public MapListRowCallbackHandler(CellMapper<T> aCellMapper) {
-			cellMapper = aCellMapper;
-		}
+	public <T> T[][] read(String sheetName, ColumnProjection projection, CellMapper<T> cellMapper, Class<T> clazz) throws DataAccessException {
+		checkNotNull(projection, "projection must not be null");
+		CellMapper<T> mapper = canonical(evaluating(cellMapper));
 
-		@Override
-		public void processRow(HSSFRow row, int rowIndex) throws IOException {
-			if (null == rowMapper) { // First line, read keys
-				RowMapper<String[]> firstRowMapper = new ObjectArrayRowMapper<String>(new StringCellMapper(), String.class);
+		if (isStreamed() && (mapper instanceof EventCellMapper<?>)) {
+			EventProjectedArrayRowCallbackHandler<T> rowHandler = new EventProjectedArrayRowCallbackHandler<T>(projection, asEventCellMapper(mapper), clazz);
 
-				String[] keys = firstRowMapper.mapRow(row, rowIndex);
+			stream(sheetName, rowHandler);
 
-				rowMapper = new ColumnMapRowMapper<T>(keys, cellMapper);
-			} else { // Other lines, read values
-				values.add(rowMapper.mapRow(row, rowIndex));
-			}
+			return rowHandler.getValues();
 		}
 
-		public List<Map<String, T>> getValues() {
-			return values;
-		}
+		SheetCounter counter = newSheetCounter();
+		return readMapped(sheetName, new ProjectedArraySheetExtractor<T>(projection, counting(mapper, counter), clazz, counter), counter);
+	}
+
+	public String[][] read(String sheetName, CellRangeAddress range) throws DataAccessException {
+		return read(sheetName, range, new StringCellMapper(), String.class);
 	}
 
 	/**
-	 * Adapter to enable use of a RowCallbackHandler inside a SheetExtractor.
+	 * Read only a rectangular region of a sheet. The result always has
+	 * one array per row of the region, and one value per column of the region,
+	 * even for missing rows and cells.
+	 * @param sheetName name of the excel sheet
+	 * @param range the region to read, with explicit bounds
+	 * @param cellMapper object that will map each cell
+	 * @param clazz the class of mapped values
+	 * @return the values of the region
+	 * @throws DataAccessException if there is any problem
 	 */
-	private static class RowCallbackHandlerSheetExtractor implements SheetExtractor<Void> {
-		private final RowCallbackHandler rowCallbackHandler;
+	public <T> T[][] read(String sheetName, CellRangeAddress range, CellMapper<T> cellMapper, Class<T> clazz) throws DataAccessException {
+		checkNotNull(range, "range must not be null");
+		checkArgument((range.getFirstRow() >= 0) && (range.getFirstColumn() >= 0), "range must be bounded");
+		checkArgument((range.getLastRow() >= range.getFirstRow()) && (range.getLastColumn() >= range.getFirstColumn()), "range must not be empty");
+		CellMapper<T> mapper = canonical(evaluating(cellMapper));
 
-		public RowCallbackHandlerSheetExtractor(RowCallbackHandler aRowCallbackHandler) {
-			rowCallbackHandler = aRowCallbackHandler;
-		}
+		if (isStreamed() && (mapper instanceof EventCellMapper<?>)) {
+			EventRangeRowCallbackHandler<T> rowHandler = new EventRangeRowCallbackHandler<T>(range, asEventCellMapper(mapper), clazz);
 
-		@Override
-		public Void extractData(HSSFSheet sheet) throws IOException {
-			int firstRowIndex = sheet.getFirstRowNum();
-			int lastRowIndex = sheet.getLastRowNum();
+			stream(sheetName, rowHandler);
 
-			for (int i = firstRowIndex; i <= lastRowIndex; i++) {
-				rowCallbackHandler.processRow(sheet.getRow(i), i);
-			}
+			return rowHandler.getValues();
+		}
 
-			return null;
+		SheetCounter counter = newSheetCounter();
+		return readMapped(sheetName, new RangeSheetExtractor<T>(range, counting(mapper, counter), clazz, counter), counter);
+	}
+
+	public <T> List<T> readList(final String sheetName, final RowMapper<T> rowMapper) throws DataAccessException {
+		if (null == resultCache) {
+			return readList(sheetName, rowMapper, null, 0, Integer.MAX_VALUE);
 		}
+
+		return readCached(sheetName, rowMapper, new Supplier<List<T>>() {
+			@Override
+			public List<T> get() {
+				return readList(sheetName, rowMapper, null, 0, Integer.MAX_VALUE);
+			}
+		});
 	}
 
 	/**
-	 * Adapter to enable use of a CellCallbackHandler inside a SheetExtractor.
+	 * Read one object per row, mapping the rows in parallel if configured so.
+	 * Each chunk of rows mapped concurrently gets its own RowMapper.
+	 * @param sheetName name of the excel sheet
+	 * @param rowMappers creates the RowMappers which map one object per row
+	 * @return the list of objects, in row order
+	 * @throws DataAccessException if there is any problem
+	 * @see #setParallelThreshold
 	 */
-	private static class CellCallbackHandlerSheetExtractor implements SheetExtractor<Void> {
-		private final CellCallbackHandler cellCallbackHandler;
+	public <T> List<T> readList(final String sheetName, final Supplier<? extends RowMapper<T>> rowMappers) throws DataAccessException {
+		checkNotNull(rowMappers, "rowMappers must not be null");
 
-		public CellCallbackHandlerSheetExtractor(CellCallbackHandler aCellCallbackHandler) {
-			cellCallbackHandler = aCellCallbackHandler;
+		if (null == resultCache) {
+			return readMappedList(sheetName, rowMappers);
 		}
 
-		@Override
-		public Void extractData(HSSFSheet sheet) throws IOException {
-			int firstRowIndex = sheet.getFirstRowNum();
-			int lastRowIndex = sheet.getLastRowNum();
+		return readCached(sheetName, rowMappers, new Supplier<List<T>>() {
+			@Override
+			public List<T> get() {
+				return readMappedList(sheetName, rowMappers);
+			}
+		});
+	}
 
-			for (int i = firstRowIndex; i <= lastRowIndex; i++) {
-				HSSFRow row = sheet.getRow(i);
-				if (null != row) {
-					short firstColIndex = row.getFirstCellNum();
-					short lastColIndex = row.getLastCellNum();
+	private <T> List<T> readMappedList(String sheetName, final Supplier<? extends RowMapper<T>> rowMappers) {
+		ExecutorService executor = parallelExecutor();
+		if (null == executor) {
+			return readList(sheetName, rowMappers.get(), null, 0, Integer.MAX_VALUE);
+		}
 
-					for (short j = firstColIndex; j < lastColIndex; j++) {
-						cellCallbackHandler.processCell(row.getCell(j, Row.RETURN_BLANK_AS_NULL), i, j);
-					}
-				}
+		final SheetCounter counter = newSheetCounter();
+		Supplier<RowMapper<T>> countingRowMappers = new Supplier<RowMapper<T>>() {
+			@Override
+			public RowMapper<T> get() {
+				return counting(rowMappers.get(), counter, true);
 			}
+		};
 
+		return read(sheetName, new ParallelRowMapperSheetExtractor<T>(countingRowMappers, executor, parallelThreshold), true, counter);
+	}
+
+	/**
+	 * Iterate over the rows of a sheet, mapping each row only when it's pulled
+	 * from the iterator. Stopping early saves the mapping of the remaining rows.
+	 * Note that the whole file is still parsed before the first row is returned.
+	 * Formulas, if evaluated, are evaluated one row at a time too.
+	 * @param sheetName name of the excel sheet
+	 * @param rowMapper object that will map one object per row
+	 * @return a lazy iterator over the mapped objects, that should be closed
+	 * if it's not iterated until the end
+	 * @throws DataAccessException if there is any problem
+	 */
+	public <T> CloseableIterator<T> iterate(final String sheetName, final RowMapper<T> rowMapper) throws DataAccessException {
+		checkNotNull(rowMapper, "RowMapper must not be null");
+		checkNotNull(sheetName, "sheetName must not be null");
+
+		return read(new Function<HSSFWorkbook, CloseableIterator<T>>() {
+			@Override
+			public CloseableIterator<T> apply(HSSFWorkbook workbook) {
+				HSSFSheet sheet = workbook.getSheet(sheetName);
+				if (null == sheet) {
+					throw new DataRetrievalFailureException("Unknown sheet: " + sheetName);
+				}
+				RowMapper<T> mapper = evaluateFormulas ? new EvaluatingRowMapper<T>(rowMapper, WorkbookEvaluator.of(workbook)) : rowMapper;
+
+				final SheetCounter counter = newSheetCounter();
+				final long start = System.nanoTime();
+
+				return new RowMapperIterator<T>(sheet, counting(mapper, counter, true)) {
+					private boolean closed;
+
+					@Override
+					public void close() {
+						super.close();
+						if (!closed) {
+							closed = true;
+							fireSheetRead(sheetName, counter, start);
+						}
+					}
+				};
+			}
+		});
+	}
+
+	public List<Map<String, String>> readList(String sheetName) throws DataAccessException {
+		return readMaps(sheetName, StringCellMapper.class, new StringCellMapper());
+	}
+
+	public <T> List<Map<String, T>> readList(String sheetName, CellMapper<T> cellMapper) throws DataAccessException {
+		return readMaps(sheetName, cellMapper, cellMapper);
+	}
+
+	public List<Map<String, String>> readList(String sheetName, ColumnProjection projection) throws DataAccessException {
+		return readList(sheetName, projection, new StringCellMapper());
+	}
+
+	/**
+	 * Read one Map per row, with only some of the columns. The first row
+	 * gives the column names. Cells of the other columns are never converted.
+	 * @param sheetName name of the excel sheet
+	 * @param projection the columns to read
+	 * @param cellMapper object that will map each cell
+	 * @return the list of maps, one per row
+	 * @throws DataAccessException if there is any problem
+	 */
+	public <T> List<Map<String, T>> readList(String sheetName, ColumnProjection projection, CellMapper<T> cellMapper) throws DataAccessException {
+		checkNotNull(projection, "projection must not be null");
+
+		return readMaps(sheetName, projection, cellMapper);
+	}
+
+	public List<Map<String, String>> readList(String sheetName, RowFilter rowFilter, int offset, int limit) throws DataAccessException {
+		return readList(sheetName, new StringCellMapper(), rowFilter, offset, limit);
+	}
+
+	/**
+	 * Read one Map per selected row. The first row gives the column names.
+	 * Rows are selected with a RowFilter before they are mapped, so that
+	 * rejected rows are never mapped. Extraction stops as soon as enough rows
+	 * are mapped.
+	 * @param sheetName name of the excel sheet
+	 * @param cellMapper object that will map each cell
+	 * @param rowFilter object that will select the rows, or <code>null</code> for all rows
+	 * @param offset the number of selected rows to skip
+	 * @param limit the maximum number of rows to read
+	 * @return the list of maps, one per selected row
+	 * @throws DataAccessException if there is any problem
+	 */
+	public <T> List<Map<String, T>> readList(String sheetName, CellMapper<T> cellMapper, RowFilter rowFilter, int offset, int limit) throws DataAccessException {
+		checkArgument(offset >= 0, "offset must be positive");
+		checkArgument(limit >= 0, "limit must be positive");
+
+		return readMaps(sheetName, null, cellMapper, rowFilter, offset, limit);
+	}
+
+	/**
+	 * Read one object per selected row.
+	 * @param sheetName name of the excel sheet
+	 * @param rowMapper object that will map one object per row
+	 * @param rowFilter object that will select the rows, or <code>null</code> for all rows
+	 * @param offset the number of selected rows to skip
+	 * @param limit the maximum number of rows to read
+	 * @return the list of objects, one per selected row
+	 * @throws DataAccessException if there is any problem
+	 * @see RowMapperSheetExtractor
+	 */
+	public <T> List<T> readList(String sheetName, RowMapper<T> rowMapper, RowFilter rowFilter, int offset, int limit) throws DataAccessException {
+		SheetCounter counter = newSheetCounter();
+		return read(sheetName, new RowMapperSheetExtractor<T>(counting(rowMapper, counter, true), rowFilter, offset, limit), true, counter);
+	}
+
+	/**
+	 * Read one Map per row, from the ResultCache if one is set.
+	 */
+	private <T> List<Map<String, T>> readMaps(final String sheetName, Object mappingKey, final CellMapper<T> cellMapper) {
+		if (null == resultCache) {
+			return readMaps(sheetName, null, cellMapper);
+		}
+
+		return readCached(sheetName, mappingKey, new Supplier<List<Map<String, T>>>() {
+			@Override
+			public List<Map<String, T>> get() {
+				List<Map<String, T>> maps = Lists.newArrayList();
+				for (Map<String, T> map : readMaps(sheetName, null, cellMapper)) {
+					maps.add(Collections.unmodifiableMap(map));
+				}
+				return maps;
+			}
+		});
+	}
+
+	/**
+	 * Get a result from the ResultCache, or read it and cache it
+	 * if the Resource changed since it was cached.
+	 */
+	private <T> List<T> readCached(String sheetName, Object mappingKey, Supplier<List<T>> read) {
+		checkNotNull(sheetName, "sheetName must not be null");
+		checkNotNull(getResource(), "resource must not be null");
+
+		long lastModified = lastModified(getResource());
+
+		// Settings that change the mapped values are part of the key
+		//
+		List<?> key = Arrays.asList(mappingKey, canonicalStrings, evaluateFormulas);
+
+		List<T> result = resultCache.get(getResource(), lastModified, sheetName, key);
+		if (null == result) {
+			result = ImmutableList.copyOf(read.get());
+			resultCache.put(getResource(), lastModified, sheetName, key, result);
+		}
+
+		return result;
+	}
+
+	private <T> List<Map<String, T>> readMaps(String sheetName, ColumnProjection projection, CellMapper<T> cellMapper) {
+		return readMaps(sheetName, projection, cellMapper, null, 0, Integer.MAX_VALUE);
+	}
+
+	private <T> List<Map<String, T>> readMaps(String sheetName, ColumnProjection projection, CellMapper<T> cellMapper, RowFilter rowFilter, int offset, int limit) {
+		if (isOfficeOpenXml() && (null != rowFilter)) {
+			throw new InvalidDataAccessApiUsageException("RowFilters need HSSF rows, they can't be used on a .xlsx file");
+		}
+		CellMapper<T> mapper = canonical(evaluating(cellMapper));
+
+		if (isStreamed() && (null == rowFilter) && (mapper instanceof EventCellMapper<?>)) {
+			EventMapListRowCallbackHandler<T> rowHandler = new EventMapListRowCallbackHandler<T>(asEventCellMapper(mapper), projection, offset, limit);
+
+			stream(sheetName, rowHandler);
+
+			return rowHandler.getValues();
+		}
+
+		SheetCounter counter = newSheetCounter();
+		return readMapped(sheetName, new MapListSheetExtractor<T>(counting(mapper, counter), projection, rowFilter, offset, limit, counter, parallelExecutor(cellMapper), parallelThreshold), counter);
+	}
+
+	public void read(String sheetName, RowCallbackHandler rowCallbackHandler) throws DataAccessException {
+		SheetCounter counter = newSheetCounter();
+		read(sheetName, new RowCallbackHandlerSheetExtractor(rowCallbackHandler, counter), true, counter);
+	}
+
+	public void read(String sheetName, CellCallbackHandler cellCallbackHandler) throws DataAccessException {
+		SheetCounter counter = newSheetCounter();
+		read(sheetName, new CellCallbackHandlerSheetExtractor(cellCallbackHandler, counter), true, counter);
+	}
+
+	/**
+	 * Read one bean per row. The first row gives the property names.
+	 * When a ResultCache is set, the same beans are given to every caller
+	 * reading this sheet: they must not be modified.
+	 * @param sheetName name of the excel sheet
+	 * @param clazz the class of the beans to create
+	 * @return the list of beans, one per row
+	 * @throws DataAccessException if there is any problem
+	 * @see #setResultCache
+	 */
+	public <T> List<T> readBeans(final String sheetName, final Class<T> clazz) throws DataAccessException {
+		if (null == resultCache) {
+			return readBeans(sheetName, new BeanCellCallbackHandler<T>(clazz));
+		}
+
+		return readCached(sheetName, Arrays.asList(BeanCellCallbackHandler.class, clazz), new Supplier<List<T>>() {
+			@Override
+			public List<T> get() {
+				return readBeans(sheetName, new BeanCellCallbackHandler<T>(clazz));
+			}
+		});
+	}
+
+	/**
+	 * Read one bean per row, setting only the properties of some columns.
+	 * The first row gives the property names.
+	 * @param sheetName name of the excel sheet
+	 * @param clazz the class of the beans to create
+	 * @param projection the columns to read
+	 * @return the list of beans, one per row
+	 * @throws DataAccessException if there is any problem
+	 */
+	public <T> List<T> readBeans(String sheetName, Class<T> clazz, ColumnProjection projection) throws DataAccessException {
+		checkNotNull(projection, "projection must not be null");
+
+		return readBeans(sheetName, new BeanCellCallbackHandler<T>(clazz, projection));
+	}
+
+	private <T> List<T> readBeans(String sheetName, BeanCellCallbackHandler<T> handler) {
+		if (isStreamed()) {
+			stream(sheetName, (EventCellCallbackHandler) handler);
+		} else {
+			read(sheetName, (CellCallbackHandler) handler);
+		}
+
+		return handler.getBeans();
+	}
+
+	/**
+	 * Read one object per row, created in a single call to the constructor
+	 * or static factory method of the class annotated with ExcelCreator.
+	 * Unlike readBeans, objects don't need setters and can be immutable.
+	 * The first row gives the column names.
+	 * @param sheetName name of the excel sheet
+	 * @param clazz the class of the objects to create
+	 * @return the list of objects, one per row
+	 * @throws DataAccessException if there is any problem
+	 * @see BeanCreatorRowCallbackHandler
+	 */
+	public <T> List<T> readObjects(String sheetName, Class<T> clazz) throws DataAccessException {
+		BeanCreatorRowCallbackHandler<T> handler = new BeanCreatorRowCallbackHandler<T>(clazz);
+
+		if (isStreamed()) {
+			stream(sheetName, (EventRowCallbackHandler) handler);
+		} else {
+			read(sheetName, (RowCallbackHandler) handler);
+		}
+
+		return handler.getBeans();
+	}
+
+	private static double numericValue(HSSFCell cell) {
+		if (null != cell) {
+			int cellType = cell.getCellType();
+			if (Cell.CELL_TYPE_FORMULA == cellType) {
+				cellType = cell.getCachedFormulaResultType();
+			}
+			if (Cell.CELL_TYPE_NUMERIC == cellType) {
+				return cell.getNumericCellValue();
+			}
+		}
+		return Double.NaN;
+	}
+
+	private static double numericValue(EventCell cell) {
+		if ((null != cell) && (Cell.CELL_TYPE_NUMERIC == cell.getCellType())) {
+			return cell.getNumericCellValue();
+		}
+		return Double.NaN;
+	}
+
+	/**
+	 * Get the ExecutorService rows should be mapped on,
+	 * or <code>null</code> if they should be mapped in the calling thread.
+	 */
+	private ExecutorService parallelExecutor() {
+		return (parallelThreshold > 0) ? executorService : null;
+	}
+
+	/**
+	 * Get the ExecutorService cells should be mapped on with a given CellMapper.
+	 * A single CellMapper would be shared by all the threads, so only the
+	 * built-in ones, known to be thread-safe, are used in parallel.
+	 */
+	private ExecutorService parallelExecutor(CellMapper<?> cellMapper) {
+		if ((StringCellMapper.class != cellMapper.getClass()) && (ObjectCellMapper.class != cellMapper.getClass())) {
 			return null;
 		}
+		return parallelExecutor();
+	}
+
+	/**
+	 * Get a SheetCounter for the next extraction,
+	 * or <code>null</code> if there's no ReadListener to report to.
+	 */
+	private SheetCounter newSheetCounter() {
+		return (null != readListener) ? new SheetCounter() : null;
+	}
+
+	private static <T> CellMapper<T> counting(CellMapper<T> cellMapper, SheetCounter counter) {
+		return (null == counter) ? cellMapper : new CountingCellMapper<T>(cellMapper, counter);
+	}
+
+	private static <T> RowMapper<T> counting(RowMapper<T> rowMapper, SheetCounter counter, boolean countCells) {
+		return (null == counter) ? rowMapper : new CountingRowMapper<T>(rowMapper, counter, countCells);
+	}
+
+	/**
+	 * Wrap a CellMapper so that the formulas of a .xls file are evaluated
+	 * before they're mapped, if configured so.
+	 * @see #setEvaluateFormulas
+	 */
+	private <T> CellMapper<T> evaluating(CellMapper<T> cellMapper) {
+		if (!evaluateFormulas || isOfficeOpenXml()) {
+			return cellMapper;
+		}
+		return new EvaluatingCellMapper<T>(cellMapper);
+	}
+
+	/**
+	 * Wrap a CellMapper so that equal strings mapped during one read
+	 * share the same instance, if configured so.
+	 * @see #setCanonicalStrings
+	 */
+	private <T> CellMapper<T> canonical(CellMapper<T> cellMapper) {
+		if (!canonicalStrings) {
+			return cellMapper;
+		}
+		if (cellMapper instanceof EventCellMapper<?>) {
+			return new CanonicalEventCellMapper<T>(cellMapper);
+		}
+		return new CanonicalCellMapper<T>(cellMapper);
+	}
+
+	/**
+	 * Built-in CellMappers also map streamed cells.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> EventCellMapper<T> asEventCellMapper(CellMapper<T> cellMapper) {
+		return (EventCellMapper<T>) cellMapper;
+	}
+
+	/**
+	 * Stream the content of an Excel file for a given sheet name, row by row.
+	 * Unlike the read methods, the workbook is never loaded in memory:
+	 * rows are pushed to the callback handler as the file is parsed, so memory
+	 * usage doesn't depend on the size of the sheet. Only forward-only
+	 * processing is possible.
+	 *
+	 * <p>Both .xls and .xlsx files can be streamed. If a SnapshotStore is set,
+	 * the rows are read from the snapshot of the sheet when it's up to date.
+	 * @param sheetName name of the excel sheet
+	 * @param rowCallbackHandler object that will extract results, one row at a time
+	 * @throws DataAccessException if there is any problem
+	 * @see #setSnapshotStore
+	 */
+	public void stream(String sheetName, EventRowCallbackHandler rowCallbackHandler) throws DataAccessException {
+		checkNotNull(rowCallbackHandler, "EventRowCallbackHandler must not be null");
+		checkNotNull(sheetName, "sheetName must not be null");
+		checkNotNull(getResource(), "resource must not be null");
+
+		CountingRowCallbackHandler counter = (null != readListener) ? new CountingRowCallbackHandler(rowCallbackHandler) : null;
+		EventRowCallbackHandler handler = (null != counter) ? counter : rowCallbackHandler;
+
+		File file = null;
+		if (null != snapshotStore) {
+			try {
+				file = getFile();
+			} catch (IOException e) {
+				throw new DataAccessResourceFailureException("Problem reading file", e);
+			}
+		}
+
+		if (null == file) {
+			streamSource(sheetName, handler, counter);
+		} else {
+			streamSnapshot(file, sheetName, handler, counter);
+		}
+	}
+
+	/**
+	 * Stream a sheet from its snapshot if it's up to date.
+	 * Otherwise, stream it from the file and write its snapshot.
+	 */
+	private void streamSnapshot(File file, String sheetName, EventRowCallbackHandler handler, CountingRowCallbackHandler counter) {
+		try {
+			long start = System.nanoTime();
+			SheetSnapshot snapshot = snapshotStore.open(file, sheetName);
+			if (null != snapshot) {
+				snapshot.replay(handler);
+				fireSheetRead(sheetName, counter, start);
+				return;
+			}
+		} catch (IOException e) {
+			throw new DataAccessResourceFailureException("Problem reading file", e);
+		}
+
+		SnapshotStore.Recorder recorder = snapshotStore.record(file, sheetName, handler);
+		try {
+			streamSource(sheetName, recorder, counter);
+			recorder.write();
+		} catch (IOException e) {
+			// The snapshot is only an optimization, it's written again on the next read
+			LOG.warn("Unable to write snapshot of " + file, e);
+		} finally {
+			recorder.discard();
+		}
+	}
+
+	private void streamSource(final String sheetName, final EventRowCallbackHandler handler, final CountingRowCallbackHandler counter) {
+		if (isOfficeOpenXml()) {
+			readPackage(new PackageCallback<Void>() {
+				@Override
+				public Void doInPackage(OPCPackage pkg) throws IOException {
+					long start = System.nanoTime();
+					new XSSFEventSheetReader(sheetName, handler).read(pkg);
+					fireSheetRead(sheetName, counter, start);
+					return null;
+				}
+			});
+			return;
+		}
+
+		readFileSystem(new FileSystemCallback<Void>() {
+			@Override
+			public Void doInFileSystem(DirectoryNode root) throws IOException {
+				long start = System.nanoTime();
+				new HSSFEventSheetReader(sheetName, handler).read(root);
+				fireSheetRead(sheetName, counter, start);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Stream the content of an Excel file for a given sheet name, cell by cell.
+	 * @param sheetName name of the excel sheet
+	 * @param cellCallbackHandler object that will extract results, one cell at a time
+	 * @throws DataAccessException if there is any problem
+	 * @see #stream(String,EventRowCallbackHandler)
+	 */
+	public void stream(String sheetName, EventCellCallbackHandler cellCallbackHandler) throws DataAccessException {
+		checkNotNull(cellCallbackHandler, "EventCellCallbackHandler must not be null");
+
+		stream(sheetName, new EventCellCallbackHandlerAdapter(cellCallbackHandler));
+	}
+
+	/**
+	 * Write an Excel file with a single sheet, one row per array.
+	 * The file of the Resource is replaced.
+	 * @param sheetName name of the excel sheet
+	 * @param values rows of cell values
+	 * @throws DataAccessException if there is any problem
+	 * @see #write(String,String[],Iterable,RowWriter)
+	 */
+	public void write(String sheetName, Object[][] values) throws DataAccessException {
+		checkNotNull(values, "values must not be null");
+
+		write(sheetName, Arrays.asList(values), new ObjectArrayRowWriter());
+	}
+
+	/**
+	 * Write an Excel file with a single sheet, one row per bean. The first row
+	 * gives the property names, so that the file can be read back with readBeans.
+	 * The class of the beans is taken from the first one.
+	 * @param sheetName name of the excel sheet
+	 * @param beans beans to write
+	 * @throws DataAccessException if there is any problem
+	 * @see #writeBeans(String,Iterable,Class)
+	 */
+	public void write(String sheetName, Iterable<?> beans) throws DataAccessException {
+		checkNotNull(beans, "beans must not be null");
+
+		Iterator<?> iterator = beans.iterator();
+		if (!iterator.hasNext()) {
+			write(sheetName, null, Iterators.<Object[]>emptyIterator(), new ObjectArrayRowWriter());
+			return;
+		}
+
+		Object first = iterator.next();
+		writeBeans(sheetName, first.getClass(), Iterators.concat(Iterators.singletonIterator(first), iterator));
+	}
+
+	/**
+	 * Write an Excel file with a single sheet, one row per bean. The first row
+	 * gives the property names, so that the file can be read back with readBeans.
+	 * @param sheetName name of the excel sheet
+	 * @param beans beans to write
+	 * @param clazz the class of the beans
+	 * @throws DataAccessException if there is any problem
+	 * @see BeanRowWriter
+	 */
+	public <T> void writeBeans(String sheetName, Iterable<? extends T> beans, Class<T> clazz) throws DataAccessException {
+		checkNotNull(beans, "beans must not be null");
+
+		writeBeans(sheetName, clazz, beans.iterator());
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> void writeBeans(String sheetName, Class<T> clazz, Iterator<?> beans) {
+		BeanRowWriter<T> rowWriter = new BeanRowWriter<T>(clazz);
+
+		write(sheetName, rowWriter.getHeaders(), (Iterator<? extends T>) beans, rowWriter);
+	}
+
+	/**
+	 * Write an Excel file with a single sheet, one row per value.
+	 * @param sheetName name of the excel sheet
+	 * @param values values to write
+	 * @param rowWriter object that will fill each row
+	 * @throws DataAccessException if there is any problem
+	 * @see #write(String,String[],Iterable,RowWriter)
+	 */
+	public <T> void write(String sheetName, Iterable<? extends T> values, RowWriter<? super T> rowWriter) throws DataAccessException {
+		write(sheetName, null, values, rowWriter);
+	}
+
+	/**
+	 * Write an Excel file with a single sheet, one row per value, after
+	 * an optional header row. The file of the Resource is replaced,
+	 * so the Resource has to be a file. The new file is written next to it
+	 * first, so that a failure leaves the previous file untouched.
+	 *
+	 * <p>A .xlsx file is written through a sliding window of rows: only the
+	 * last rows are kept in memory, the others are flushed to a temporary
+	 * file, deleted once written. Memory usage doesn't depend on the number
+	 * of rows, provided values are produced lazily by the Iterable. A .xls
+	 * file is built in memory, and is limited to 65536 rows by the format.
+	 * @param sheetName name of the excel sheet
+	 * @param headers the values of the first row, or <code>null</code> for none
+	 * @param values values to write
+	 * @param rowWriter object that will fill each row
+	 * @throws DataAccessException if there is any problem
+	 * @see #setWriteWindowSize
+	 */
+	public <T> void write(String sheetName, String[] headers, Iterable<? extends T> values, RowWriter<? super T> rowWriter) throws DataAccessException {
+		checkNotNull(values, "values must not be null");
+
+		write(sheetName, headers, values.iterator(), rowWriter);
+	}
+
+	private <T> void write(String sheetName, String[] headers, Iterator<? extends T> values, RowWriter<? super T> rowWriter) {
+		checkNotNull(rowWriter, "RowWriter must not be null");
+		checkNotNull(sheetName, "sheetName must not be null");
+		checkNotNull(getResource(), "resource must not be null");
+
+		File file = null;
+		File temporaryFile = null;
+		Workbook workbook = null;
+		try {
+			file = getFile();
+			if (null == file) {
+				throw new InvalidDataAccessApiUsageException("Only a file Resource can be written");
+			}
+
+			workbook = isOfficeOpenXml() ? new SXSSFWorkbook(writeWindowSize) : new HSSFWorkbook();
+			Sheet sheet = workbook.createSheet(sheetName);
+
+			int rowNum = 0;
+			if (null != headers) {
+				Row row = createRow(sheet, rowNum++);
+				for (int i = 0; i < headers.length; i++) {
+					row.createCell(i).setCellValue(headers[i]);
+				}
+			}
+			while (values.hasNext()) {
+				rowWriter.writeRow(createRow(sheet, rowNum++), values.next());
+			}
+
+			// Never leave a half written file
+			temporaryFile = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+			OutputStream out = new BufferedOutputStream(new FileOutputStream(temporaryFile));
+			try {
+				workbook.write(out);
+			} finally {
+				close(out);
+			}
+
+			if (!temporaryFile.renameTo(file) && !(file.delete() && temporaryFile.renameTo(file))) {
+				throw new IOException("Unable to replace " + file);
+			}
+		} catch (IOException e) {
+			throw new DataAccessResourceFailureException("Problem writing file", e);
+		} finally {
+			if (null != temporaryFile) {
+				temporaryFile.delete();
+			}
+			if (workbook instanceof SXSSFWorkbook) {
+				((SXSSFWorkbook) workbook).dispose();
+			}
+			if (null != workbookCache) {
+				workbookCache.evict(getResource());
+			}
+			if (null != resultCache) {
+				resultCache.evict(getResource());
+			}
+			if ((null != snapshotStore) && (null != file)) {
+				snapshotStore.evict(file);
+			}
+		}
+	}
+
+	private static Row createRow(Sheet sheet, int rowNum) {
+		try {
+			return sheet.createRow(rowNum);
+		} catch (IllegalArgumentException e) {
+			throw new InvalidDataAccessApiUsageException("Too many rows for sheet " + sheet.getSheetName(), e);
+		}
+	}
+
+	/**
+	 * Set the Resource to obtain the Excel stream from.
+	 */
+	public Resource getResource() {
+		return resource;
+	}
+
+	/**
+	 * Return the Resource used by this template.
+	 */
+	public void setResource(Resource aResource) {
+		resource = aResource;
+	}
+
+	/**
+	 * Return the WorkbookCache used by this template, if any.
+	 */
+	public WorkbookCache getWorkbookCache() {
+		return workbookCache;
+	}
+
+	/**
+	 * Set a WorkbookCache to avoid parsing the same Resource on each read.
+	 * Default is none: the Resource is parsed on each read, unless a concurrent
+	 * read of this template is already parsing it.
+	 */
+	public void setWorkbookCache(WorkbookCache aWorkbookCache) {
+		workbookCache = aWorkbookCache;
+	}
+
+	/**
+	 * Return the ResultCache used by this template, if any.
+	 */
+	public ResultCache getResultCache() {
+		return resultCache;
+	}
+
+	/**
+	 * Set a ResultCache to avoid mapping the same sheet on each read.
+	 * It applies to readBeans with a class, and readList without a projection
+	 * nor a filter. Results are then immutable lists, keyed on the class,
+	 * CellMapper, RowMapper or Supplier instance they were mapped with: the
+	 * same instance has to be given to hit the cache. The beans of a cached
+	 * list are shared by all callers, and must not be modified.
+	 * Default is none: the sheet is mapped on each read.
+	 */
+	public void setResultCache(ResultCache aResultCache) {
+		resultCache = aResultCache;
+	}
+
+	/**
+	 * Return the SnapshotStore sheets are streamed from, if any.
+	 */
+	public SnapshotStore getSnapshotStore() {
+		return snapshotStore;
+	}
+
+	/**
+	 * Set a SnapshotStore to read sheets from snapshots of their decoded
+	 * values rather than from the file. The first read of a sheet writes
+	 * its snapshot, and the next reads, even by another process, use it
+	 * while the file is unchanged. Sheets are then always streamed, except
+	 * by the methods that expose HSSF types.
+	 * Default is none: sheets are always read from the file.
+	 */
+	public void setSnapshotStore(SnapshotStore aSnapshotStore) {
+		snapshotStore = aSnapshotStore;
+	}
+
+	/**
+	 * Return the ExecutorService used to extract several sheets concurrently, if any.
+	 */
+	public ExecutorService getExecutorService() {
+		return executorService;
+	}
+
+	/**
+	 * Set the ExecutorService used by readAll to extract several sheets concurrently,
+	 * and to map the rows of large sheets in parallel.
+	 * Default is none: sheets are extracted one after the other, in the calling thread.
+	 * @see #readAll
+	 * @see #setParallelThreshold
+	 */
+	public void setExecutorService(ExecutorService anExecutorService) {
+		executorService = anExecutorService;
+	}
+
+	/**
+	 * Return the number of rows kept in memory when writing a .xlsx file.
+	 */
+	public int getWriteWindowSize() {
+		return writeWindowSize;
+	}
+
+	/**
+	 * Set the number of rows kept in memory when writing a .xlsx file.
+	 * Older rows are flushed to a temporary file, and can't be changed anymore.
+	 * Default is {@value org.apache.poi.xssf.streaming.SXSSFWorkbook#DEFAULT_WINDOW_SIZE}.
+	 */
+	public void setWriteWindowSize(int aWriteWindowSize) {
+		checkArgument(aWriteWindowSize > 0, "writeWindowSize must be positive");
+		writeWindowSize = aWriteWindowSize;
+	}
+
+	/**
+	 * Return the number of rows from which a sheet is mapped in parallel, 0 if never.
+	 */
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
+	/**
+	 * Set the number of rows from which the rows of a .xls sheet are mapped
+	 * in parallel, on the ExecutorService of this template. This applies to
+	 * readList with a Supplier of RowMappers, which gives each thread its own,
+	 * and to read and readList with a StringCellMapper or an ObjectCellMapper.
+	 * Other CellMappers are always used in the calling thread.
+	 * Default is 0: rows are always mapped in the calling thread.
+	 * @see #setExecutorService
+	 * @see ParallelRowMapperSheetExtractor
+	 */
+	public void setParallelThreshold(int aParallelThreshold) {
+		checkArgument(aParallelThreshold >= 0, "parallelThreshold must be positive");
+		parallelThreshold = aParallelThreshold;
+	}
+
+	/**
+	 * Return whether the formulas of .xls files are evaluated.
+	 */
+	public boolean isEvaluateFormulas() {
+		return evaluateFormulas;
+	}
+
+	/**
+	 * Set whether the formulas of .xls files should be evaluated rather than
+	 * read from the result cached in the file, that some tools don't write.
+	 * Formulas are evaluated with a single HSSFFormulaEvaluator per workbook:
+	 * a formula needed by several others, even on other sheets, is evaluated
+	 * only once. Results are stored in the workbook, so that the next reads of
+	 * a workbook kept in a WorkbookCache don't evaluate them again. Such a
+	 * workbook is cached apart from the one read by templates that don't
+	 * evaluate formulas, which keep seeing the cached results.
+	 *
+	 * <p>With a CellMapper, only the cells that are mapped are evaluated.
+	 * With iterate, only the rows that are pulled are evaluated.
+	 * Other callbacks get every formula of the sheet evaluated first.
+	 * Streamed sheets, including all .xlsx sheets, keep their cached results,
+	 * so .xls sheets are not read from snapshots in this mode.
+	 * Default is <code>false</code>.
+	 */
+	public void setEvaluateFormulas(boolean anEvaluateFormulas) {
+		evaluateFormulas = anEvaluateFormulas;
+	}
+
+	/**
+	 * Return whether equal strings mapped during a read share the same instance.
+	 */
+	public boolean isCanonicalStrings() {
+		return canonicalStrings;
+	}
+
+	/**
+	 * Set whether equal strings mapped during a read should share the same
+	 * instance. Strings of the shared string table already come back as one
+	 * instance per entry, but numbers and dates formatted as text, formula
+	 * results and inline strings are created for each cell. With this mode,
+	 * the CellMappers given to read and readList go through a pool that only
+	 * lives for the duration of the read, so results kept in memory retain
+	 * one String per distinct value. Default is <code>false</code>.
+	 */
+	public void setCanonicalStrings(boolean aCanonicalStrings) {
+		canonicalStrings = aCanonicalStrings;
+	}
+
+	/**
+	 * Return the ReadListener notified of the phases of each read, if any.
+	 */
+	public ReadListener getReadListener() {
+		return readListener;
+	}
+
+	/**
+	 * Set a ReadListener to be notified of the time spent opening the Resource,
+	 * parsing the workbook and extracting each sheet. Default is none.
+	 * @see ReadStatistics
+	 */
+	public void setReadListener(ReadListener aReadListener) {
+		readListener = aReadListener;
+	}
+
+	/**
+	 */
+	@Override
+	public void afterPropertiesSet() {
+		checkArgument(null != getResource(), "resource is required");
+	}
+
+	/**
+	 * RowMapper implementation that creates a <code>java.lang.Object</code> array
+	 * for each row.
+	 */
+	private static class ObjectArrayRowMapper<T> implements RowMapper<T[]> {
+		private final CellMapper<T> cellMapper;
+		private final Class<T> cellClass;
+
+		public ObjectArrayRowMapper(CellMapper<T> aCellMapper, Class<T> aCellClass) {
+			cellMapper = aCellMapper;
+			cellClass = aCellClass;
+		}
+
+		@Override
+		public T[] mapRow(HSSFRow row, int rowNum) throws IOException {
+			short lastColumnNum = row.getLastCellNum();
+
+			if (lastColumnNum <= 0) {
+				lastColumnNum = 0; // TODO
+			}
+
+			T[] rowValues = ObjectArrays.newArray(cellClass, lastColumnNum);
+
+			for (short columnNum = 0; columnNum < lastColumnNum; columnNum++) {
+				rowValues[columnNum] = cellMapper.mapCell(row.getCell(columnNum, Row.RETURN_BLANK_AS_NULL), rowNum, columnNum);
+			}
+
+			return rowValues;
+		}
+	}
+
+	/**
+	 * RowWriter implementation that writes a <code>java.lang.Object</code> array
+	 * into each row.
+	 */
+	private static class ObjectArrayRowWriter implements RowWriter<Object[]> {
+		private final CellValueWriter cellValueWriter = new CellValueWriter();
+
+		@Override
+		public void writeRow(Row row, Object[] values) {
+			for (int i = 0; i < values.length; i++) {
+				cellValueWriter.writeCell(row, i, values[i]);
+			}
+		}
+	}
+
+	/**
+	 * Adapter to enable use of a ObjectArrayRowMapper inside a SheetExtractor.
+	 */
+	private static class ObjectArraySheetExtractor<T> implements SheetExtractor<T[][]> {
+		private final CellMapper<T> cellMapper;
+		private final Class<T> cellClass;
+		private final SheetCounter counter;
+		private final ExecutorService executor;
+		private final int parallelThreshold;
+
+		public ObjectArraySheetExtractor(CellMapper<T> aCellMapper, Class<T> aCellClass, SheetCounter aCounter, ExecutorService anExecutor, int aParallelThreshold) {
+			cellMapper = aCellMapper;
+			cellClass = aCellClass;
+			counter = aCounter;
+			executor = anExecutor;
+			parallelThreshold = aParallelThreshold;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public T[][] extractData(HSSFSheet sheet) throws IOException {
+			// Rows keep their own length: only the outer array is sized upfront.
+			//
+			T[][] rowValues = (T[][]) Array.newInstance(Array.newInstance(cellClass, 0).getClass(), sheet.getPhysicalNumberOfRows());
+
+			RowMapper<T[]> rowMapper = counting(new ObjectArrayRowMapper<T>(cellMapper, cellClass), counter, false);
+
+			if (null != executor) {
+				return new ParallelRowMapperSheetExtractor<T[]>(Suppliers.ofInstance(rowMapper), EXISTING_ROWS, executor, parallelThreshold).extractData(sheet).toArray(rowValues);
+			}
+
+			int rowCount = 0;
+			int firstRowIndex = sheet.getFirstRowNum();
+			int lastRowIndex = sheet.getLastRowNum();
+
+			for (int i = firstRowIndex; i <= lastRowIndex; i++) {
+				HSSFRow row = sheet.getRow(i);
+
+				if (null != row) {
+					rowValues[rowCount++] = rowMapper.mapRow(row, i);
+				}
+			}
+
+			return rowValues;
+		}
+	}
+
+	/**
+	 * SheetExtractor implementation that creates an array for each row,
+	 * with only the projected columns, in the order of the projection.
+	 * The first row gives the column names.
+	 */
+	private static class ProjectedArraySheetExtractor<T> implements SheetExtractor<T[][]> {
+		private final ColumnProjection projection;
+		private final CellMapper<T> cellMapper;
+		private final Class<T> cellClass;
+		private final SheetCounter counter;
+
+		public ProjectedArraySheetExtractor(ColumnProjection aProjection, CellMapper<T> aCellMapper, Class<T> aCellClass, SheetCounter aCounter) {
+			projection = aProjection;
+			cellMapper = aCellMapper;
+			cellClass = aCellClass;
+			counter = aCounter;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public T[][] extractData(HSSFSheet sheet) throws IOException {
+			T[][] rowValues = (T[][]) Array.newInstance(Array.newInstance(cellClass, 0).getClass(), sheet.getPhysicalNumberOfRows());
+
+			int[] columns = null;
+			int rowCount = 0;
+			int firstRowIndex = sheet.getFirstRowNum();
+			int lastRowIndex = sheet.getLastRowNum();
+
+			for (int i = firstRowIndex; i <= lastRowIndex; i++) {
+				HSSFRow row = sheet.getRow(i);
+
+				if (null != row) {
+					if (null == columns) {
+						String[] headers = projection.isByName() ? new ObjectArrayRowMapper<String>(new StringCellMapper(), String.class).mapRow(row, i) : null;
+						columns = projection.resolve(headers);
+					}
+
+					if (null != counter) {
+						counter.countRow(row);
+					}
+
+					T[] values = ObjectArrays.newArray(cellClass, columns.length);
+					for (int j = 0; j < columns.length; j++) {
+						values[j] = cellMapper.mapCell(row.getCell(columns[j], Row.RETURN_BLANK_AS_NULL), i, columns[j]);
+					}
+
+					rowValues[rowCount++] = values;
+				}
+			}
+
+			return rowValues;
+		}
+	}
+
+	/**
+	 * SheetExtractor implementation that creates a <code>double</code> array
+	 * for each row. Cells without a numerical value are mapped to NaN.
+	 */
+	private static class DoubleArraySheetExtractor implements SheetExtractor<double[][]> {
+		private final SheetCounter counter;
+
+		public DoubleArraySheetExtractor(SheetCounter aCounter) {
+			counter = aCounter;
+		}
+
+		@Override
+		public double[][] extractData(HSSFSheet sheet) throws IOException {
+			double[][] rowValues = new double[sheet.getPhysicalNumberOfRows()][];
+
+			int rowCount = 0;
+			int firstRowIndex = sheet.getFirstRowNum();
+			int lastRowIndex = sheet.getLastRowNum();
+
+			for (int i = firstRowIndex; i <= lastRowIndex; i++) {
+				HSSFRow row = sheet.getRow(i);
+
+				if (null != row) {
+					if (null != counter) {
+						counter.countRow(row);
+						counter.countCells(row);
+					}
+
+					int lastColumnNum = Math.max(0, row.getLastCellNum());
+
+					double[] values = new double[lastColumnNum];
+					for (int columnNum = 0; columnNum < lastColumnNum; columnNum++) {
+						values[columnNum] = numericValue(row.getCell(columnNum, Row.RETURN_BLANK_AS_NULL));
+					}
+
+					rowValues[rowCount++] = values;
+				}
+			}
+
+			return rowValues;
+		}
+	}
+
+	/**
+	 * SheetExtractor implementation that builds a ColumnTable.
+	 * The first row gives the column names.
+	 */
+	private static class ColumnTableSheetExtractor implements SheetExtractor<ColumnTable> {
+		private final SheetCounter counter;
+
+		public ColumnTableSheetExtractor(SheetCounter aCounter) {
+			counter = aCounter;
+		}
+
+		@Override
+		public ColumnTable extractData(HSSFSheet sheet) throws IOException {
+			StringCellMapper cellMapper = new StringCellMapper();
+
+			int headerRowIndex = sheet.getFirstRowNum();
+			HSSFRow header = sheet.getRow(headerRowIndex);
+			if (null == header) {
+				return new ColumnTable.Builder(new String[0]).build();
+			}
+
+			ColumnTable.Builder builder = new ColumnTable.Builder(new ObjectArrayRowMapper<String>(cellMapper, String.class).mapRow(header, headerRowIndex));
+			if (null != counter) {
+				counter.countRow(header);
+				counter.countCells(header);
+			}
+
+			int lastRowIndex = sheet.getLastRowNum();
+			for (int i = headerRowIndex + 1; i <= lastRowIndex; i++) {
+				HSSFRow row = sheet.getRow(i);
+
+				if (null != row) {
+					builder.addRow();
+					if (null != counter) {
+						counter.countRow(row);
+					}
+
+					int lastColumnNum = Math.min(builder.getColumnCount(), row.getLastCellNum());
+					for (int columnNum = 0; columnNum < lastColumnNum; columnNum++) {
+						HSSFCell cell = row.getCell(columnNum, Row.RETURN_BLANK_AS_NULL);
+						if (null != counter) {
+							counter.countCell(cell);
+						}
+						if (cellMapper.isPlainNumber(cell)) {
+							builder.addNumber(columnNum, cell.getNumericCellValue());
+						} else if (null != cell) {
+							builder.addString(columnNum, cellMapper.mapCell(cell, i, columnNum));
+						}
+					}
+				}
+			}
+
+			return builder.build();
+		}
+	}
+
+	/**
+	 * SheetExtractor implementation that maps a rectangular region of a sheet.
+	 * Missing rows and cells are given to the CellMapper as <code>null</code>.
+	 */
+	private static class RangeSheetExtractor<T> implements SheetExtractor<T[][]> {
+		private final CellRangeAddress range;
+		private final CellMapper<T> cellMapper;
+		private final Class<T> cellClass;
+		private final SheetCounter counter;
+
+		public RangeSheetExtractor(CellRangeAddress aRange, CellMapper<T> aCellMapper, Class<T> aCellClass, SheetCounter aCounter) {
+			range = aRange;
+			cellMapper = aCellMapper;
+			cellClass = aCellClass;
+			counter = aCounter;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public T[][] extractData(HSSFSheet sheet) throws IOException {
+			int firstRow = range.getFirstRow();
+			int firstColumn = range.getFirstColumn();
+
+			T[][] values = (T[][]) Array.newInstance(cellClass, range.getLastRow() - firstRow + 1, range.getLastColumn() - firstColumn + 1);
+
+			for (int i = 0; i < values.length; i++) {
+				HSSFRow row = sheet.getRow(firstRow + i);
+				if (null != counter) {
+					counter.countRow(row);
+				}
+
+				for (int j = 0; j < values[i].length; j++) {
+					HSSFCell cell = (null == row) ? null : row.getCell(firstColumn + j, Row.RETURN_BLANK_AS_NULL);
+					values[i][j] = cellMapper.mapCell(cell, firstRow + i, firstColumn + j);
+				}
+			}
+
+			return values;
+		}
+	}
+
+	/**
+	 * SheetExtractor implementation that creates a <code>java.util.Map</code>
+	 * for each row and put all maps in a list.
+	 * The first line is used as keys for the maps.
+	 */
+	private static class MapListSheetExtractor<T> implements SheetExtractor<List<Map<String, T>>> {
+		private final CellMapper<T> cellMapper;
+		private final ColumnProjection projection;
+		private final RowFilter rowFilter;
+		private final int offset;
+		private final int limit;
+		private final SheetCounter counter;
+		private final ExecutorService executor;
+		private final int parallelThreshold;
+
+		public MapListSheetExtractor(CellMapper<T> aCellMapper, ColumnProjection aProjection, RowFilter aRowFilter, int anOffset, int aLimit, SheetCounter aCounter, ExecutorService anExecutor, int aParallelThreshold) {
+			cellMapper = aCellMapper;
+			projection = aProjection;
+			rowFilter = aRowFilter;
+			offset = anOffset;
+			limit = aLimit;
+			counter = aCounter;
+			executor = anExecutor;
+			parallelThreshold = aParallelThreshold;
+		}
+
+		@Override
+		public List<Map<String, T>> extractData(HSSFSheet sheet) throws IOException {
+			final int headerRowIndex = sheet.getFirstRowNum();
+
+			HSSFRow header = sheet.getRow(headerRowIndex);
+			if (null == header) {
+				return Lists.newArrayList();
+			}
+
+			String[] keys = new ObjectArrayRowMapper<String>(new StringCellMapper(), String.class).mapRow(header, headerRowIndex);
+			if (null != counter) {
+				counter.countRow(header);
+				counter.countCells(header);
+			}
+
+			RowMapper<Map<String, T>> rowMapper = counting((null == projection) ? new ColumnMapRowMapper<T>(keys, cellMapper) : new ColumnMapRowMapper<T>(keys, projection, cellMapper), counter, false);
+
+			RowFilter dataRowFilter = new RowFilter() {
+				@Override
+				public boolean accept(HSSFRow row, int rowNum) throws IOException {
+					return (rowNum > headerRowIndex) && ((null == rowFilter) || rowFilter.accept(row, rowNum));
+				}
+			};
+
+			// Filtered or paged rows are mapped one after the other, to stop as soon as possible.
+			//
+			if ((null != executor) && (null == rowFilter) && (0 == offset) && (Integer.MAX_VALUE == limit)) {
+				return new ParallelRowMapperSheetExtractor<Map<String, T>>(Suppliers.ofInstance(rowMapper), dataRowFilter, executor, parallelThreshold).extractData(sheet);
+			}
+
+			return new RowMapperSheetExtractor<Map<String, T>>(rowMapper, dataRowFilter, offset, limit).extractData(sheet);
+		}
+	}
+
+	/**
+	 * Adapter to enable use of a RowCallbackHandler inside a SheetExtractor.
+	 */
+	private static class RowCallbackHandlerSheetExtractor implements SheetExtractor<Void> {
+		private final RowCallbackHandler rowCallbackHandler;
+		private final SheetCounter counter;
+
+		public RowCallbackHandlerSheetExtractor(RowCallbackHandler aRowCallbackHandler, SheetCounter aCounter) {
+			rowCallbackHandler = aRowCallbackHandler;
+			counter = aCounter;
+		}
+
+		@Override
+		public Void extractData(HSSFSheet sheet) throws IOException {
+			int firstRowIndex = sheet.getFirstRowNum();
+			int lastRowIndex = sheet.getLastRowNum();
+
+			for (int i = firstRowIndex; i <= lastRowIndex; i++) {
+				HSSFRow row = sheet.getRow(i);
+				if (null != counter) {
+					counter.countRow(row);
+					counter.countCells(row);
+				}
+
+				rowCallbackHandler.processRow(row, i);
+			}
+
+			return null;
+		}
+	}
+
+	/**
+	 * Adapter to enable use of a CellCallbackHandler inside a SheetExtractor.
+	 */
+	private static class CellCallbackHandlerSheetExtractor implements SheetExtractor<Void> {
+		private final CellCallbackHandler cellCallbackHandler;
+		private final SheetCounter counter;
+
+		public CellCallbackHandlerSheetExtractor(CellCallbackHandler aCellCallbackHandler, SheetCounter aCounter) {
+			cellCallbackHandler = aCellCallbackHandler;
+			counter = aCounter;
+		}
+
+		@Override
+		public Void extractData(HSSFSheet sheet) throws IOException {
+			int firstRowIndex = sheet.getFirstRowNum();
+			int lastRowIndex = sheet.getLastRowNum();
+
+			for (int i = firstRowIndex; i <= lastRowIndex; i++) {
+				HSSFRow row = sheet.getRow(i);
+				if (null != row) {
+					if (null != counter) {
+						counter.countRow(row);
+					}
+
+					short firstColIndex = row.getFirstCellNum();
+					short lastColIndex = row.getLastCellNum();
+
+					for (short j = firstColIndex; j < lastColIndex; j++) {
+						HSSFCell cell = row.getCell(j, Row.RETURN_BLANK_AS_NULL);
+						if (null != counter) {
+							counter.countCell(cell);
+						}
+
+						cellCallbackHandler.processCell(cell, i, j);
+					}
+				}
+			}
+
+			return null;
+		}
+	}
+
+	/**
+	 * EventRowCallbackHandler implementation that creates an array for each row.
+	 * Streaming counterpart of ObjectArraySheetExtractor.
+	 */
+	private static class EventObjectArrayRowCallbackHandler<T> implements EventRowCallbackHandler {
+		private final List<T[]> values = Lists.newArrayList();
+		private final EventCellMapper<T> cellMapper;
+		private final Class<T> cellClass;
+
+		public EventObjectArrayRowCallbackHandler(EventCellMapper<T> aCellMapper, Class<T> aCellClass) {
+			cellMapper = aCellMapper;
+			cellClass = aCellClass;
+		}
+
+		@Override
+		public void processRow(EventCell[] cells, int rowNum) throws IOException {
+			T[] rowValues = ObjectArrays.newArray(cellClass, cells.length);
+
+			for (int columnNum = 0; columnNum < cells.length; columnNum++) {
+				rowValues[columnNum] = cellMapper.mapCell(cells[columnNum], rowNum, columnNum);
+			}
+
+			values.add(rowValues);
+		}
+
+		@SuppressWarnings("unchecked")
+		public T[][] getValues() {
+			return values.toArray((T[][]) Array.newInstance(cellClass, values.size(), 0));
+		}
+	}
+
+	/**
+	 * EventRowCallbackHandler implementation that creates an array for each row,
+	 * with only the projected columns. Streaming counterpart of ProjectedArraySheetExtractor.
+	 */
+	private static class EventProjectedArrayRowCallbackHandler<T> implements EventRowCallbackHandler, ColumnFilter {
+		private final List<T[]> values = Lists.newArrayList();
+		private final ColumnProjection projection;
+		private final EventCellMapper<T> cellMapper;
+		private final Class<T> cellClass;
+		private int[] columns;
+		private boolean[] projected;
+
+		public EventProjectedArrayRowCallbackHandler(ColumnProjection aProjection, EventCellMapper<T> aCellMapper, Class<T> aCellClass) {
+			projection = aProjection;
+			cellMapper = aCellMapper;
+			cellClass = aCellClass;
+			if (!projection.isByName()) {
+				bindColumns(null);
+			}
+		}
+
+		private void bindColumns(String[] headers) {
+			columns = projection.resolve(headers);
+			projected = ColumnProjection.toMask(columns);
+		}
+
+		@Override
+		public boolean isColumnIncluded(int rowNum, int columnNum) {
+			return (null == columns) || ((columnNum < projected.length) && projected[columnNum]);
+		}
+
+		@Override
+		public void processRow(EventCell[] cells, int rowNum) throws IOException {
+			if (null == columns) {
+				StringCellMapper headerMapper = new StringCellMapper();
+
+				String[] headers = new String[cells.length];
+				for (int columnNum = 0; columnNum < cells.length; columnNum++) {
+					headers[columnNum] = headerMapper.mapCell(cells[columnNum], rowNum, columnNum);
+				}
+
+				bindColumns(headers);
+			}
+
+			T[] rowValues = ObjectArrays.newArray(cellClass, columns.length);
+			for (int i = 0; i < columns.length; i++) {
+				int columnNum = columns[i];
+				rowValues[i] = cellMapper.mapCell((columnNum < cells.length) ? cells[columnNum] : null, rowNum, columnNum);
+			}
+
+			values.add(rowValues);
+		}
+
+		@SuppressWarnings("unchecked")
+		public T[][] getValues() {
+			return values.toArray((T[][]) Array.newInstance(cellClass, values.size(), 0));
+		}
+	}
+
+	/**
+	 * EventRowCallbackHandler implementation that creates a <code>double</code> array
+	 * for each row. Streaming counterpart of DoubleArraySheetExtractor.
+	 */
+	private static class EventDoubleArrayRowCallbackHandler implements EventRowCallbackHandler {
+		private final List<double[]> values = Lists.newArrayList();
+
+		@Override
+		public void processRow(EventCell[] cells, int rowNum) {
+			double[] rowValues = new double[cells.length];
+
+			for (int columnNum = 0; columnNum < cells.length; columnNum++) {
+				rowValues[columnNum] = numericValue(cells[columnNum]);
+			}
+
+			values.add(rowValues);
+		}
+
+		public double[][] getValues() {
+			return values.toArray(new double[values.size()][]);
+		}
+	}
+
+	/**
+	 * EventRowCallbackHandler implementation that builds a ColumnTable.
+	 * Streaming counterpart of ColumnTableSheetExtractor.
+	 */
+	private static class EventColumnTableRowCallbackHandler implements EventRowCallbackHandler, ColumnFilter {
+		private final StringCellMapper cellMapper = new StringCellMapper();
+		private ColumnTable.Builder builder;
+
+		@Override
+		public boolean isColumnIncluded(int rowNum, int columnNum) {
+			return (null == builder) || (columnNum < builder.getColumnCount());
+		}
+
+		@Override
+		public void processRow(EventCell[] cells, int rowNum) throws IOException {
+			if (null == builder) { // First line, read column names
+				String[] names = new String[cells.length];
+				for (int columnNum = 0; columnNum < cells.length; columnNum++) {
+					names[columnNum] = cellMapper.mapCell(cells[columnNum], rowNum, columnNum);
+				}
+
+				builder = new ColumnTable.Builder(names);
+				return;
+			}
+
+			builder.addRow();
+
+			int lastColumnNum = Math.min(builder.getColumnCount(), cells.length);
+			for (int columnNum = 0; columnNum < lastColumnNum; columnNum++) {
+				EventCell cell = cells[columnNum];
+				if (cellMapper.isPlainNumber(cell)) {
+					builder.addNumber(columnNum, cell.getNumericCellValue());
+				} else if (null != cell) {
+					builder.addString(columnNum, cellMapper.mapCell(cell, rowNum, columnNum));
+				}
+			}
+		}
+
+		public ColumnTable getValues() {
+			return (null == builder) ? new ColumnTable.Builder(new String[0]).build() : builder.build();
+		}
+	}
+
+	/**
+	 * EventRowCallbackHandler implementation that maps a rectangular region of a sheet.
+	 * Streaming counterpart of RangeSheetExtractor.
+	 */
+	private static class EventRangeRowCallbackHandler<T> implements EventRowCallbackHandler {
+		private final CellRangeAddress range;
+		private final EventCellMapper<T> cellMapper;
+		private final T[][] values;
+		private final boolean[] mappedRows;
+
+		@SuppressWarnings("unchecked")
+		public EventRangeRowCallbackHandler(CellRangeAddress aRange, EventCellMapper<T> aCellMapper, Class<T> aCellClass) {
+			range = aRange;
+			cellMapper = aCellMapper;
+			values = (T[][]) Array.newInstance(aCellClass, range.getLastRow() - range.getFirstRow() + 1, range.getLastColumn() - range.getFirstColumn() + 1);
+			mappedRows = new boolean[values.length];
+		}
+
+		@Override
+		public void processRow(EventCell[] cells, int rowNum) throws IOException {
+			int i = rowNum - range.getFirstRow();
+			if ((i >= 0) && (i < values.length)) {
+				mapRow(cells, i);
+			}
+		}
+
+		private void mapRow(EventCell[] cells, int i) throws IOException {
+			int firstColumn = range.getFirstColumn();
+
+			for (int j = 0; j < values[i].length; j++) {
+				int columnNum = firstColumn + j;
+				EventCell cell = (columnNum < cells.length) ? cells[columnNum] : null;
+
+				values[i][j] = cellMapper.mapCell(cell, range.getFirstRow() + i, columnNum);
+			}
+
+			mappedRows[i] = true;
+		}
+
+		public T[][] getValues() throws DataAccessException {
+			try {
+				for (int i = 0; i < values.length; i++) {
+					if (!mappedRows[i]) {
+						mapRow(new EventCell[0], i);
+					}
+				}
+			} catch (IOException e) {
+				throw new DataAccessResourceFailureException("Problem reading file", e);
+			}
+
+			return values;
+		}
+	}
+
+	/**
+	 * EventRowCallbackHandler implementation that creates a <code>java.util.Map</code>
+	 * for each row and put all maps in a list.
+	 * The first line is used as keys for the maps.
+	 * Streaming counterpart of MapListSheetExtractor.
+	 */
+	private static class EventMapListRowCallbackHandler<T> implements EventRowCallbackHandler, ColumnFilter {
+		private final List<Map<String, T>> values = new ArrayList<Map<String, T>>();
+		private final EventCellMapper<T> cellMapper;
+		private final ColumnProjection projection;
+		private final int offset;
+		private final int limit;
+		private ColumnMap.Index columnIndex;
+		private int[] columns;
+		private boolean[] projected;
+		private int skipped;
+
+		public EventMapListRowCallbackHandler(EventCellMapper<T> aCellMapper, ColumnProjection aProjection, int anOffset, int aLimit) {
+			cellMapper = aCellMapper;
+			projection = aProjection;
+			offset = anOffset;
+			limit = aLimit;
+		}
+
+		/**
+		 * Once the limit is reached, the remaining cells are not even decoded.
+		 */
+		@Override
+		public boolean isColumnIncluded(int rowNum, int columnNum) {
+			return (null == columnIndex) || ((values.size() < limit) && (columnNum < projected.length) && projected[columnNum]);
+		}
+
+		@Override
+		public void processRow(EventCell[] cells, int rowNum) throws IOException {
+			if (null == columnIndex) { // First line, read keys
+				StringCellMapper keyMapper = new StringCellMapper();
+
+				String[] headers = new String[cells.length];
+				for (int columnNum = 0; columnNum < cells.length; columnNum++) {
+					headers[columnNum] = keyMapper.mapCell(cells[columnNum], rowNum, columnNum);
+				}
+
+				if (null == projection) {
+					columns = new int[headers.length];
+					for (int i = 0; i < columns.length; i++) {
+						columns[i] = i;
+					}
+				} else {
+					columns = projection.resolveSorted(headers);
+				}
+
+				String[] keys = new String[columns.length];
+				for (int i = 0; i < columns.length; i++) {
+					keys[i] = (columns[i] < headers.length) ? headers[columns[i]] : "";
+				}
+
+				projected = ColumnProjection.toMask(columns);
+				columnIndex = new ColumnMap.Index(keys);
+			} else if (skipped < offset) {
+				skipped++;
+			} else if (values.size() < limit) { // Other lines, read values
+				int columnCount = 0;
+				while ((columnCount < columns.length) && (columns[columnCount] < cells.length)) {
+					columnCount++;
+				}
+
+				Object[] rowValues = new Object[columnCount];
+				for (int i = 0; i < columnCount; i++) {
+					int columnNum = columns[i];
+					rowValues[i] = cellMapper.mapCell(cells[columnNum], rowNum, columnNum);
+				}
+
+				values.add(new ColumnMap<T>(columnIndex, rowValues));
+			}
+		}
+
+		public List<Map<String, T>> getValues() {
+			return values;
+		}
+	}
+
+	/**
+	 * Adapter to enable use of a EventCellCallbackHandler as a EventRowCallbackHandler.
+	 */
+	private static class EventCellCallbackHandlerAdapter implements EventRowCallbackHandler, ColumnFilter {
+		private final EventCellCallbackHandler cellCallbackHandler;
+
+		public EventCellCallbackHandlerAdapter(EventCellCallbackHandler aCellCallbackHandler) {
+			cellCallbackHandler = aCellCallbackHandler;
+		}
+
+		@Override
+		public boolean isColumnIncluded(int rowNum, int columnNum) {
+			return !(cellCallbackHandler instanceof ColumnFilter) || ((ColumnFilter) cellCallbackHandler).isColumnIncluded(rowNum, columnNum);
+		}
+
+		@Override
+		public void processRow(EventCell[] cells, int rowNum) throws IOException {
+			int firstColIndex = 0;
+			while ((firstColIndex < cells.length) && (null == cells[firstColIndex])) {
+				firstColIndex++;
+			}
+			if (firstColIndex == cells.length) {
+				return; // No cell
+			}
+
+			for (int j = firstColIndex; j < cells.length; j++) {
+				cellCallbackHandler.processCell(cells[j], rowNum, j);
+			}
+		}
+	}
+
+	/**
+	 * Counts the rows and cells of a .xls sheet given to the mapping code,
+	 * for the ReadListener. Thread-safe, since rows can be mapped concurrently.
+	 */
+	private static class SheetCounter {
+		private final AtomicInteger rowCount = new AtomicInteger();
+		private final AtomicLong cellCount = new AtomicLong();
+
+		public void countRow(HSSFRow row) {
+			if (null != row) {
+				rowCount.incrementAndGet();
+			}
+		}
+
+		public void countCells(HSSFRow row) {
+			if (null != row) {
+				cellCount.addAndGet(row.getPhysicalNumberOfCells());
+			}
+		}
+
+		public void countCell(HSSFCell cell) {
+			if (null != cell) {
+				cellCount.incrementAndGet();
+			}
+		}
+
+		public int getRowCount() {
+			return rowCount.get();
+		}
+
+		public long getCellCount() {
+			return cellCount.get();
+		}
+	}
+
+	/**
+	 * CellMapper that counts the cells given to another one.
+	 */
+	private static class CountingCellMapper<T> implements CellMapper<T> {
+		private final CellMapper<T> cellMapper;
+		private final SheetCounter counter;
+
+		public CountingCellMapper(CellMapper<T> aCellMapper, SheetCounter aCounter) {
+			cellMapper = aCellMapper;
+			counter = aCounter;
+		}
+
+		@Override
+		public T mapCell(HSSFCell cell, int rowNum, int columnNum) throws IOException {
+			counter.countCell(cell);
+			return cellMapper.mapCell(cell, rowNum, columnNum);
+		}
+	}
+
+	/**
+	 * RowMapper that counts the rows given to another one, and their cells
+	 * if they're not counted by a CountingCellMapper.
+	 */
+	private static class CountingRowMapper<T> implements RowMapper<T> {
+		private final RowMapper<T> rowMapper;
+		private final SheetCounter counter;
+		private final boolean countCells;
+
+		public CountingRowMapper(RowMapper<T> aRowMapper, SheetCounter aCounter, boolean aCountCells) {
+			rowMapper = aRowMapper;
+			counter = aCounter;
+			countCells = aCountCells;
+		}
+
+		@Override
+		public T mapRow(HSSFRow row, int rowNum) throws IOException {
+			counter.countRow(row);
+			if (countCells) {
+				counter.countCells(row);
+			}
+			return rowMapper.mapRow(row, rowNum);
+		}
+	}
+
+	/**
+	 * EventRowCallbackHandler that counts the rows and cells given to another one.
+	 */
+	private static class CountingRowCallbackHandler implements EventRowCallbackHandler, ColumnFilter {
+		private final EventRowCallbackHandler rowCallbackHandler;
+		private final ColumnFilter columnFilter;
+		private int rowCount;
+		private long cellCount;
+
+		public CountingRowCallbackHandler(EventRowCallbackHandler aRowCallbackHandler) {
+			rowCallbackHandler = aRowCallbackHandler;
+			columnFilter = (aRowCallbackHandler instanceof ColumnFilter) ? (ColumnFilter) aRowCallbackHandler : null;
+		}
+
+		@Override
+		public boolean isColumnIncluded(int rowNum, int columnNum) {
+			return (null == columnFilter) || columnFilter.isColumnIncluded(rowNum, columnNum);
+		}
+
+		@Override
+		public void processRow(EventCell[] cells, int rowNum) throws IOException {
+			rowCount++;
+			for (EventCell cell : cells) {
+				if (null != cell) {
+					cellCount++;
+				}
+			}
+
+			rowCallbackHandler.processRow(cells, rowNum);
+		}
+
+		public int getRowCount() {
+			return rowCount;
+		}
+
+		public long getCellCount() {
+			return cellCount;
+		}
+	}
+
+	private interface FileSystemCallback<T> {
+		T doInFileSystem(DirectoryNode root) throws IOException;
+	}
+
+	private interface PackageCallback<T> {
+		T doInPackage(OPCPackage pkg) throws IOException;
+	}
+
+	/**
+	 * CellMapper that evaluates formula cells before mapping them.
+	 * The evaluator is looked up on the first formula, and kept
+	 * for the duration of the read.
+	 */
+	private static class EvaluatingCellMapper<T> implements CellMapper<T> {
+		private final CellMapper<T> cellMapper;
+		private WorkbookEvaluator evaluator;
+
+		public EvaluatingCellMapper(CellMapper<T> aCellMapper) {
+			cellMapper = aCellMapper;
+		}
+
+		@Override
+		public T mapCell(HSSFCell cell, int rowNum, int columnNum) throws IOException {
+			if ((null != cell) && (Cell.CELL_TYPE_FORMULA == cell.getCellType())) {
+				getEvaluator(cell.getSheet().getWorkbook()).evaluate(cell);
+			}
+
+			return cellMapper.mapCell(cell, rowNum, columnNum);
+		}
+
+		// Shared by the threads mapping a sheet in parallel
+		private synchronized WorkbookEvaluator getEvaluator(HSSFWorkbook workbook) {
+			if (null == evaluator) {
+				evaluator = WorkbookEvaluator.of(workbook);
+			}
+			return evaluator;
+		}
+	}
+
+	/**
+	 * RowMapper that evaluates the formula cells of a row before mapping it.
+	 */
+	private static class EvaluatingRowMapper<T> implements RowMapper<T> {
+		private final RowMapper<T> rowMapper;
+		private final WorkbookEvaluator evaluator;
+
+		public EvaluatingRowMapper(RowMapper<T> aRowMapper, WorkbookEvaluator anEvaluator) {
+			rowMapper = aRowMapper;
+			evaluator = anEvaluator;
+		}
+
+		@Override
+		public T mapRow(HSSFRow row, int rowNum) throws IOException {
+			if (null != row) {
+				evaluator.evaluate(row);
+			}
+
+			return rowMapper.mapRow(row, rowNum);
+		}
+	}
+
+	/**
+	 * CellMapper that returns one instance per distinct string,
+	 * for the duration of a single read. It can be shared by the threads
+	 * mapping a sheet in parallel.
+	 */
+	private static class CanonicalCellMapper<T> implements CellMapper<T> {
+		private final CellMapper<T> cellMapper;
+		private final ConcurrentMap<String, String> strings = Maps.newConcurrentMap();
+
+		public CanonicalCellMapper(CellMapper<T> aCellMapper) {
+			cellMapper = aCellMapper;
+		}
+
+		@Override
+		public T mapCell(HSSFCell cell, int rowNum, int columnNum) throws IOException {
+			return canonical(cellMapper.mapCell(cell, rowNum, columnNum));
+		}
+
+		@SuppressWarnings("unchecked")
+		protected T canonical(T value) {
+			if (!(value instanceof String)) {
+				return value;
+			}
+
+			String canonical = strings.putIfAbsent((String) value, (String) value);
+			return (null == canonical) ? value : (T) canonical;
+		}
+	}
+
+	private static class CanonicalEventCellMapper<T> extends CanonicalCellMapper<T> implements EventCellMapper<T> {
+		private final EventCellMapper<T> eventCellMapper;
+
+		public CanonicalEventCellMapper(CellMapper<T> aCellMapper) {
+			super(aCellMapper);
+			eventCellMapper = asEventCellMapper(aCellMapper);
+		}
+
+		@Override
+		public T mapCell(EventCell cell, int rowNum, int columnNum) throws IOException {
+			return canonical(eventCellMapper.mapCell(cell, rowNum, columnNum));
+		}
 	}
 }
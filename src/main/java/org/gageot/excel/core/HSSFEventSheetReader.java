@@ -0,0 +1,270 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.RKRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.Cell;
+import org.springframework.dao.DataRetrievalFailureException;
+import com.google.common.collect.Lists;
+
+/**
+ * Reads one sheet of a .xls file with the HSSF event API and pushes
+ * its rows to an EventRowCallbackHandler.
+ *
+ * <p>No usermodel object is ever created: only the current row is kept
+ * in memory. Reading stops as soon as the sheet has been processed.
+ * Cells excluded by a ColumnFilter handler are not decoded.
+ *
+ * @author David Gageot
+ * @see ExcelTemplate#stream(String,EventRowCallbackHandler)
+ */
+class HSSFEventSheetReader extends AbortableHSSFListener {
+	private static final short CONTINUE = 0;
+	private static final short STOP = 1;
+
+	private final String sheetName;
+	private final EventRowCallbackHandler rowCallbackHandler;
+	private final ColumnFilter columnFilter;
+	private final FormatTrackingHSSFListener formats;
+	private final List<BoundSheetRecord> boundSheets;
+
+	private String[] orderedSheetNames;
+	private SSTRecord sst;
+	private boolean date1904;
+	private int depth;
+	private int sheetIndex = -1;
+	private boolean inSheet;
+	private boolean found;
+
+	private FormulaRecord pendingFormula;
+	private int currentRowNum = -1;
+	private EventCell[] currentRow = new EventCell[16];
+	private int currentRowSize;
+
+	public HSSFEventSheetReader(String aSheetName, EventRowCallbackHandler aRowCallbackHandler) {
+		sheetName = aSheetName;
+		rowCallbackHandler = aRowCallbackHandler;
+		columnFilter = (aRowCallbackHandler instanceof ColumnFilter) ? (ColumnFilter) aRowCallbackHandler : null;
+		formats = new FormatTrackingHSSFListener(new HSSFListener() {
+			@Override
+			public void processRecord(Record record) {
+				// Only used to track formats
+			}
+		});
+		boundSheets = Lists.newArrayList();
+	}
+
+	public void read(InputStream in) throws IOException {
+		read(new POIFSFileSystem(in).getRoot());
+	}
+
+	public void read(DirectoryNode root) throws IOException {
+		HSSFRequest request = new HSSFRequest();
+		request.addListenerForAllRecords(this);
+
+		try {
+			new HSSFEventFactory().abortableProcessWorkbookEvents(request, root);
+		} catch (HSSFUserException e) {
+			if (e.getReason() instanceof IOException) {
+				throw (IOException) e.getReason();
+			}
+			throw new IOException(e.getMessage());
+		}
+
+		if (!found) {
+			throw new DataRetrievalFailureException("Unknown sheet: " + sheetName);
+		}
+	}
+
+	@Override
+	public short abortableProcessRecord(Record record) throws HSSFUserException {
+		try {
+			return processRecordOrFail(record);
+		} catch (IOException e) {
+			throw new HSSFUserException(e);
+		}
+	}
+
+	private short processRecordOrFail(Record record) throws IOException {
+		formats.processRecordInternally(record);
+
+		switch (record.getSid()) {
+			case BoundSheetRecord.sid:
+				boundSheets.add((BoundSheetRecord) record);
+				break;
+			case SSTRecord.sid:
+				sst = (SSTRecord) record;
+				break;
+			case DateWindow1904Record.sid:
+				date1904 = (1 == ((DateWindow1904Record) record).getWindowing());
+				break;
+			case BOFRecord.sid:
+				startSubstream((BOFRecord) record);
+				break;
+			case EOFRecord.sid:
+				if ((0 == --depth) && inSheet) {
+					flushRow();
+					return STOP;
+				}
+				break;
+			default:
+				if (inSheet && (1 == depth)) {
+					processCellRecord(record);
+				}
+		}
+
+		return CONTINUE;
+	}
+
+	private void startSubstream(BOFRecord bof) {
+		if ((0 == depth++) && (BOFRecord.TYPE_WORKBOOK != bof.getType())) {
+			if (null == orderedSheetNames) {
+				BoundSheetRecord[] ordered = BoundSheetRecord.orderByBofPosition(boundSheets);
+
+				orderedSheetNames = new String[ordered.length];
+				for (int i = 0; i < ordered.length; i++) {
+					orderedSheetNames[i] = ordered[i].getSheetname();
+				}
+			}
+
+			sheetIndex++;
+			inSheet = (BOFRecord.TYPE_WORKSHEET == bof.getType()) && (sheetIndex < orderedSheetNames.length) && sheetName.equals(orderedSheetNames[sheetIndex]);
+			found |= inSheet;
+		}
+	}
+
+	private void processCellRecord(Record record) throws IOException {
+		if (record instanceof StringRecord) {
+			if (null != pendingFormula) {
+				addCell(pendingFormula, EventCell.string(((StringRecord) record).getString(), dataFormat(pendingFormula), formats.getFormatString(pendingFormula), true));
+				pendingFormula = null;
+			}
+			return;
+		}
+
+		if ((null != columnFilter) && (record instanceof CellValueRecordInterface)) {
+			CellValueRecordInterface cellRecord = (CellValueRecordInterface) record;
+			if (!columnFilter.isColumnIncluded(cellRecord.getRow(), cellRecord.getColumn())) {
+				return;
+			}
+		}
+
+		switch (record.getSid()) {
+			case NumberRecord.sid:
+				NumberRecord number = (NumberRecord) record;
+				addCell(number, EventCell.numeric(number.getValue(), dataFormat(number), formats.getFormatString(number), date1904, false));
+				break;
+			case RKRecord.sid:
+				RKRecord rk = (RKRecord) record;
+				addCell(rk, EventCell.numeric(rk.getRKNumber(), dataFormat(rk), formats.getFormatString(rk), date1904, false));
+				break;
+			case LabelSSTRecord.sid:
+				LabelSSTRecord label = (LabelSSTRecord) record;
+				addCell(label, EventCell.string(sst.getString(label.getSSTIndex()).getString(), dataFormat(label), formats.getFormatString(label), false));
+				break;
+			case LabelRecord.sid:
+				LabelRecord oldLabel = (LabelRecord) record;
+				addCell(oldLabel, EventCell.string(oldLabel.getValue(), dataFormat(oldLabel), formats.getFormatString(oldLabel), false));
+				break;
+			case BoolErrRecord.sid:
+				BoolErrRecord boolErr = (BoolErrRecord) record;
+				addCell(boolErr, boolErr.isBoolean() ? EventCell.bool(boolErr.getBooleanValue(), false) : EventCell.error(boolErr.getErrorValue(), false));
+				break;
+			case FormulaRecord.sid:
+				processFormula((FormulaRecord) record);
+				break;
+			default:
+				// Not a cell value
+		}
+	}
+
+	private void processFormula(FormulaRecord formula) throws IOException {
+		switch (formula.getCachedResultType()) {
+			case Cell.CELL_TYPE_STRING:
+				if (formula.hasCachedResultString()) {
+					pendingFormula = formula; // Value is in next StringRecord
+				}
+				break;
+			case Cell.CELL_TYPE_BOOLEAN:
+				addCell(formula, EventCell.bool(formula.getCachedBooleanValue(), true));
+				break;
+			case Cell.CELL_TYPE_ERROR:
+				addCell(formula, EventCell.error((byte) formula.getCachedErrorValue(), true));
+				break;
+			default:
+				addCell(formula, EventCell.numeric(formula.getValue(), dataFormat(formula), formats.getFormatString(formula), date1904, true));
+		}
+	}
+
+	private short dataFormat(CellValueRecordInterface record) {
+		return (short) formats.getFormatIndex(record);
+	}
+
+	private void addCell(CellValueRecordInterface record, EventCell cell) throws IOException {
+		int rowNum = record.getRow();
+		int columnNum = record.getColumn();
+
+		if (rowNum != currentRowNum) {
+			flushRow();
+			currentRowNum = rowNum;
+		}
+
+		if (columnNum >= currentRow.length) {
+			currentRow = Arrays.copyOf(currentRow, Math.max(columnNum + 1, currentRow.length * 2));
+		}
+
+		currentRow[columnNum] = cell;
+		currentRowSize = Math.max(currentRowSize, columnNum + 1);
+	}
+
+	private void flushRow() throws IOException {
+		if (0 == currentRowSize) {
+			return;
+		}
+
+		EventCell[] cells = Arrays.copyOf(currentRow, currentRowSize);
+		Arrays.fill(currentRow, 0, currentRowSize, null);
+		currentRowSize = 0;
+
+		rowCallbackHandler.processRow(cells, currentRowNum);
+	}
+}
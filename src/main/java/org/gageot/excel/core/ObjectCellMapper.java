@@ -18,23 +18,97 @@ package org.gageot.excel.core;
 
 import java.io.IOException;
 import org.apache.poi.hssf.usermodel.HSSFCell;
+import org.apache.poi.hssf.usermodel.HSSFDateUtil;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DateUtil;
 
 /**
  * CellMapper implementation that creates a <code>java.lang.Object</code>
- * for each cell. It uses <code>java.lang.String</code> for text cells and
- * <code>java.lang.Double</code> for numerical cells.
+ * for each cell, depending on its type:
+ * <ul>
+ * <li><code>java.lang.String</code> for text cells,
+ * <li><code>java.lang.Double</code> for numerical cells, or
+ * <code>java.lang.Long</code> for whole numbers if configured so,
+ * <li><code>java.util.Date</code> for numerical cells with a date format,
+ * <li><code>java.lang.Boolean</code> for boolean cells,
+ * <li><code>null</code> for blank and error cells.
+ * </ul>
+ * Formula cells are mapped according to the type of their cached result.
+ * The same conversion rules apply to cells read by the streaming methods.
  *
  * @author David Gageot
  */
-public class ObjectCellMapper implements CellMapper<Object> {
+public class ObjectCellMapper implements CellMapper<Object>, EventCellMapper<Object> {
+	private final boolean wholeNumbersAsLong;
+
+	public ObjectCellMapper() {
+		this(false);
+	}
+
+	/**
+	 * Create a new ObjectCellMapper.
+	 * @param aWholeNumbersAsLong should numerical cells without fraction
+	 * be mapped to <code>java.lang.Long</code> rather than <code>java.lang.Double</code>
+	 */
+	public ObjectCellMapper(boolean aWholeNumbersAsLong) {
+		wholeNumbersAsLong = aWholeNumbersAsLong;
+	}
+
 	@Override
 	public Object mapCell(HSSFCell cell, int rowNum, int columnNum) throws IOException {
-		try {
-			return cell.getNumericCellValue();
-		} catch (NumberFormatException e) {
-			return cell.getStringCellValue();
-		} catch (IllegalStateException e) {
-			return cell.getStringCellValue();
+		if (null == cell) {
+			return null;
 		}
+
+		int cellType = cell.getCellType();
+		if (Cell.CELL_TYPE_FORMULA == cellType) {
+			cellType = cell.getCachedFormulaResultType();
+		}
+
+		switch (cellType) {
+			case Cell.CELL_TYPE_NUMERIC:
+				if (HSSFDateUtil.isCellDateFormatted(cell)) {
+					return cell.getDateCellValue();
+				}
+				return numericValue(cell.getNumericCellValue());
+			case Cell.CELL_TYPE_STRING:
+				return cell.getStringCellValue();
+			case Cell.CELL_TYPE_BOOLEAN:
+				return cell.getBooleanCellValue();
+			case Cell.CELL_TYPE_BLANK:
+			case Cell.CELL_TYPE_ERROR:
+			default:
+				return null;
+		}
+	}
+
+	@Override
+	public Object mapCell(EventCell cell, int rowNum, int columnNum) throws IOException {
+		if (null == cell) {
+			return null;
+		}
+
+		switch (cell.getCellType()) {
+			case Cell.CELL_TYPE_NUMERIC:
+				if (DateUtil.isADateFormat(cell.getDataFormat(), cell.getDataFormatString()) && DateUtil.isValidExcelDate(cell.getNumericCellValue())) {
+					return cell.getDateCellValue();
+				}
+				return numericValue(cell.getNumericCellValue());
+			case Cell.CELL_TYPE_STRING:
+				return cell.getStringCellValue();
+			case Cell.CELL_TYPE_BOOLEAN:
+				return cell.getBooleanCellValue();
+			case Cell.CELL_TYPE_ERROR:
+			default:
+				return null;
+		}
+	}
+
+	private Object numericValue(double value) {
+		if (wholeNumbersAsLong && (((long) value) == value)) {
+			return (long) value;
+		}
+
+		return value;
 	}
 }
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import static com.google.common.base.Preconditions.*;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+
+/**
+ * SheetExtractor implementation that maps the rows of a large sheet
+ * concurrently, and gives the objects in row order, as a
+ * RowMapperSheetExtractor would.
+ *
+ * <p>The range of rows is split into chunks, mapped on an ExecutorService.
+ * Each chunk gets its own RowMapper from the given Supplier, so that
+ * RowMappers don't need to be thread-safe. The CellMappers they share must be.
+ * Sheets with fewer rows than the threshold are mapped in the calling thread.
+ *
+ * <p>The calling thread maps the chunks no pool thread has started yet,
+ * rather than waiting for them. This way, sheets can be extracted by tasks
+ * of the very same ExecutorService, even a bounded one, without a deadlock.
+ *
+ * @author David Gageot
+ * @see RowMapperSheetExtractor
+ * @see ExcelTemplate#setParallelThreshold
+ */
+public class ParallelRowMapperSheetExtractor<T> implements SheetExtractor<List<T>> {
+	/** Minimum number of rows mapped by a task */
+	private static final int MIN_CHUNK_SIZE = 64;
+
+	/** Number of chunks per processor, to balance uneven rows */
+	private static final int CHUNKS_PER_PROCESSOR = 4;
+
+	private final Supplier<? extends RowMapper<T>> rowMappers;
+	private final RowFilter rowFilter;
+	private final ExecutorService executor;
+	private final int parallelThreshold;
+
+	/**
+	 * Create a new ParallelRowMapperSheetExtractor.
+	 * @param someRowMappers creates a RowMapper for each chunk of rows
+	 * @param anExecutor the executor that maps the chunks
+	 * @param aParallelThreshold the number of rows from which mapping is parallel
+	 */
+	public ParallelRowMapperSheetExtractor(Supplier<? extends RowMapper<T>> someRowMappers, ExecutorService anExecutor, int aParallelThreshold) {
+		this(someRowMappers, null, anExecutor, aParallelThreshold);
+	}
+
+	/**
+	 * Create a new ParallelRowMapperSheetExtractor that maps only some of the rows.
+	 * @param someRowMappers creates a RowMapper for each chunk of rows
+	 * @param aRowFilter the thread-safe RowFilter which selects the rows to map, or
+	 * <code>null</code> to map all rows. Missing rows are never selected
+	 * @param anExecutor the executor that maps the chunks
+	 * @param aParallelThreshold the number of rows from which mapping is parallel
+	 */
+	public ParallelRowMapperSheetExtractor(Supplier<? extends RowMapper<T>> someRowMappers, RowFilter aRowFilter, ExecutorService anExecutor, int aParallelThreshold) {
+		checkArgument(aParallelThreshold > 0, "parallelThreshold must be positive");
+
+		rowMappers = checkNotNull(someRowMappers, "rowMappers must not be null");
+		rowFilter = aRowFilter;
+		executor = checkNotNull(anExecutor, "executor must not be null");
+		parallelThreshold = aParallelThreshold;
+	}
+
+	@Override
+	public List<T> extractData(HSSFSheet sheet) throws IOException {
+		int firstRowIndex = sheet.getFirstRowNum();
+		int lastRowIndex = sheet.getLastRowNum();
+		int rowCount = lastRowIndex - firstRowIndex + 1;
+
+		if (rowCount < parallelThreshold) {
+			return mapRows(sheet, firstRowIndex, lastRowIndex);
+		}
+
+		int chunkSize = Math.max(MIN_CHUNK_SIZE, rowCount / (CHUNKS_PER_PROCESSOR * Runtime.getRuntime().availableProcessors()));
+
+		List<FutureTask<List<T>>> chunks = Lists.newArrayList();
+		try {
+			for (int first = firstRowIndex; first <= lastRowIndex; first += chunkSize) {
+				FutureTask<List<T>> chunk = new FutureTask<List<T>>(new MapRowsTask(sheet, first, Math.min(lastRowIndex, first + chunkSize - 1)));
+				chunks.add(chunk);
+				try {
+					executor.execute(chunk);
+				} catch (RejectedExecutionException e) {
+					// Mapped by the calling thread
+				}
+			}
+
+			List<T> rows = Lists.newArrayListWithCapacity(sheet.getPhysicalNumberOfRows());
+			for (FutureTask<List<T>> chunk : chunks) {
+				chunk.run(); // Does nothing if the chunk was already started
+				rows.addAll(getResult(chunk));
+			}
+			return rows;
+		} finally {
+			for (Future<List<T>> chunk : chunks) {
+				chunk.cancel(true);
+			}
+		}
+	}
+
+	private List<T> mapRows(HSSFSheet sheet, int firstRowIndex, int lastRowIndex) throws IOException {
+		RowMapper<T> rowMapper = rowMappers.get();
+
+		List<T> rows = Lists.newArrayList();
+		for (int i = firstRowIndex; i <= lastRowIndex; i++) {
+			HSSFRow row = sheet.getRow(i);
+			if ((null != rowFilter) && ((null == row) || !rowFilter.accept(row, i))) {
+				continue;
+			}
+
+			T mappedRow = rowMapper.mapRow(row, i);
+			if (null != mappedRow) {
+				rows.add(mappedRow);
+			}
+		}
+
+		return rows;
+	}
+
+	private static <V> V getResult(Future<V> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while mapping rows");
+		} catch (ExecutionException e) {
+			Throwables.propagateIfPossible(e.getCause(), IOException.class);
+			throw Throwables.propagate(e.getCause());
+		}
+	}
+
+	/**
+	 * Maps one chunk of rows.
+	 */
+	private class MapRowsTask implements Callable<List<T>> {
+		private final HSSFSheet sheet;
+		private final int firstRowIndex;
+		private final int lastRowIndex;
+
+		MapRowsTask(HSSFSheet aSheet, int aFirstRowIndex, int aLastRowIndex) {
+			sheet = aSheet;
+			firstRowIndex = aFirstRowIndex;
+			lastRowIndex = aLastRowIndex;
+		}
+
+		@Override
+		public List<T> call() throws IOException {
+			return mapRows(sheet, firstRowIndex, lastRowIndex);
+		}
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * Callback interface notified by ExcelTemplate of the phases of each read,
+ * to find out whether time goes to opening the resource, parsing the
+ * workbook or extracting the sheets.
+ *
+ * <p>Durations are given in nanoseconds. Implementations are called from
+ * the reading threads and must be thread-safe if the template is shared.
+ *
+ * @author David Gageot
+ * @see ExcelTemplate#setReadListener
+ * @see ReadStatistics
+ */
+public interface ReadListener {
+	/**
+	 * The Resource was opened, before any content was parsed.
+	 * @param resource the Resource being read
+	 * @param elapsedNanos time spent opening the Resource
+	 */
+	void resourceOpened(Resource resource, long elapsedNanos);
+
+	/**
+	 * A whole .xls workbook was parsed in memory.
+	 * Not called for streamed reads, where parsing is part of the extraction.
+	 * @param resource the Resource being read
+	 * @param elapsedNanos time spent parsing the workbook
+	 */
+	void workbookParsed(Resource resource, long elapsedNanos);
+
+	/**
+	 * The Resource was closed.
+	 * @param resource the Resource that was read
+	 * @param bytesRead number of bytes read from the Resource
+	 */
+	void resourceClosed(Resource resource, long bytesRead);
+
+	/**
+	 * A sheet was extracted, or an iterator over its rows was closed.
+	 * For a workbook read in memory, only the rows and cells given to the
+	 * mapping code are counted: rows skipped by a RowFilter, an offset or a
+	 * limit, and cells outside of a projection are not. Custom SheetExtractors
+	 * report no rows and cells.
+	 * @param resource the Resource being read
+	 * @param sheetName name of the excel sheet
+	 * @param rowCount number of rows processed
+	 * @param cellCount number of non blank cells processed
+	 * @param elapsedNanos time spent extracting the sheet, including parsing for streamed reads
+	 */
+	void sheetRead(Resource resource, String sheetName, int rowCount, long cellCount, long elapsedNanos);
+
+	/**
+	 * A parsed workbook was found in the WorkbookCache.
+	 * @param resource the Resource being read
+	 */
+	void cacheHit(Resource resource);
+
+	/**
+	 * No parsed workbook was found in the WorkbookCache.
+	 * @param resource the Resource being read
+	 */
+	void cacheMiss(Resource resource);
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import static com.google.common.base.Preconditions.*;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+
+/**
+ * ReadListener that sums up the reads of every template it's attached to,
+ * and publishes the counters as a JMX MBean.
+ *
+ * <p>Declared as a Spring bean, it registers itself on the platform
+ * MBeanServer when initialized, and unregisters itself when destroyed.
+ * It can also be used without JMX, calling the getters directly.
+ *
+ * <p>This class is thread-safe.
+ *
+ * @author David Gageot
+ * @see ExcelTemplate#setReadListener
+ */
+public class ReadStatistics implements ReadListener, ReadStatisticsMBean, InitializingBean, DisposableBean {
+	/** Default name of the MBean */
+	public static final String DEFAULT_OBJECT_NAME = "org.gageot.excel:type=ReadStatistics";
+
+	private final AtomicLong resourceOpenCount = new AtomicLong();
+	private final AtomicLong resourceOpenNanos = new AtomicLong();
+	private final AtomicLong workbookParseCount = new AtomicLong();
+	private final AtomicLong workbookParseNanos = new AtomicLong();
+	private final AtomicLong sheetReadCount = new AtomicLong();
+	private final AtomicLong sheetReadNanos = new AtomicLong();
+	private final AtomicLong rowCount = new AtomicLong();
+	private final AtomicLong cellCount = new AtomicLong();
+	private final AtomicLong bytesRead = new AtomicLong();
+	private final AtomicLong cacheHitCount = new AtomicLong();
+	private final AtomicLong cacheMissCount = new AtomicLong();
+
+	private String objectName = DEFAULT_OBJECT_NAME;
+	private MBeanServer mbeanServer;
+	private ObjectName registeredName;
+
+	@Override
+	public void resourceOpened(Resource resource, long elapsedNanos) {
+		resourceOpenCount.incrementAndGet();
+		resourceOpenNanos.addAndGet(elapsedNanos);
+	}
+
+	@Override
+	public void workbookParsed(Resource resource, long elapsedNanos) {
+		workbookParseCount.incrementAndGet();
+		workbookParseNanos.addAndGet(elapsedNanos);
+	}
+
+	@Override
+	public void resourceClosed(Resource resource, long aBytesRead) {
+		bytesRead.addAndGet(aBytesRead);
+	}
+
+	@Override
+	public void sheetRead(Resource resource, String sheetName, int aRowCount, long aCellCount, long elapsedNanos) {
+		sheetReadCount.incrementAndGet();
+		sheetReadNanos.addAndGet(elapsedNanos);
+		rowCount.addAndGet(aRowCount);
+		cellCount.addAndGet(aCellCount);
+	}
+
+	@Override
+	public void cacheHit(Resource resource) {
+		cacheHitCount.incrementAndGet();
+	}
+
+	@Override
+	public void cacheMiss(Resource resource) {
+		cacheMissCount.incrementAndGet();
+	}
+
+	@Override
+	public long getResourceOpenCount() {
+		return resourceOpenCount.get();
+	}
+
+	@Override
+	public long getResourceOpenTime() {
+		return TimeUnit.NANOSECONDS.toMillis(resourceOpenNanos.get());
+	}
+
+	@Override
+	public long getWorkbookParseCount() {
+		return workbookParseCount.get();
+	}
+
+	@Override
+	public long getWorkbookParseTime() {
+		return TimeUnit.NANOSECONDS.toMillis(workbookParseNanos.get());
+	}
+
+	@Override
+	public long getSheetReadCount() {
+		return sheetReadCount.get();
+	}
+
+	@Override
+	public long getSheetReadTime() {
+		return TimeUnit.NANOSECONDS.toMillis(sheetReadNanos.get());
+	}
+
+	@Override
+	public long getRowCount() {
+		return rowCount.get();
+	}
+
+	@Override
+	public long getCellCount() {
+		return cellCount.get();
+	}
+
+	@Override
+	public long getBytesRead() {
+		return bytesRead.get();
+	}
+
+	@Override
+	public long getCacheHitCount() {
+		return cacheHitCount.get();
+	}
+
+	@Override
+	public long getCacheMissCount() {
+		return cacheMissCount.get();
+	}
+
+	@Override
+	public void reset() {
+		resourceOpenCount.set(0L);
+		resourceOpenNanos.set(0L);
+		workbookParseCount.set(0L);
+		workbookParseNanos.set(0L);
+		sheetReadCount.set(0L);
+		sheetReadNanos.set(0L);
+		rowCount.set(0L);
+		cellCount.set(0L);
+		bytesRead.set(0L);
+		cacheHitCount.set(0L);
+		cacheMissCount.set(0L);
+	}
+
+	/**
+	 * Register this MBean, on the platform MBeanServer if none is set.
+	 */
+	@Override
+	public void afterPropertiesSet() throws JMException {
+		checkArgument(null != getObjectName(), "objectName is required");
+
+		if (null == mbeanServer) {
+			mbeanServer = ManagementFactory.getPlatformMBeanServer();
+		}
+		registeredName = mbeanServer.registerMBean(this, new ObjectName(getObjectName())).getObjectName();
+	}
+
+	/**
+	 * Unregister this MBean, if it was registered.
+	 */
+	@Override
+	public void destroy() throws JMException {
+		if (null != registeredName) {
+			mbeanServer.unregisterMBean(registeredName);
+			registeredName = null;
+		}
+	}
+
+	/**
+	 * Return the name under which this MBean is registered.
+	 */
+	public String getObjectName() {
+		return objectName;
+	}
+
+	/**
+	 * Set the name under which this MBean is registered.
+	 * Default is {@value #DEFAULT_OBJECT_NAME}.
+	 */
+	public void setObjectName(String anObjectName) {
+		objectName = anObjectName;
+	}
+
+	/**
+	 * Return the MBeanServer this MBean is registered on.
+	 */
+	public MBeanServer getMbeanServer() {
+		return mbeanServer;
+	}
+
+	/**
+	 * Set the MBeanServer to register this MBean on.
+	 * Default is the platform MBeanServer.
+	 */
+	public void setMbeanServer(MBeanServer anMbeanServer) {
+		mbeanServer = anMbeanServer;
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+/**
+ * JMX management interface of ReadStatistics.
+ * Times are given in milliseconds.
+ *
+ * @author David Gageot
+ * @see ReadStatistics
+ */
+public interface ReadStatisticsMBean {
+	long getResourceOpenCount();
+
+	long getResourceOpenTime();
+
+	long getWorkbookParseCount();
+
+	long getWorkbookParseTime();
+
+	long getSheetReadCount();
+
+	long getSheetReadTime();
+
+	long getRowCount();
+
+	long getCellCount();
+
+	long getBytesRead();
+
+	long getCacheHitCount();
+
+	long getCacheMissCount();
+
+	/**
+	 * Reset all the counters to zero.
+	 */
+	void reset();
+}
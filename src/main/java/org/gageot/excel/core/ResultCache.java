@@ -0,0 +1,206 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import static com.google.common.base.Preconditions.*;
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.core.io.Resource;
+import com.google.common.base.Objects;
+
+/**
+ * Least recently used cache of extraction results, keyed on the Resource,
+ * the sheet name and the mapping they were read with.
+ *
+ * <p>Like in a WorkbookCache, each entry remembers the last-modified
+ * timestamp of its Resource, and a lookup with a different timestamp
+ * is a miss that drops the stale entry.
+ *
+ * <p>Results can be held through soft references, so that the garbage
+ * collector reclaims them under memory pressure, on top of the limit
+ * on the number of entries.
+ *
+ * <p>Cached results are immutable lists shared by every caller: the beans
+ * they contain must only be read. This class is thread-safe.
+ *
+ * @author David Gageot
+ * @see ExcelTemplate#setResultCache
+ */
+public class ResultCache {
+	private final int maximumSize;
+	private final boolean softValues;
+	private final Map<Key, CachedResult> entries;
+	private long hitCount;
+	private long missCount;
+
+	/**
+	 * Create a new ResultCache, holding results strongly.
+	 * @param aMaximumSize maximum number of results kept in memory
+	 */
+	public ResultCache(int aMaximumSize) {
+		this(aMaximumSize, false);
+	}
+
+	/**
+	 * Create a new ResultCache.
+	 * @param aMaximumSize maximum number of results kept in memory
+	 * @param aSoftValues should results be held through soft references
+	 */
+	public ResultCache(int aMaximumSize, boolean aSoftValues) {
+		checkArgument(aMaximumSize > 0, "maximumSize must be positive");
+
+		maximumSize = aMaximumSize;
+		softValues = aSoftValues;
+		entries = new LinkedHashMap<Key, CachedResult>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, CachedResult> eldest) {
+				return size() > maximumSize;
+			}
+		};
+	}
+
+	/**
+	 * Get the result extracted from a given version of a Resource.
+	 * @param resource the Resource the result was read from
+	 * @param lastModified the current last-modified timestamp of the Resource
+	 * @param sheetName name of the excel sheet
+	 * @param mappingKey identifies the way rows were mapped
+	 * @return the cached result or <code>null</code> if none, stale or reclaimed
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized <T> List<T> get(Resource resource, long lastModified, String sheetName, Object mappingKey) {
+		Key key = new Key(resource, sheetName, mappingKey);
+
+		CachedResult entry = entries.get(key);
+		List<?> result = (null == entry) ? null : entry.getResult();
+		if ((null == result) || (entry.lastModified != lastModified)) {
+			if (null != entry) {
+				entries.remove(key);
+			}
+			missCount++;
+			return null;
+		}
+
+		hitCount++;
+		return (List<T>) result;
+	}
+
+	/**
+	 * Put the result extracted from a given version of a Resource.
+	 * Least recently used results are evicted once the maximum size is reached.
+	 * @param resource the Resource the result was read from
+	 * @param lastModified the last-modified timestamp of the Resource when it was read
+	 * @param sheetName name of the excel sheet
+	 * @param mappingKey identifies the way rows were mapped
+	 * @param result the immutable result
+	 */
+	public synchronized void put(Resource resource, long lastModified, String sheetName, Object mappingKey, List<?> result) {
+		entries.put(new Key(resource, sheetName, mappingKey), new CachedResult(lastModified, result, softValues));
+	}
+
+	/**
+	 * Remove all the results extracted from a Resource.
+	 */
+	public synchronized void evict(Resource resource) {
+		for (Iterator<Key> keys = entries.keySet().iterator(); keys.hasNext();) {
+			if (keys.next().resource.equals(resource)) {
+				keys.remove();
+			}
+		}
+	}
+
+	/**
+	 * Remove all cached results.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	public boolean isSoftValues() {
+		return softValues;
+	}
+
+	/**
+	 * Get the number of lookups that found a result.
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Get the number of lookups that found no result, or a stale or reclaimed one.
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	private static class Key {
+		final Resource resource;
+		final String sheetName;
+		final Object mappingKey;
+
+		Key(Resource aResource, String aSheetName, Object aMappingKey) {
+			resource = aResource;
+			sheetName = aSheetName;
+			mappingKey = aMappingKey;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+
+			Key other = (Key) obj;
+			return resource.equals(other.resource) && sheetName.equals(other.sheetName) && mappingKey.equals(other.mappingKey);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(resource, sheetName, mappingKey);
+		}
+	}
+
+	private static class CachedResult {
+		final long lastModified;
+		final List<?> result;
+		final SoftReference<List<?>> softResult;
+
+		CachedResult(long aLastModified, List<?> aResult, boolean softValue) {
+			lastModified = aLastModified;
+			result = softValue ? null : aResult;
+			softResult = softValue ? new SoftReference<List<?>>(aResult) : null;
+		}
+
+		List<?> getResult() {
+			return (null != softResult) ? softResult.get() : result;
+		}
+	}
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gageot.excel.core;
+
+import java.io.IOException;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+
+/**
+ * An interface used by ExcelTemplate to select rows before they are mapped.
+ * A filter should only look at the cells it needs: rejected rows are
+ * never mapped.
+ *
+ * @author David Gageot
+ * @see RowFilters
+ * @see ExcelTemplate#readList(String,RowMapper,RowFilter,int,int)
+ */
+public interface RowFilter {
+	/**
+	 * Should a row be mapped.
+	 * @param row the HSSFRow to test, never <code>null</code>
+	 * @param rowNum the number of the current row
+	 * @throws IOException if a IOException is encountered getting
+	 * column values (that is, there's no need to catch IOException)
+	 */
+	boolean accept(HSSFRow row, int rowNum) throws IOException;
+}
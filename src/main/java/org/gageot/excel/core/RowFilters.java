@@ -0,0 +1,128 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gageot.excel.core;
+
+import static com.google.common.base.Preconditions.*;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.ss.usermodel.Row;
+import org.springframework.dao.DataRetrievalFailureException;
+
+/**
+ * Common RowFilter implementations. Cell values are compared as they are
+ * mapped by StringCellMapper.
+ *
+ * @author David Gageot
+ * @see RowFilter
+ */
+public final class RowFilters {
+	private RowFilters() {
+		// Static utility class
+	}
+
+	/**
+	 * Accept rows whose cell in a given column has a given value.
+	 * @param columnNum the index of the column, starting at 0
+	 * @param value the expected value
+	 */
+	public static RowFilter columnEquals(final int columnNum, final String value) {
+		checkArgument(columnNum >= 0, "columnNum must be positive");
+		checkNotNull(value, "value must not be null");
+
+		return new RowFilter() {
+			private final StringCellMapper cellMapper = new StringCellMapper();
+
+			@Override
+			public boolean accept(HSSFRow row, int rowNum) throws IOException {
+				return value.equals(cellMapper.mapCell(row.getCell(columnNum, Row.RETURN_BLANK_AS_NULL), rowNum, columnNum));
+			}
+		};
+	}
+
+	/**
+	 * Accept rows whose cell in a given column has a given value.
+	 * The column is found, case-insensitively, in the first row of the sheet.
+	 * @param columnName the name of the column
+	 * @param value the expected value
+	 */
+	public static RowFilter columnEquals(String columnName, String value) {
+		checkNotNull(columnName, "columnName must not be null");
+		checkNotNull(value, "value must not be null");
+
+		return new NamedColumnEqualsRowFilter(columnName, value);
+	}
+
+	/**
+	 * RowFilter that resolves its column once per sheet. The last sheet is only
+	 * weakly referenced, so that a filter kept for later reads doesn't keep its
+	 * workbook in memory.
+	 */
+	private static class NamedColumnEqualsRowFilter implements RowFilter {
+		private final String columnName;
+		private final String value;
+		private final StringCellMapper cellMapper = new StringCellMapper();
+		private volatile ResolvedColumn resolvedColumn;
+
+		NamedColumnEqualsRowFilter(String aColumnName, String aValue) {
+			columnName = aColumnName;
+			value = aValue;
+		}
+
+		@Override
+		public boolean accept(HSSFRow row, int rowNum) throws IOException {
+			int columnNum = getColumnNum(row.getSheet());
+
+			return value.equals(cellMapper.mapCell(row.getCell(columnNum, Row.RETURN_BLANK_AS_NULL), rowNum, columnNum));
+		}
+
+		private int getColumnNum(HSSFSheet sheet) throws IOException {
+			ResolvedColumn column = resolvedColumn;
+			if ((null == column) || (column.sheet.get() != sheet)) {
+				column = new ResolvedColumn(sheet, findColumn(sheet));
+				resolvedColumn = column;
+			}
+			return column.columnNum;
+		}
+
+		private int findColumn(HSSFSheet sheet) throws IOException {
+			int headerRowNum = sheet.getFirstRowNum();
+
+			HSSFRow header = sheet.getRow(headerRowNum);
+			if (null != header) {
+				for (int columnNum = 0; columnNum < header.getLastCellNum(); columnNum++) {
+					String name = cellMapper.mapCell(header.getCell(columnNum, Row.RETURN_BLANK_AS_NULL), headerRowNum, columnNum);
+					if (columnName.equalsIgnoreCase(name)) {
+						return columnNum;
+					}
+				}
+			}
+
+			throw new DataRetrievalFailureException("Unknown column: " + columnName);
+		}
+	}
+
+	private static class ResolvedColumn {
+		final WeakReference<HSSFSheet> sheet;
+		final int columnNum;
+
+		ResolvedColumn(HSSFSheet aSheet, int aColumnNum) {
+			sheet = new WeakReference<HSSFSheet>(aSheet);
+			columnNum = aColumnNum;
+		}
+	}
+}
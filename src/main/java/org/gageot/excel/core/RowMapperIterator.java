@@ -0,0 +1,94 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gageot.excel.core;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+/**
+ * Lazy counterpart of RowMapperSheetExtractor: each row is given to the
+ * RowMapper only when the next object is pulled. Rows mapped to
+ * <code>null</code> are skipped.
+ *
+ * @author David Gageot
+ * @see RowMapperSheetExtractor
+ */
+class RowMapperIterator<T> implements CloseableIterator<T> {
+	private final RowMapper<T> rowMapper;
+	private final int lastRowIndex;
+	private HSSFSheet sheet;
+	private int rowIndex;
+	private T next;
+
+	RowMapperIterator(HSSFSheet aSheet, RowMapper<T> aRowMapper) {
+		sheet = aSheet;
+		rowMapper = aRowMapper;
+		rowIndex = aSheet.getFirstRowNum();
+		lastRowIndex = aSheet.getLastRowNum();
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (null == next) {
+			next = computeNext();
+		}
+		return null != next;
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+
+		T row = next;
+		next = null;
+		return row;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	private T computeNext() {
+		while ((null != sheet) && (rowIndex <= lastRowIndex)) {
+			int i = rowIndex++;
+
+			T row;
+			try {
+				row = rowMapper.mapRow(sheet.getRow(i), i);
+			} catch (IOException e) {
+				throw new DataAccessResourceFailureException("Problem reading file", e);
+			}
+
+			if (null != row) {
+				return row;
+			}
+		}
+
+		close();
+		return null;
+	}
+
+	@Override
+	public void close() {
+		sheet = null;
+		next = null;
+	}
+}
@@ -16,8 +16,10 @@
 
 package org.gageot.excel.core;
 
+import static com.google.common.base.Preconditions.*;
 import java.io.IOException;
 import java.util.List;
+import org.apache.poi.hssf.usermodel.HSSFRow;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import com.google.common.collect.Lists;
 
@@ -29,34 +31,69 @@ import com.google.common.collect.Lists;
  * <p>Useful for the typical case of one object per row in the Excel spreadsheet.
  * The number of entries in the results list will match the number of rows.
  *
+ * <p>Rows can be selected with a RowFilter, before they are mapped, and paged
+ * with an offset and a limit. Extraction stops as soon as the limit is reached.
+ *
  * <p>Note that a RowMapper object is typically stateless and thus reusable;
  * just the RowMapperResultSetExtractor adapter is stateful.
  *
  * @author David Gageot
  * @see RowMapper
+ * @see RowFilter
  */
 public class RowMapperSheetExtractor<T> implements SheetExtractor<List<T>> {
 	private final RowMapper<T> rowMapper;
+	private final RowFilter rowFilter;
+	private final int offset;
+	private final int limit;
 
 	/**
 	 * Create a new RowMapperSheetExtractor.
 	 * @param rowMapper the RowMapper which creates an object for each row
 	 */
 	public RowMapperSheetExtractor(RowMapper<T> rowMapper) {
+		this(rowMapper, null, 0, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Create a new RowMapperSheetExtractor that maps only some of the rows.
+	 * @param rowMapper the RowMapper which creates an object for each row
+	 * @param rowFilter the RowFilter which selects the rows to map, or
+	 * <code>null</code> to map all rows. Missing rows are never selected
+	 * @param offset the number of selected rows to skip, without mapping them
+	 * @param limit the maximum number of objects to extract
+	 */
+	public RowMapperSheetExtractor(RowMapper<T> rowMapper, RowFilter rowFilter, int offset, int limit) {
+		checkArgument(offset >= 0, "offset must be positive");
+		checkArgument(limit >= 0, "limit must be positive");
+
 		this.rowMapper = rowMapper;
+		this.rowFilter = rowFilter;
+		this.offset = offset;
+		this.limit = limit;
 	}
 
 	@Override
 	public List<T> extractData(HSSFSheet sheet) throws IOException {
 		List<T> rows = Lists.newArrayList();
 
+		int skipped = 0;
 		int firstRowIndex = sheet.getFirstRowNum();
 		int lastRowIndex = sheet.getLastRowNum();
 
-		for (int i = firstRowIndex; i <= lastRowIndex; i++) {
-			T row = rowMapper.mapRow(sheet.getRow(i), i);
-			if (null != row) {
-				rows.add(row);
+		for (int i = firstRowIndex; (i <= lastRowIndex) && (rows.size() < limit); i++) {
+			HSSFRow row = sheet.getRow(i);
+			if ((null != rowFilter) && ((null == row) || !rowFilter.accept(row, i))) {
+				continue;
+			}
+			if (skipped < offset) {
+				skipped++;
+				continue;
+			}
+
+			T mappedRow = rowMapper.mapRow(row, i);
+			if (null != mappedRow) {
+				rows.add(mappedRow);
 			}
 		}
 
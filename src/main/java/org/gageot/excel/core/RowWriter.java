@@ -0,0 +1,45 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import java.io.IOException;
+import org.apache.poi.ss.usermodel.Row;
+
+/**
+ * An interface used by ExcelTemplate for writing rows, the inverse of
+ * a RowMapper. Implementations of this interface perform the actual work
+ * of filling rows, but don't need to worry about exception handling.
+ * IOExceptions will be caught and handled correctly by the ExcelTemplate class.
+ *
+ * <p>The same RowWriter is used for .xls and .xlsx files, so it
+ * only sees the common Row interface.
+ *
+ * @author David Gageot
+ * @see ExcelTemplate#write(String,Iterable,RowWriter)
+ * @see RowMapper
+ */
+public interface RowWriter<T> {
+	/**
+	 * Implementations must implement this method to fill each row of data
+	 * in the Sheet, creating the cells it needs.
+	 * @param row the new, empty, Row to fill
+	 * @param value the value to write in the current row
+	 * @throws IOException if a IOException is encountered setting
+	 * column values (that is, there's no need to catch IOException)
+	 */
+	void writeRow(Row row, T value) throws IOException;
+}
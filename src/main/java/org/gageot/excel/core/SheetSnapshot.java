@@ -0,0 +1,574 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import static com.google.common.base.Preconditions.*;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.apache.poi.ss.usermodel.Cell;
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Decoded values of a sheet, stored in a compact columnar binary file and
+ * read back through a memory mapping of that file.
+ *
+ * <p>The file starts with a fixed size header: the stamp of the source file,
+ * the size of the sheet and the offset of the index. Rows are then stored by
+ * groups of consecutive rows. Each group gives its row numbers, then the cells
+ * of each column, one after the other. A blank cell takes a single byte, other
+ * cells only the size of their value. The index ends the file, with the
+ * position of each group and the dictionary of the strings and data formats.
+ *
+ * <p>This way, a group is written as soon as its rows are read, and only the
+ * header has to be patched once the whole sheet is written. The whole file is
+ * checked when it's mapped, so that a corrupted snapshot is never replayed.
+ *
+ * @author David Gageot
+ * @see SnapshotStore
+ */
+final class SheetSnapshot {
+	private static final int MAGIC = 0x58534e50;
+	private static final int VERSION = 3;
+	private static final int SOURCE_LAST_MODIFIED_OFFSET = 8;
+	private static final int SOURCE_CHECKSUM_OFFSET = 24;
+	private static final int HEADER_SIZE = 45;
+
+	/** Number of rows kept in memory, then written together */
+	private static final int GROUP_SIZE = 1024;
+
+	private static final byte BLANK = 0;
+	private static final byte NUMERIC = Cell.CELL_TYPE_NUMERIC + 1;
+	private static final byte STRING = Cell.CELL_TYPE_STRING + 1;
+	private static final byte BOOLEAN = Cell.CELL_TYPE_BOOLEAN + 1;
+	private static final byte ERROR = Cell.CELL_TYPE_ERROR + 1;
+	private static final byte FORMULA = (byte) 0x80;
+	private static final byte TYPE_MASK = 0x7f;
+
+	private final ByteBuffer buffer;
+	private final long sourceLastModified;
+	private final long sourceLength;
+	private final long sourceChecksum;
+	private final boolean date1904;
+	private final int rowCount;
+	private final int columnCount;
+	private final int[] groupOffsets;
+	private final int[] groupRowCounts;
+	private final int[] groupColumnCounts;
+	private final int[] stringOffsets;
+	private final String[] strings;
+	private final short[] dataFormats;
+	private final int[] dataFormatStrings;
+
+	private SheetSnapshot(ByteBuffer aBuffer) {
+		buffer = aBuffer;
+
+		checkArgument((MAGIC == buffer.getInt()) && (VERSION == buffer.getInt()), "Not a snapshot");
+		sourceLastModified = buffer.getLong();
+		sourceLength = buffer.getLong();
+		sourceChecksum = buffer.getLong();
+		date1904 = 0 != buffer.get();
+		rowCount = buffer.getInt();
+		columnCount = buffer.getInt();
+		int indexOffset = buffer.getInt();
+		checkArgument((rowCount >= 0) && (columnCount >= 0), "Corrupted snapshot");
+		checkArgument((indexOffset >= HEADER_SIZE) && (indexOffset <= buffer.limit()), "Corrupted snapshot");
+
+		buffer.position(indexOffset);
+		int groupCount = count(12);
+		groupOffsets = new int[groupCount];
+		groupRowCounts = new int[groupCount];
+		groupColumnCounts = new int[groupCount];
+		for (int group = 0; group < groupCount; group++) {
+			groupOffsets[group] = buffer.getInt();
+			groupRowCounts[group] = buffer.getInt();
+			groupColumnCounts[group] = buffer.getInt();
+		}
+
+		int stringCount = count(4);
+		stringOffsets = new int[stringCount];
+		strings = new String[stringCount];
+		for (int i = 0; i < stringCount; i++) {
+			int length = buffer.getInt();
+			checkArgument((length >= 0) && (length <= buffer.remaining()), "Corrupted snapshot");
+			stringOffsets[i] = buffer.position();
+			buffer.position(buffer.position() + length);
+		}
+
+		int formatCount = count(6);
+		dataFormats = new short[formatCount];
+		dataFormatStrings = new int[formatCount];
+		for (int i = 0; i < formatCount; i++) {
+			dataFormats[i] = buffer.getShort();
+			dataFormatStrings[i] = checkIndex(buffer.getInt(), -1, stringCount);
+		}
+
+		checkArgument(buffer.position() == buffer.limit(), "Truncated snapshot");
+
+		int offset = HEADER_SIZE;
+		long rows = 0;
+		int columns = 0;
+		for (int group = 0; group < groupCount; group++) {
+			checkArgument(groupOffsets[group] == offset, "Corrupted snapshot");
+			offset = checkGroup(group, indexOffset);
+			rows += groupRowCounts[group];
+			columns = Math.max(columns, groupColumnCounts[group]);
+		}
+		checkArgument((offset == indexOffset) && (rows == rowCount) && (columns == columnCount), "Corrupted snapshot");
+	}
+
+	/**
+	 * Read a number of items, and check that the buffer is large enough for them.
+	 */
+	private int count(int itemSize) {
+		int count = buffer.getInt();
+		checkArgument((count >= 0) && (count <= (buffer.remaining() / itemSize)), "Corrupted snapshot");
+		return count;
+	}
+
+	private static int checkIndex(int index, int min, int max) {
+		checkArgument((index >= min) && (index < max), "Corrupted snapshot");
+		return index;
+	}
+
+	/**
+	 * Check every cell of a group, so that it can be replayed safely.
+	 * @return the offset of the end of the group
+	 */
+	private int checkGroup(int group, int limit) {
+		int offset = groupOffsets[group];
+		int groupRowCount = groupRowCounts[group];
+		int groupColumnCount = groupColumnCounts[group];
+		checkArgument((groupRowCount > 0) && (groupColumnCount > 0) && (groupColumnCount <= columnCount), "Corrupted snapshot");
+
+		// Each cell takes at least one byte
+		long cellsOffset = offset + (4L * groupRowCount) + (4L * groupColumnCount);
+		checkArgument(cellsOffset + ((long) groupRowCount * groupColumnCount) <= limit, "Corrupted snapshot");
+
+		int position = (int) cellsOffset;
+		for (int column = 0; column < groupColumnCount; column++) {
+			int length = buffer.getInt(offset + (4 * groupRowCount) + (4 * column));
+			checkArgument((length >= groupRowCount) && (length <= (limit - position)), "Corrupted snapshot");
+
+			int end = position + length;
+			for (int row = 0; row < groupRowCount; row++) {
+				checkArgument(position < end, "Corrupted snapshot");
+				int size = cellSize(buffer.get(position));
+				checkArgument((size > 0) && (size <= (end - position)), "Corrupted snapshot");
+				checkCell(position);
+				position += size;
+			}
+			checkArgument(position == end, "Corrupted snapshot");
+		}
+		return position;
+	}
+
+	private void checkCell(int offset) {
+		switch (buffer.get(offset) & TYPE_MASK) {
+			case NUMERIC:
+				checkIndex(buffer.getShort(offset + 1), 0, dataFormats.length);
+				break;
+			case STRING:
+				checkIndex(buffer.getShort(offset + 1), 0, dataFormats.length);
+				checkIndex(buffer.getInt(offset + 3), 0, strings.length);
+				break;
+			default:
+				break;
+		}
+	}
+
+	/**
+	 * @return the size of a cell of a given type, or <code>-1</code> if the type is unknown
+	 */
+	private static int cellSize(byte type) {
+		if (BLANK == type) {
+			return 1;
+		}
+
+		switch (type & TYPE_MASK) {
+			case NUMERIC:
+				return 1 + 2 + 8;
+			case STRING:
+				return 1 + 2 + 4;
+			case BOOLEAN:
+			case ERROR:
+				return 1 + 1;
+			default:
+				return -1;
+		}
+	}
+
+	/**
+	 * Map a snapshot file in memory.
+	 * @return the snapshot, or <code>null</code> if the file is not a valid snapshot
+	 */
+	static SheetSnapshot map(File file) throws IOException {
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			if (in.length() > Integer.MAX_VALUE) {
+				return null;
+			}
+
+			return new SheetSnapshot(in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, in.length()));
+		} catch (RuntimeException e) {
+			return null; // Whatever the corruption
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Writes the values of a sheet to a snapshot file, one group of rows at a
+	 * time. Only the current group and the dictionary are kept in memory.
+	 */
+	static class Writer {
+		private final File file;
+		private final DataOutputStream out;
+		private final List<String> strings;
+		private final Map<String, Integer> stringIndexes;
+		private final List<EventCell> formats;
+		private final Map<List<Object>, Integer> formatIndexes;
+		private final EventCell[][] groupRows;
+		private final int[] groupRowNums;
+		private int groupSize;
+		private int groupColumnCount;
+		private int[] groups;
+		private int groupCount;
+		private int rowCount;
+		private int columnCount;
+		private boolean date1904;
+
+		Writer(File aFile, long sourceLastModified, long sourceLength) throws IOException {
+			file = aFile;
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(aFile)));
+			strings = Lists.newArrayList();
+			stringIndexes = Maps.newHashMap();
+			formats = Lists.newArrayList();
+			formatIndexes = Maps.newHashMap();
+			groupRows = new EventCell[GROUP_SIZE][];
+			groupRowNums = new int[GROUP_SIZE];
+			groups = new int[3 * 16];
+
+			// The rest of the header is written by finish()
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(sourceLastModified);
+			out.writeLong(sourceLength);
+			out.write(new byte[HEADER_SIZE - out.size()]);
+		}
+
+		/**
+		 * Add a non empty row, written with the next rows of its group.
+		 */
+		void addRow(EventCell[] cells, int rowNum) throws IOException {
+			groupRows[groupSize] = cells.clone();
+			groupRowNums[groupSize] = rowNum;
+			groupSize++;
+			groupColumnCount = Math.max(groupColumnCount, cells.length);
+
+			if (GROUP_SIZE == groupSize) {
+				writeGroup();
+			}
+		}
+
+		private void writeGroup() throws IOException {
+			long size = (4L * groupSize) + (4L * groupColumnCount);
+			int[] lengths = new int[groupColumnCount];
+			for (int column = 0; column < groupColumnCount; column++) {
+				for (int row = 0; row < groupSize; row++) {
+					lengths[column] += cellSize(typeOf(cellAt(groupRows[row], column)));
+				}
+				size += lengths[column];
+			}
+			if ((out.size() + size) >= Integer.MAX_VALUE) {
+				throw new IOException("Sheet too large for a snapshot");
+			}
+
+			if (groups.length == (3 * groupCount)) {
+				groups = Arrays.copyOf(groups, groups.length * 2);
+			}
+			groups[3 * groupCount] = out.size();
+			groups[(3 * groupCount) + 1] = groupSize;
+			groups[(3 * groupCount) + 2] = groupColumnCount;
+			groupCount++;
+
+			for (int row = 0; row < groupSize; row++) {
+				out.writeInt(groupRowNums[row]);
+			}
+			for (int length : lengths) {
+				out.writeInt(length);
+			}
+			for (int column = 0; column < groupColumnCount; column++) {
+				for (int row = 0; row < groupSize; row++) {
+					writeCell(cellAt(groupRows[row], column));
+				}
+			}
+
+			rowCount += groupSize;
+			columnCount = Math.max(columnCount, groupColumnCount);
+			Arrays.fill(groupRows, 0, groupSize, null);
+			groupSize = 0;
+			groupColumnCount = 0;
+		}
+
+		private void writeCell(EventCell cell) throws IOException {
+			byte type = typeOf(cell);
+			out.writeByte(type);
+
+			switch (type & TYPE_MASK) {
+				case NUMERIC:
+					date1904 |= cell.isDate1904();
+					out.writeShort(formatOf(cell));
+					out.writeDouble(cell.getNumericCellValue());
+					break;
+				case STRING:
+					out.writeShort(formatOf(cell));
+					out.writeInt(index(cell.getStringCellValue()));
+					break;
+				case BOOLEAN:
+					out.writeBoolean(cell.getBooleanCellValue());
+					break;
+				case ERROR:
+					out.writeByte(cell.getErrorCellValue());
+					break;
+				default:
+					break;
+			}
+		}
+
+		/**
+		 * Write the last group and the index, then complete the header.
+		 * @param sourceChecksum the checksum of the source file
+		 */
+		void finish(long sourceChecksum) throws IOException {
+			if (groupSize > 0) {
+				writeGroup();
+			}
+
+			int indexOffset = out.size();
+
+			out.writeInt(groupCount);
+			for (int i = 0; i < (3 * groupCount); i++) {
+				out.writeInt(groups[i]);
+			}
+
+			out.writeInt(strings.size());
+			for (String string : strings) {
+				byte[] bytes = string.getBytes(Charsets.UTF_8);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+
+			out.writeInt(formats.size());
+			for (EventCell format : formats) {
+				out.writeShort(format.getDataFormat());
+				out.writeInt(indexOf(format.getDataFormatString()));
+			}
+			out.close();
+
+			RandomAccessFile header = new RandomAccessFile(file, "rw");
+			try {
+				header.seek(SOURCE_CHECKSUM_OFFSET);
+				header.writeLong(sourceChecksum);
+				header.writeBoolean(date1904);
+				header.writeInt(rowCount);
+				header.writeInt(columnCount);
+				header.writeInt(indexOffset);
+			} finally {
+				header.close();
+			}
+		}
+
+		/**
+		 * Close the file, even if it's not finished.
+		 */
+		void close() throws IOException {
+			out.close();
+		}
+
+		private short formatOf(EventCell cell) throws IOException {
+			List<Object> format = Arrays.<Object> asList(cell.getDataFormat(), cell.getDataFormatString());
+			Integer index = formatIndexes.get(format);
+			if (null == index) {
+				if (formats.size() == Short.MAX_VALUE) {
+					throw new IOException("Too many data formats for a snapshot");
+				}
+
+				index = formats.size();
+				formatIndexes.put(format, index);
+				formats.add(cell);
+				index(cell.getDataFormatString());
+			}
+			return index.shortValue();
+		}
+
+		private int index(String string) {
+			if (null == string) {
+				return -1;
+			}
+
+			Integer index = stringIndexes.get(string);
+			if (null == index) {
+				index = strings.size();
+				stringIndexes.put(string, index);
+				strings.add(string);
+			}
+			return index;
+		}
+
+		private int indexOf(String string) {
+			return (null == string) ? -1 : stringIndexes.get(string);
+		}
+
+		private static EventCell cellAt(EventCell[] cells, int column) {
+			return (column < cells.length) ? cells[column] : null;
+		}
+	}
+
+	/**
+	 * Update the last modification time of the source file,
+	 * once its content is known to be unchanged.
+	 */
+	static void updateSourceLastModified(File file, long sourceLastModified) throws IOException {
+		RandomAccessFile out = new RandomAccessFile(file, "rw");
+		try {
+			out.seek(SOURCE_LAST_MODIFIED_OFFSET);
+			out.writeLong(sourceLastModified);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static byte typeOf(EventCell cell) {
+		if (null == cell) {
+			return BLANK;
+		}
+
+		byte type = (byte) (cell.getCellType() + 1);
+		return cell.isFormula() ? (byte) (type | FORMULA) : type;
+	}
+
+	long getSourceLastModified() {
+		return sourceLastModified;
+	}
+
+	long getSourceLength() {
+		return sourceLength;
+	}
+
+	long getSourceChecksum() {
+		return sourceChecksum;
+	}
+
+	/**
+	 * Push the rows to a handler, the same way the streaming readers do.
+	 * Cells excluded by a ColumnFilter handler are not decoded.
+	 */
+	void replay(EventRowCallbackHandler rowCallbackHandler) throws IOException {
+		ColumnFilter columnFilter = (rowCallbackHandler instanceof ColumnFilter) ? (ColumnFilter) rowCallbackHandler : null;
+
+		EventCell[] currentRow = new EventCell[columnCount];
+		for (int group = 0; group < groupOffsets.length; group++) {
+			int offset = groupOffsets[group];
+			int groupRowCount = groupRowCounts[group];
+			int groupColumnCount = groupColumnCounts[group];
+
+			// Position of the next cell of each column
+			int[] positions = new int[groupColumnCount];
+			int position = offset + (4 * groupRowCount) + (4 * groupColumnCount);
+			for (int column = 0; column < groupColumnCount; column++) {
+				positions[column] = position;
+				position += buffer.getInt(offset + (4 * groupRowCount) + (4 * column));
+			}
+
+			for (int row = 0; row < groupRowCount; row++) {
+				int rowNum = buffer.getInt(offset + (4 * row));
+
+				int currentRowSize = 0;
+				for (int column = 0; column < groupColumnCount; column++) {
+					byte type = buffer.get(positions[column]);
+					if ((BLANK != type) && ((null == columnFilter) || columnFilter.isColumnIncluded(rowNum, column))) {
+						currentRow[column] = getCell(positions[column]);
+						currentRowSize = column + 1;
+					}
+					positions[column] += cellSize(type);
+				}
+				if (0 == currentRowSize) {
+					continue;
+				}
+
+				EventCell[] cells = Arrays.copyOf(currentRow, currentRowSize);
+				Arrays.fill(currentRow, 0, currentRowSize, null);
+
+				rowCallbackHandler.processRow(cells, rowNum);
+			}
+		}
+	}
+
+	/**
+	 * Decode a non blank cell.
+	 */
+	private EventCell getCell(int offset) {
+		byte type = buffer.get(offset);
+		boolean formula = 0 != (type & FORMULA);
+
+		switch (type & TYPE_MASK) {
+			case NUMERIC:
+				int numericFormat = buffer.getShort(offset + 1);
+				return EventCell.numeric(buffer.getDouble(offset + 3), dataFormats[numericFormat], getString(dataFormatStrings[numericFormat]), date1904, formula);
+			case STRING:
+				int stringFormat = buffer.getShort(offset + 1);
+				return EventCell.string(getString(buffer.getInt(offset + 3)), dataFormats[stringFormat], getString(dataFormatStrings[stringFormat]), formula);
+			case BOOLEAN:
+				return EventCell.bool(0 != buffer.get(offset + 1), formula);
+			default:
+				return EventCell.error(buffer.get(offset + 1), formula);
+		}
+	}
+
+	/**
+	 * Decode a string of the dictionary, only once. Each string is decoded
+	 * into a single instance, shared by all the cells.
+	 */
+	private String getString(int index) {
+		if (index < 0) {
+			return null;
+		}
+
+		String string = strings[index];
+		if (null == string) {
+			ByteBuffer bytes = buffer.duplicate();
+			bytes.position(stringOffsets[index] - 4);
+			byte[] value = new byte[bytes.getInt()];
+			bytes.get(value);
+
+			string = new String(value, Charsets.UTF_8);
+			strings[index] = string;
+		}
+		return string;
+	}
+}
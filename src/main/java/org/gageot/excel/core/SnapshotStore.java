@@ -0,0 +1,272 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import static com.google.common.base.Preconditions.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+/**
+ * Stores the decoded values of sheets on disk, so that a sheet can be read
+ * again, even by another process, without being parsed. Snapshots are
+ * written next to their source file, or in a given directory.
+ *
+ * <p>Each snapshot remembers the length, last-modified timestamp and checksum
+ * of its source file. It's used only while the source file has the same length
+ * and the same checksum, so the checksum is computed each time a snapshot is
+ * opened. Otherwise, it's written again by the next read.
+ *
+ * <p>Only sheets of file Resources have snapshots. This class is thread-safe,
+ * and can be shared between templates.
+ *
+ * @author David Gageot
+ * @see ExcelTemplate#setSnapshotStore
+ */
+public class SnapshotStore {
+	private static final String SUFFIX = ".snapshot";
+
+	private final File directory;
+
+	/**
+	 * Create a new SnapshotStore, that writes snapshots next to their source file.
+	 */
+	public SnapshotStore() {
+		directory = null;
+	}
+
+	/**
+	 * Create a new SnapshotStore, that writes snapshots in a given directory.
+	 * @param aDirectory the directory, created if it doesn't exist
+	 */
+	public SnapshotStore(File aDirectory) {
+		directory = checkNotNull(aDirectory, "directory must not be null");
+	}
+
+	/**
+	 * Get the snapshot file of a sheet.
+	 * @param source the Excel file
+	 * @param sheetName name of the excel sheet
+	 */
+	public File getSnapshotFile(File source, String sheetName) {
+		checkNotNull(source, "source must not be null");
+		checkNotNull(sheetName, "sheetName must not be null");
+
+		return new File(getDirectory(source), prefix(source) + hash(sheetName) + SUFFIX);
+	}
+
+	/**
+	 * Delete the snapshots of every sheet of a file.
+	 * @param source the Excel file
+	 */
+	public void evict(File source) {
+		checkNotNull(source, "source must not be null");
+
+		File[] files = getDirectory(source).listFiles();
+		if (null == files) {
+			return;
+		}
+
+		String prefix = prefix(source);
+		for (File file : files) {
+			if (file.getName().startsWith(prefix) && file.getName().endsWith(SUFFIX)) {
+				file.delete();
+			}
+		}
+	}
+
+	/**
+	 * Open the snapshot of a sheet, if it's up to date.
+	 * @return the snapshot, or <code>null</code> if it's missing or stale
+	 */
+	SheetSnapshot open(File source, String sheetName) throws IOException {
+		File snapshotFile = getSnapshotFile(source, sheetName);
+		if (!snapshotFile.isFile()) {
+			return null;
+		}
+
+		SheetSnapshot snapshot = SheetSnapshot.map(snapshotFile);
+		if ((null == snapshot) || (snapshot.getSourceLength() != source.length())) {
+			return null;
+		}
+
+		// The timestamp alone can't tell a content change
+		if (snapshot.getSourceChecksum() != checksum(source)) {
+			return null;
+		}
+
+		long lastModified = source.lastModified();
+		if (snapshot.getSourceLastModified() != lastModified) {
+			SheetSnapshot.updateSourceLastModified(snapshotFile, lastModified);
+		}
+
+		return snapshot;
+	}
+
+	/**
+	 * Start recording the rows of a sheet streamed from its source file.
+	 * @param rowCallbackHandler the handler the rows are given to
+	 */
+	Recorder record(File source, String sheetName, EventRowCallbackHandler rowCallbackHandler) {
+		return new Recorder(source, getSnapshotFile(source, sheetName), rowCallbackHandler);
+	}
+
+	private File getDirectory(File source) {
+		return (null != directory) ? directory : source.getAbsoluteFile().getParentFile();
+	}
+
+	/**
+	 * Snapshots of files with the same name in different
+	 * directories mustn't collide in a shared directory.
+	 */
+	private static String prefix(File source) {
+		return source.getName() + '-' + hash(source.getAbsolutePath()) + '-';
+	}
+
+	private static String hash(String value) {
+		CRC32 crc = new CRC32();
+		crc.update(value.getBytes(Charsets.UTF_8));
+		return String.format("%08x", crc.getValue());
+	}
+
+	private static long checksum(File source) throws IOException {
+		return Files.getChecksum(source, new CRC32());
+	}
+
+	/**
+	 * Records all the rows of a sheet while they're given to a handler,
+	 * then writes them as a snapshot. The source file is stamped before
+	 * it's read, so that a change during the read makes the snapshot stale.
+	 *
+	 * <p>Rows are written to a temporary file as soon as they're read, so
+	 * the sheet is never held in memory. The checksum of the source is only
+	 * computed once the whole sheet is read. A failure to write the snapshot
+	 * doesn't prevent the rows from being given to the handler.
+	 *
+	 * <p>The source is read without any ColumnFilter, but the handler still
+	 * only receives the cells it asked for.
+	 */
+	static class Recorder implements EventRowCallbackHandler {
+		private final File source;
+		private final File snapshotFile;
+		private final long sourceLastModified;
+		private final long sourceLength;
+		private final EventRowCallbackHandler rowCallbackHandler;
+		private final ColumnFilter columnFilter;
+		private File temporaryFile;
+		private SheetSnapshot.Writer writer;
+		private IOException failure;
+
+		Recorder(File aSource, File aSnapshotFile, EventRowCallbackHandler aRowCallbackHandler) {
+			source = aSource;
+			snapshotFile = aSnapshotFile;
+			sourceLastModified = aSource.lastModified();
+			sourceLength = aSource.length();
+			rowCallbackHandler = aRowCallbackHandler;
+			columnFilter = (aRowCallbackHandler instanceof ColumnFilter) ? (ColumnFilter) aRowCallbackHandler : null;
+
+			try {
+				File directory = snapshotFile.getParentFile();
+				if (!directory.isDirectory() && !directory.mkdirs()) {
+					throw new IOException("Unable to create directory " + directory);
+				}
+
+				temporaryFile = File.createTempFile(snapshotFile.getName(), ".tmp", directory);
+				writer = new SheetSnapshot.Writer(temporaryFile, sourceLastModified, sourceLength);
+			} catch (IOException e) {
+				fail(e);
+			}
+		}
+
+		@Override
+		public void processRow(EventCell[] cells, int rowNum) throws IOException {
+			if (null != writer) {
+				try {
+					writer.addRow(cells, rowNum);
+				} catch (IOException e) {
+					fail(e);
+				}
+			}
+
+			if (null == columnFilter) {
+				rowCallbackHandler.processRow(cells, rowNum);
+				return;
+			}
+
+			EventCell[] included = new EventCell[cells.length];
+			int includedSize = 0;
+			for (int column = 0; column < cells.length; column++) {
+				if ((null != cells[column]) && columnFilter.isColumnIncluded(rowNum, column)) {
+					included[column] = cells[column];
+					includedSize = column + 1;
+				}
+			}
+			if (0 != includedSize) {
+				rowCallbackHandler.processRow(Arrays.copyOf(included, includedSize), rowNum);
+			}
+		}
+
+		/**
+		 * Complete the snapshot once all the rows are recorded. It's written to a
+		 * temporary file first, so that concurrent readers never see it half written.
+		 */
+		void write() throws IOException {
+			if (null != failure) {
+				throw failure;
+			}
+			if ((source.length() != sourceLength) || (source.lastModified() != sourceLastModified)) {
+				return; // Changed during the read, the snapshot would be stale
+			}
+
+			writer.finish(checksum(source));
+			writer = null;
+
+			if (!temporaryFile.renameTo(snapshotFile) && !(snapshotFile.delete() && temporaryFile.renameTo(snapshotFile))) {
+				throw new IOException("Unable to write snapshot " + snapshotFile);
+			}
+		}
+
+		/**
+		 * Delete what's left of the temporary file, whether the snapshot
+		 * was written or not.
+		 */
+		void discard() {
+			fail(null);
+		}
+
+		private void fail(IOException e) {
+			if (null == failure) {
+				failure = e;
+			}
+
+			if (null != writer) {
+				try {
+					writer.close();
+				} catch (IOException ignored) {
+					// Deleted anyway
+				}
+				writer = null;
+			}
+			if (null != temporaryFile) {
+				temporaryFile.delete();
+			}
+		}
+	}
+}
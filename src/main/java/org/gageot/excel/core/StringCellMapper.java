@@ -18,21 +18,54 @@ package org.gageot.excel.core;
 
 import java.io.IOException;
 import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Map;
 import org.apache.poi.hssf.usermodel.HSSFCell;
+import org.apache.poi.hssf.usermodel.HSSFCellStyle;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DateUtil;
+import com.google.common.base.Function;
+import com.google.common.collect.MapMaker;
 
 /**
  * CellMapper implementation that creates a <code>java.lang.String</code>
- * for each cell.
+ * for each cell. The same conversion rules apply to cells read by the
+ * streaming methods. Numbers are read as dates only with a built-in date
+ * format, or with the date format of OpenOffice.
+ *
+ * <p>An instance of this class is thread-safe and can be shared.
+ * Whether a cell style formats numbers as text, as dates or as plain
+ * numbers is decided once per style, not once per cell, and remembered
+ * for as long as the workbook is in use.
  *
  * @author David Gageot
  */
-public class StringCellMapper implements CellMapper<String> {
+public class StringCellMapper implements CellMapper<String>, EventCellMapper<String> {
 	private static final int TEXT_CELL_FORMAT = 49;
 	private static final int OPENOFFICE_TEXT_CELL_FORMAT = 165;
 	private static final int OPENOFFICE_DATE_CELL_FORMAT = 167;
 
-	private SimpleDateFormat dateFormat;
+	private static final byte NUMBER_FORMAT = 0;
+	private static final byte TEXT_FORMAT = 1;
+	private static final byte DATE_FORMAT = 2;
+
+	private static final byte[] BUILTIN_FORMATS = classifyBuiltinFormats();
+
+	private static final ThreadLocal<SimpleDateFormat> DATE_FORMATTER = new ThreadLocal<SimpleDateFormat>() {
+		@Override
+		protected SimpleDateFormat initialValue() {
+			return new SimpleDateFormat("dd/MM/yyyy");
+		}
+	};
+
+	private static final Map<HSSFWorkbook, StyleFormats> STYLE_FORMATS = new MapMaker().weakKeys().makeComputingMap(new Function<HSSFWorkbook, StyleFormats>() {
+		@Override
+		public StyleFormats apply(HSSFWorkbook workbook) {
+			return new StyleFormats(workbook);
+		}
+	});
 
 	@Override
 	public String mapCell(HSSFCell cell, int rowNum, int columnNum) throws IOException {
@@ -48,7 +81,7 @@ public class StringCellMapper implements CellMapper<String> {
 			case Cell.CELL_TYPE_BOOLEAN:
 				return booleanToString(cell);
 			case Cell.CELL_TYPE_NUMERIC:
-				return numericToString(cell);
+				return numericToString(cell, getFormat(cell));
 			case Cell.CELL_TYPE_FORMULA:
 				return formulaToString(cell);
 			case Cell.CELL_TYPE_STRING:
@@ -57,34 +90,101 @@ public class StringCellMapper implements CellMapper<String> {
 		}
 	}
 
+	@Override
+	public String mapCell(EventCell cell, int rowNum, int columnNum) throws IOException {
+		if (null == cell) {
+			return "";
+		}
+
+		switch (cell.getCellType()) {
+			case Cell.CELL_TYPE_ERROR:
+				return "Error<" + cell.getErrorCellValue() + ">";
+			case Cell.CELL_TYPE_BOOLEAN:
+				return booleanToString(cell.getBooleanCellValue());
+			case Cell.CELL_TYPE_NUMERIC:
+				return numericToString(cell);
+			case Cell.CELL_TYPE_STRING:
+			default:
+				return cell.getStringCellValue();
+		}
+	}
+
+	/**
+	 * Is a cell mapped to the plain <code>Double.toString</code> of its
+	 * numeric value, rather than to a date, a text or a non numeric value.
+	 */
+	boolean isPlainNumber(HSSFCell cell) {
+		if (null == cell) {
+			return false;
+		}
+
+		int cellType = cell.getCellType();
+		if (Cell.CELL_TYPE_FORMULA == cellType) {
+			cellType = cell.getCachedFormulaResultType();
+		}
+
+		return (Cell.CELL_TYPE_NUMERIC == cellType) && !Double.isNaN(cell.getNumericCellValue()) && (NUMBER_FORMAT == getFormat(cell));
+	}
+
+	/**
+	 * Is a streamed cell mapped to the plain <code>Double.toString</code> of its
+	 * numeric value, rather than to a date, a text or a non numeric value.
+	 */
+	boolean isPlainNumber(EventCell cell) {
+		return (null != cell) && (Cell.CELL_TYPE_NUMERIC == cell.getCellType()) && !Double.isNaN(cell.getNumericCellValue()) && (NUMBER_FORMAT == classify(cell.getDataFormat()));
+	}
+
 	private String booleanToString(HSSFCell cell) {
-		return cell.getBooleanCellValue() ? "VRAI" : "FAUX";
+		return booleanToString(cell.getBooleanCellValue());
+	}
+
+	private static String booleanToString(boolean value) {
+		return value ? "VRAI" : "FAUX";
 	}
 
 	private String richTextToString(HSSFCell cell) {
 		return cell.getStringCellValue();
 	}
 
-	private String numericToString(HSSFCell cell) {
+	private String numericToString(HSSFCell cell, byte format) {
 		double numericValue = cell.getNumericCellValue();
 
 		if (Double.isNaN(numericValue)) {
 			return "";
 		}
 
-		if (isDateFormat(cell)) {
-			if (null == dateFormat) {
-				dateFormat = new SimpleDateFormat("dd/MM/yyyy");
-			}
+		if (DATE_FORMAT == format) {
+			return dateToString(cell.getDateCellValue());
+		}
+
+		return numberToString(numericValue, format);
+	}
+
+	private String numericToString(EventCell cell) {
+		double numericValue = cell.getNumericCellValue();
+
+		if (Double.isNaN(numericValue)) {
+			return "";
+		}
 
-			return dateFormat.format(cell.getDateCellValue());
+		byte format = classify(cell.getDataFormat());
+		if (DATE_FORMAT == format) {
+			return dateToString(cell.getDateCellValue());
 		}
 
+		return numberToString(numericValue, format);
+	}
+
+	private static String dateToString(Date date) {
+		return DATE_FORMATTER.get().format(date);
+	}
+
+	private static String numberToString(double numericValue, byte format) {
 		// For text cells, Excel still tries to converts the content into
 		// numerical value. For integer content, we want to convert
 		// into a String value without fraction.
 		//
-		if (isTextFormat(cell) && (((long) numericValue) == numericValue)) {
+		if ((TEXT_FORMAT == format) && (((long) numericValue) == numericValue)) {
 			return Long.toString((long) numericValue);
 		}
 
@@ -92,22 +192,75 @@ public class StringCellMapper implements CellMapper<String> {
 	}
 
 	private String formulaToString(HSSFCell cell) {
-		if (isTextFormat(cell)) {
+		byte format = getFormat(cell);
+		if (TEXT_FORMAT == format) {
 			return richTextToString(cell);
 		}
 
-		return numericToString(cell);
+		return numericToString(cell, format);
+	}
+
+	/**
+	 * Get the classification of a cell's style, from a table built once per workbook.
+	 */
+	private byte getFormat(HSSFCell cell) {
+		HSSFWorkbook workbook = cell.getSheet().getWorkbook();
+		short styleIndex = cell.getCellStyle().getIndex();
+
+		StyleFormats formats = STYLE_FORMATS.get(workbook);
+		if (styleIndex >= formats.formats.length) { // A style was added since
+			STYLE_FORMATS.remove(workbook);
+			formats = STYLE_FORMATS.get(workbook);
+		}
+
+		return formats.formats[styleIndex];
+	}
+
+	private static byte classify(short cellFormat) {
+		if ((cellFormat >= 0) && (cellFormat < BUILTIN_FORMATS.length)) {
+			return BUILTIN_FORMATS[cellFormat];
+		}
+		if (OPENOFFICE_TEXT_CELL_FORMAT == cellFormat) {
+			return TEXT_FORMAT;
+		}
+		if (OPENOFFICE_DATE_CELL_FORMAT == cellFormat) {
+			return DATE_FORMAT;
+		}
+
+		// Other user-defined formats are mapped as numbers, whatever their format string
+		return NUMBER_FORMAT;
 	}
 
-	private static boolean isTextFormat(HSSFCell cell) {
-		short cellFormat = cell.getCellStyle().getDataFormat();
+	private static byte[] classifyBuiltinFormats() {
+		byte[] formats = new byte[BuiltinFormats.FIRST_USER_DEFINED_FORMAT_INDEX];
+
+		for (int i = 0; i < formats.length; i++) {
+			if (TEXT_CELL_FORMAT == i) {
+				formats[i] = TEXT_FORMAT;
+			} else if (DateUtil.isInternalDateFormat(i)) {
+				formats[i] = DATE_FORMAT;
+			} else {
+				formats[i] = NUMBER_FORMAT;
+			}
+		}
 
-		return ((TEXT_CELL_FORMAT == cellFormat) || (OPENOFFICE_TEXT_CELL_FORMAT == cellFormat));
+		return formats;
 	}
 
-	private static boolean isDateFormat(HSSFCell cell) {
-		short cellFormat = cell.getCellStyle().getDataFormat();
+	/**
+	 * Immutable classification of every cell style of a workbook.
+	 * It must not reference the workbook, which is a weak key.
+	 */
+	private static class StyleFormats {
+		final byte[] formats;
+
+		StyleFormats(HSSFWorkbook aWorkbook) {
+			formats = new byte[aWorkbook.getNumCellStyles()];
 
-		return (OPENOFFICE_DATE_CELL_FORMAT == cellFormat);
+			for (short i = 0; i < formats.length; i++) {
+				HSSFCellStyle style = aWorkbook.getCellStyleAt(i);
+				formats[i] = classify(style.getDataFormat());
+			}
+		}
 	}
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import java.util.BitSet;
+
+/**
+ * Column of strings, dictionary encoded: each row holds the code of its
+ * value in a dictionary of the distinct values of the column. Missing values
+ * have the code -1.
+ *
+ * <p>Values are mapped the same way as StringCellMapper does.
+ *
+ * @author David Gageot
+ * @see ColumnTable
+ * @see StringCellMapper
+ */
+public final class StringColumn extends Column {
+	private final int[] codes;
+	private final String[] dictionary;
+
+	StringColumn(String aName, int[] someCodes, String[] aDictionary, BitSet someNulls) {
+		super(aName, someNulls);
+		codes = someCodes;
+		dictionary = aDictionary;
+	}
+
+	@Override
+	public int size() {
+		return codes.length;
+	}
+
+	public int getCode(int row) {
+		return codes[row];
+	}
+
+	public String getString(int row) {
+		int code = codes[row];
+		return (code < 0) ? null : dictionary[code];
+	}
+
+	/**
+	 * Get the codes, one per row. The array is not copied,
+	 * so that it can be scanned without overhead: it must not be modified.
+	 */
+	public int[] getCodes() {
+		return codes;
+	}
+
+	/**
+	 * Get the distinct values, indexed by their code, in order of appearance.
+	 * The array is not copied: it must not be modified.
+	 */
+	public String[] getDictionary() {
+		return dictionary;
+	}
+
+	@Override
+	public String getValue(int row) {
+		return getString(row);
+	}
+}
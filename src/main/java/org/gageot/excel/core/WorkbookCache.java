@@ -0,0 +1,152 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import static com.google.common.base.Preconditions.*;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.springframework.core.io.Resource;
+
+/**
+ * Least recently used cache of parsed workbooks, keyed on the Resource
+ * they were read from.
+ *
+ * <p>Each entry remembers the last-modified timestamp of its Resource.
+ * A lookup with a different timestamp is a miss and drops the stale entry,
+ * so a file changed on disk is parsed again on next read.
+ *
+ * <p>Cached workbooks are shared by every ExcelTemplate using the cache:
+ * callbacks must only read them. Workbooks whose formulas are evaluated are
+ * cached apart from the others, since evaluation writes the results in their
+ * cells. This class is thread-safe.
+ *
+ * @author David Gageot
+ * @see ExcelTemplate#setWorkbookCache
+ */
+public class WorkbookCache {
+	private final int maximumSize;
+	private final Map<List<Object>, CachedWorkbook> entries;
+
+	/**
+	 * Create a new WorkbookCache.
+	 * @param aMaximumSize maximum number of workbooks kept in memory
+	 */
+	public WorkbookCache(int aMaximumSize) {
+		checkArgument(aMaximumSize > 0, "maximumSize must be positive");
+
+		maximumSize = aMaximumSize;
+		entries = new LinkedHashMap<List<Object>, CachedWorkbook>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<List<Object>, CachedWorkbook> eldest) {
+				return size() > maximumSize;
+			}
+		};
+	}
+
+	/**
+	 * Get the workbook parsed from a given version of a Resource.
+	 * @param resource the Resource the workbook was read from
+	 * @param lastModified the current last-modified timestamp of the Resource
+	 * @return the cached workbook or <code>null</code> if none or stale
+	 */
+	public HSSFWorkbook get(Resource resource, long lastModified) {
+		return get(resource, lastModified, false);
+	}
+
+	/**
+	 * Get the workbook parsed from a given version of a Resource.
+	 * @param evaluated whether the formulas of the workbook are evaluated
+	 */
+	synchronized HSSFWorkbook get(Resource resource, long lastModified, boolean evaluated) {
+		List<Object> key = key(resource, evaluated);
+
+		CachedWorkbook entry = entries.get(key);
+		if (null == entry) {
+			return null;
+		}
+
+		if (entry.lastModified != lastModified) {
+			entries.remove(key);
+			return null;
+		}
+
+		return entry.workbook;
+	}
+
+	/**
+	 * Put the workbook parsed from a given version of a Resource.
+	 * Least recently used workbooks are evicted once the maximum size is reached.
+	 * @param resource the Resource the workbook was read from
+	 * @param lastModified the last-modified timestamp of the Resource when it was read
+	 * @param workbook the parsed workbook
+	 */
+	public void put(Resource resource, long lastModified, HSSFWorkbook workbook) {
+		put(resource, lastModified, false, workbook);
+	}
+
+	/**
+	 * Put the workbook parsed from a given version of a Resource.
+	 * @param evaluated whether the formulas of the workbook are evaluated
+	 */
+	synchronized void put(Resource resource, long lastModified, boolean evaluated, HSSFWorkbook workbook) {
+		entries.put(key(resource, evaluated), new CachedWorkbook(lastModified, workbook, evaluated ? WorkbookEvaluator.of(workbook) : null));
+	}
+
+	/**
+	 * Remove the workbooks parsed from a Resource, if any.
+	 */
+	public synchronized void evict(Resource resource) {
+		entries.remove(key(resource, false));
+		entries.remove(key(resource, true));
+	}
+
+	/**
+	 * Remove all cached workbooks.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	private static List<Object> key(Resource resource, boolean evaluated) {
+		return Arrays.<Object> asList(resource, evaluated);
+	}
+
+	private static class CachedWorkbook {
+		final long lastModified;
+		final HSSFWorkbook workbook;
+		final WorkbookEvaluator evaluator; // Keeps the evaluated values for the next reads
+
+		CachedWorkbook(long aLastModified, HSSFWorkbook aWorkbook, WorkbookEvaluator anEvaluator) {
+			lastModified = aLastModified;
+			workbook = aWorkbook;
+			evaluator = anEvaluator;
+		}
+	}
+}
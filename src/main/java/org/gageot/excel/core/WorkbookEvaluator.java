@@ -0,0 +1,117 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.apache.poi.hssf.usermodel.HSSFCell;
+import org.apache.poi.hssf.usermodel.HSSFFormulaEvaluator;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.springframework.dao.DataRetrievalFailureException;
+import com.google.common.base.Function;
+import com.google.common.collect.MapMaker;
+
+/**
+ * Evaluates the formulas of a workbook, each at most once, and stores
+ * the results in their cells. A single HSSFFormulaEvaluator caches the
+ * intermediate results, so that a cell referenced by several formulas is
+ * evaluated only once. This class is thread-safe.
+ *
+ * <p>There's a single evaluator per workbook instance, shared by all its
+ * reads, so that concurrent reads write results under the same lock. A
+ * formula cell is always given to the evaluator before it's read, so that
+ * a result written by one thread is seen by the others. An evaluator is
+ * kept by the WorkbookCache entry of its workbook, if any, and by the
+ * reads that use it. It's dropped once none does.
+ *
+ * @author David Gageot
+ * @see ExcelTemplate#setEvaluateFormulas
+ */
+class WorkbookEvaluator {
+	/**
+	 * Evaluators in use. The evaluator references its workbook,
+	 * so the values mustn't be strongly referenced by the map.
+	 */
+	private static final Map<HSSFWorkbook, WorkbookEvaluator> EVALUATORS = new MapMaker().weakKeys().weakValues().makeComputingMap(new Function<HSSFWorkbook, WorkbookEvaluator>() {
+		@Override
+		public WorkbookEvaluator apply(HSSFWorkbook workbook) {
+			return new WorkbookEvaluator(workbook);
+		}
+	});
+
+	private final HSSFFormulaEvaluator evaluator;
+	private final Set<HSSFSheet> evaluatedSheets = Collections.newSetFromMap(new IdentityHashMap<HSSFSheet, Boolean>());
+	private final Set<HSSFCell> evaluatedCells = Collections.newSetFromMap(new IdentityHashMap<HSSFCell, Boolean>());
+
+	private WorkbookEvaluator(HSSFWorkbook workbook) {
+		evaluator = new HSSFFormulaEvaluator(workbook);
+		evaluator.setIgnoreMissingWorkbooks(true);
+	}
+
+	/**
+	 * Get the evaluator of a workbook, the same for all the reads using it.
+	 */
+	public static WorkbookEvaluator of(HSSFWorkbook workbook) {
+		return EVALUATORS.get(workbook);
+	}
+
+	public synchronized void evaluate(HSSFCell cell) {
+		if (!evaluatedSheets.contains(cell.getSheet()) && evaluatedCells.add(cell)) {
+			evaluateFormulaCell(cell);
+		}
+	}
+
+	public synchronized void evaluate(HSSFRow row) {
+		if (evaluatedSheets.contains(row.getSheet())) {
+			return;
+		}
+
+		for (Cell cell : row) {
+			if ((Cell.CELL_TYPE_FORMULA == cell.getCellType()) && evaluatedCells.add((HSSFCell) cell)) {
+				evaluateFormulaCell((HSSFCell) cell);
+			}
+		}
+	}
+
+	public synchronized void evaluate(HSSFSheet sheet) {
+		if (!evaluatedSheets.add(sheet)) {
+			return;
+		}
+
+		for (Row row : sheet) {
+			for (Cell cell : row) {
+				if ((Cell.CELL_TYPE_FORMULA == cell.getCellType()) && evaluatedCells.add((HSSFCell) cell)) {
+					evaluateFormulaCell((HSSFCell) cell);
+				}
+			}
+		}
+	}
+
+	private void evaluateFormulaCell(HSSFCell cell) {
+		try {
+			evaluator.evaluateFormulaCell(cell);
+		} catch (RuntimeException e) {
+			throw new DataRetrievalFailureException("Unable to evaluate " + cell.getCellFormula() + " in sheet " + cell.getSheet().getSheetName(), e);
+		}
+	}
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gageot.excel.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Reads one sheet of a .xlsx file with a SAX parser and pushes
+ * its rows to an EventRowCallbackHandler.
+ *
+ * <p>Only the shared strings table, the cell formats and the current row
+ * are kept in memory, whatever the size of the sheet. Cells excluded by
+ * a ColumnFilter handler are not decoded. The XML parts are parsed with
+ * document type declarations disabled, to prevent XML external entities.
+ *
+ * @author David Gageot
+ * @see ExcelTemplate#stream(String,EventRowCallbackHandler)
+ */
+class XSSFEventSheetReader {
+	private static final String RELATIONSHIPS_NAMESPACE = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+	private final String sheetName;
+	private final EventRowCallbackHandler rowCallbackHandler;
+	private final ColumnFilter columnFilter;
+
+	public XSSFEventSheetReader(String aSheetName, EventRowCallbackHandler aRowCallbackHandler) {
+		sheetName = aSheetName;
+		rowCallbackHandler = aRowCallbackHandler;
+		columnFilter = (aRowCallbackHandler instanceof ColumnFilter) ? (ColumnFilter) aRowCallbackHandler : null;
+	}
+
+	/**
+	 * Read the sheet names of a .xlsx package.
+	 */
+	public static String[] getSheetNames(OPCPackage pkg) throws IOException {
+		try {
+			WorkbookHandler workbook = new WorkbookHandler();
+			parse(new XSSFReader(pkg).getWorkbookData(), workbook);
+
+			return workbook.sheetIds.keySet().toArray(new String[workbook.sheetIds.size()]);
+		} catch (OpenXML4JException e) {
+			throw new IOException("Invalid .xlsx file: " + e.getMessage());
+		} catch (SAXException e) {
+			throw new IOException("Invalid .xlsx file: " + e.getMessage());
+		}
+	}
+
+	public void read(OPCPackage pkg) throws IOException {
+		try {
+			XSSFReader reader = new XSSFReader(pkg);
+
+			WorkbookHandler workbook = new WorkbookHandler();
+			parse(reader.getWorkbookData(), workbook);
+
+			String sheetId = workbook.sheetIds.get(sheetName);
+			if (null == sheetId) {
+				throw new DataRetrievalFailureException("Unknown sheet: " + sheetName);
+			}
+
+			SharedStringsHandler sharedStrings = new SharedStringsHandler();
+			parse(pkg, XSSFRelation.SHARED_STRINGS, sharedStrings);
+			StylesHandler styles = new StylesHandler();
+			parse(pkg, XSSFRelation.STYLES, styles);
+
+			parse(reader.getSheet(sheetId), new SheetHandler(sharedStrings.strings, styles, workbook.date1904));
+		} catch (OpenXML4JException e) {
+			throw new IOException("Invalid .xlsx file: " + e.getMessage());
+		} catch (SAXException e) {
+			if (e.getException() instanceof IOException) {
+				throw (IOException) e.getException();
+			}
+			throw new IOException("Invalid .xlsx file: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Parse the part of a given type, if the package has one.
+	 */
+	private static void parse(OPCPackage pkg, XSSFRelation relation, DefaultHandler handler) throws IOException, SAXException {
+		List<PackagePart> parts = pkg.getPartsByContentType(relation.getContentType());
+		if (!parts.isEmpty()) {
+			parse(parts.get(0).getInputStream(), handler);
+		}
+	}
+
+	/**
+	 * Every part is parsed here, rather than by POI, so that no document type
+	 * declaration, and thus no external entity, is ever accepted.
+	 */
+	private static void parse(InputStream in, DefaultHandler handler) throws IOException, SAXException {
+		try {
+			SAXParserFactory factory = SAXParserFactory.newInstance();
+			factory.setNamespaceAware(true);
+			factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true); // No XXE
+			factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+			factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+
+			XMLReader xmlReader = factory.newSAXParser().getXMLReader();
+			xmlReader.setContentHandler(handler);
+			xmlReader.parse(new InputSource(in));
+		} catch (ParserConfigurationException e) {
+			throw new SAXException(e);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads the date windowing (1900 or 1904) of the workbook
+	 * and the relationship ids of its sheets, in order.
+	 */
+	private static class WorkbookHandler extends DefaultHandler {
+		final Map<String, String> sheetIds = Maps.newLinkedHashMap();
+		boolean date1904;
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) {
+			if ("workbookPr".equals(localName)) {
+				String value = attributes.getValue("date1904");
+				date1904 = "1".equals(value) || "true".equals(value);
+			} else if ("sheet".equals(localName)) {
+				sheetIds.put(attributes.getValue("name"), attributes.getValue(RELATIONSHIPS_NAMESPACE, "id"));
+			}
+		}
+	}
+
+	/**
+	 * Reads the shared strings table. Rich text runs are concatenated,
+	 * phonetic runs are ignored.
+	 */
+	private static class SharedStringsHandler extends DefaultHandler {
+		final List<String> strings = Lists.newArrayList();
+		private final StringBuilder text = new StringBuilder();
+		private boolean inText;
+		private boolean inPhonetic;
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) {
+			if ("si".equals(localName)) {
+				text.setLength(0);
+			} else if ("rPh".equals(localName)) {
+				inPhonetic = true;
+			} else if ("t".equals(localName)) {
+				inText = !inPhonetic;
+			}
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) {
+			if (inText) {
+				text.append(ch, start, length);
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) {
+			if ("si".equals(localName)) {
+				strings.add(text.toString());
+			} else if ("rPh".equals(localName)) {
+				inPhonetic = false;
+			} else if ("t".equals(localName)) {
+				inText = false;
+			}
+		}
+	}
+
+	/**
+	 * Reads the data format of each cell style. Formats not defined
+	 * by the workbook are built-in formats.
+	 */
+	private static class StylesHandler extends DefaultHandler {
+		private final Map<Integer, String> formats = Maps.newHashMap();
+		private final List<Integer> styleFormats = Lists.newArrayList();
+		private boolean inCellStyles;
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) {
+			if ("numFmt".equals(localName)) {
+				formats.put(Integer.valueOf(attributes.getValue("numFmtId")), attributes.getValue("formatCode"));
+			} else if ("cellXfs".equals(localName)) {
+				inCellStyles = true;
+			} else if (inCellStyles && "xf".equals(localName)) {
+				String format = attributes.getValue("numFmtId");
+				styleFormats.add((null != format) ? Integer.valueOf(format) : 0);
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) {
+			if ("cellXfs".equals(localName)) {
+				inCellStyles = false;
+			}
+		}
+
+		int getStyleCount() {
+			return styleFormats.size();
+		}
+
+		short getDataFormat(int style) {
+			return styleFormats.get(style).shortValue();
+		}
+
+		String getDataFormatString(int style) {
+			int format = styleFormats.get(style);
+			return formats.containsKey(format) ? formats.get(format) : BuiltinFormats.getBuiltinFormat(format);
+		}
+	}
+
+	/**
+	 * Decodes the cells of a sheet, one row at a time.
+	 */
+	private class SheetHandler extends DefaultHandler {
+		private final List<String> sharedStrings;
+		private final boolean date1904;
+		private final short[] dataFormats;
+		private final String[] dataFormatStrings;
+		private final StringBuilder text = new StringBuilder();
+
+		private EventCell[] currentRow = new EventCell[16];
+		private int currentRowSize;
+		private int rowNum = -1;
+		private int columnNum;
+		private String cellType;
+		private int cellStyle;
+		private boolean formula;
+		private boolean skipped;
+		private boolean hasValue;
+		private boolean inValue;
+		private boolean inInlineString;
+
+		SheetHandler(List<String> aSharedStrings, StylesHandler styles, boolean aDate1904) {
+			sharedStrings = aSharedStrings;
+			date1904 = aDate1904;
+
+			int styleCount = styles.getStyleCount();
+			dataFormats = new short[styleCount];
+			dataFormatStrings = new String[styleCount];
+			for (int i = 0; i < styleCount; i++) {
+				dataFormats[i] = styles.getDataFormat(i);
+				dataFormatStrings[i] = styles.getDataFormatString(i);
+			}
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) {
+			if ("row".equals(localName)) {
+				String reference = attributes.getValue("r");
+				rowNum = (null != reference) ? Integer.parseInt(reference) - 1 : rowNum + 1;
+				columnNum = -1;
+			} else if ("c".equals(localName)) {
+				String reference = attributes.getValue("r");
+				columnNum = (null != reference) ? new CellReference(reference).getCol() : columnNum + 1;
+				skipped = (null != columnFilter) && !columnFilter.isColumnIncluded(rowNum, columnNum);
+				cellType = attributes.getValue("t");
+				String style = attributes.getValue("s");
+				cellStyle = (null != style) ? Integer.parseInt(style) : 0;
+				formula = false;
+				hasValue = false;
+				text.setLength(0);
+			} else if ("f".equals(localName)) {
+				formula = true;
+			} else if ("v".equals(localName)) {
+				inValue = !skipped;
+				text.setLength(0);
+			} else if ("is".equals(localName)) {
+				inInlineString = !skipped;
+				text.setLength(0);
+			}
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) {
+			if (inValue || inInlineString) {
+				text.append(ch, start, length);
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) throws SAXException {
+			if ("v".equals(localName)) {
+				inValue = false;
+				hasValue = true;
+			} else if ("is".equals(localName)) {
+				inInlineString = false;
+				hasValue = true;
+			} else if ("c".equals(localName)) {
+				if (hasValue && !skipped) {
+					addCell(createCell(text.toString()));
+				}
+			} else if ("row".equals(localName)) {
+				flushRow();
+			}
+		}
+
+		private EventCell createCell(String value) {
+			short dataFormat = (cellStyle < dataFormats.length) ? dataFormats[cellStyle] : 0;
+			String dataFormatString = (cellStyle < dataFormats.length) ? dataFormatStrings[cellStyle] : null;
+
+			if ("s".equals(cellType)) {
+				return EventCell.string(sharedStrings.get(Integer.parseInt(value)), dataFormat, dataFormatString, formula);
+			}
+			if ("str".equals(cellType) || "inlineStr".equals(cellType)) {
+				return EventCell.string(value, dataFormat, dataFormatString, formula);
+			}
+			if ("b".equals(cellType)) {
+				return EventCell.bool("1".equals(value) || "true".equals(value), formula);
+			}
+			if ("e".equals(cellType)) {
+				return EventCell.error(errorCode(value), formula);
+			}
+			return EventCell.numeric(Double.parseDouble(value), dataFormat, dataFormatString, date1904, formula);
+		}
+
+		private byte errorCode(String value) {
+			try {
+				return FormulaError.forString(value).getCode();
+			} catch (IllegalArgumentException e) {
+				return FormulaError.NA.getCode();
+			}
+		}
+
+		private void addCell(EventCell cell) {
+			if (columnNum >= currentRow.length) {
+				currentRow = Arrays.copyOf(currentRow, Math.max(columnNum + 1, currentRow.length * 2));
+			}
+
+			currentRow[columnNum] = cell;
+			currentRowSize = Math.max(currentRowSize, columnNum + 1);
+		}
+
+		private void flushRow() throws SAXException {
+			if (0 == currentRowSize) {
+				return;
+			}
+
+			EventCell[] cells = Arrays.copyOf(currentRow, currentRowSize);
+			Arrays.fill(currentRow, 0, currentRowSize, null);
+			currentRowSize = 0;
+
+			try {
+				rowCallbackHandler.processRow(cells, rowNum);
+			} catch (IOException e) {
+				throw new SAXException(e);
+			}
+		}
+	}
+}
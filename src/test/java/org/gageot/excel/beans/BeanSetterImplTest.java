@@ -6,7 +6,7 @@ import org.junit.Test;
 
 public class BeanSetterImplTest {
 	private MyBean bean;
-	private BeanSetter beanSetter;
+	private BeanSetterImpl beanSetter;
 
 	@Before
 	public void setUp() {
@@ -56,6 +56,34 @@ public class BeanSetterImplTest {
 		assertThat(bean.getValue()).isEqualTo(30);
 	}
 
+	@Test
+	public void setNullPropertyShouldKeepPrimitiveDefault() {
+		beanSetter.setProperty(bean, "value", 10);
+		beanSetter.setProperty(bean, "value", null);
+		assertThat(bean.getValue()).isEqualTo(10);
+
+		beanSetter.setProperty(bean, "lastName", "Smith");
+		beanSetter.setProperty(bean, "lastName", null);
+		assertThat(bean.getLastName()).isNull();
+	}
+
+	@Test
+	public void resolvePropertySetterOnce() {
+		PropertySetter setter = beanSetter.getPropertySetter(MyBean.class, "LASTNAME");
+
+		setter.setValue(bean, "Smith");
+		assertThat(bean.getLastName()).isEqualTo("Smith");
+
+		MyBean other = new MyBean();
+		setter.setValue(other, "Johns");
+		assertThat(other.getLastName()).isEqualTo("Johns");
+	}
+
+	@Test
+	public void resolveUnknownPropertySetter() {
+		assertThat(beanSetter.getPropertySetter(MyBean.class, "unknownPropertyName")).isNull();
+	}
+
 	public static class MyBean {
 		private String lastName;
 		private double age;
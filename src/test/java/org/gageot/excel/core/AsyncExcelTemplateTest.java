@@ -0,0 +1,112 @@
+package org.gageot.excel.core;
+
+import static org.fest.assertions.Assertions.*;
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.dao.DataRetrievalFailureException;
+import com.google.common.collect.Lists;
+
+public class AsyncExcelTemplateTest {
+	private ExecutorService executor;
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void readAsynchronously() throws Exception {
+		AsyncExcelTemplate template = new AsyncExcelTemplate(new ExcelTemplate("simple.xls", getClass()), executor);
+
+		Future<String[]> sheetNames = template.getSheetNames();
+		Future<List<Map<String, String>>> lines = template.readList("Tests");
+
+		assertThat(sheetNames.get()).containsOnly("Tests");
+		assertThat(lines.get()).hasSize(2);
+		assertThat(lines.get().get(1).get("KEY3")).isEqualTo("Value30");
+	}
+
+	@Test
+	public void readBeansAsynchronously() throws Exception {
+		AsyncExcelTemplate template = new AsyncExcelTemplate(new ExcelTemplate("beans.xlsx", getClass()), executor);
+
+		List<BeanCellCallbackHandlerTest.NameAndAge> beans = template.readBeans("Tests", BeanCellCallbackHandlerTest.NameAndAge.class).get();
+
+		assertThat(beans).hasSize(2);
+		assertThat(beans.get(1).getLastName()).isEqualTo("Johns");
+	}
+
+	@Test
+	public void failuresAreGivenAsCause() throws Exception {
+		AsyncExcelTemplate template = new AsyncExcelTemplate(new ExcelTemplate("beans.xlsx", getClass()), executor);
+
+		expectedException.expect(ExecutionException.class);
+		expectedException.expectMessage(DataRetrievalFailureException.class.getName());
+
+		template.readList("Unknown").get();
+	}
+
+	@Test
+	public void concurrentReadsShareOneParse() throws Exception {
+		final CountDownLatch parsing = new CountDownLatch(1);
+		final CountDownLatch joined = new CountDownLatch(3);
+		final CountDownLatch release = new CountDownLatch(1);
+		final File file = new ClassPathResource("simple.xls", getClass()).getFile();
+
+		ExcelTemplate excelTemplate = new ExcelTemplate(new FileSystemResource(file) {
+			@Override
+			public File getFile() {
+				parsing.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return file;
+			}
+		}) {
+			@Override
+			void parseInFlightJoined() {
+				joined.countDown();
+			}
+		};
+		ReadStatistics statistics = new ReadStatistics();
+		excelTemplate.setReadListener(statistics);
+		AsyncExcelTemplate template = new AsyncExcelTemplate(excelTemplate, executor);
+
+		List<Future<String[][]>> reads = Lists.newArrayList();
+		for (int i = 0; i < 4; i++) {
+			reads.add(template.read("Tests"));
+		}
+		parsing.await();
+		joined.await();
+		release.countDown();
+
+		for (Future<String[][]> read : reads) {
+			assertThat(read.get()[2][2]).isEqualTo("Value30");
+		}
+		assertThat(statistics.getWorkbookParseCount()).isEqualTo(1L);
+		assertThat(statistics.getSheetReadCount()).isEqualTo(4L);
+	}
+}
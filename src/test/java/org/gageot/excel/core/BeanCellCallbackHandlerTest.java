@@ -42,6 +42,16 @@ public class BeanCellCallbackHandlerTest {
 		assertThat(beans.get(1).getLastName()).isEqualTo("Johns");
 	}
 
+	@Test
+	public void unknownColumnsShouldBeReported() {
+		BeanCellCallbackHandler<Name> handler = new BeanCellCallbackHandler<Name>(Name.class);
+
+		reader.read(TAB_NAME, handler);
+
+		assertThat(handler.getBeans()).hasSize(2);
+		assertThat(handler.getUnmappedPropertyNames()).containsOnly("AGE", "Unknown");
+	}
+
 	@Test
 	public void readBeanShouldFailWithWrongBeanType() {
 		expectedException.expect(BeanCreationException.class);
@@ -0,0 +1,129 @@
+package org.gageot.excel.core;
+
+import static org.fest.assertions.Assertions.*;
+import java.util.List;
+import org.gageot.excel.beans.ExcelColumn;
+import org.gageot.excel.beans.ExcelCreator;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.beans.factory.BeanCreationException;
+
+public class BeanCreatorRowCallbackHandlerTest {
+	private static final String FILE_NAME = "beans.xls";
+	private static final String TAB_NAME = "Tests";
+
+	private ExcelTemplate reader;
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	@Before
+	public void setUp() {
+		reader = new ExcelTemplate(FILE_NAME, getClass());
+	}
+
+	@Test
+	public void readObjectsWithConstructor() {
+		List<Person> persons = reader.readObjects(TAB_NAME, Person.class);
+
+		assertThat(persons).hasSize(2);
+		assertThat(persons.get(0).lastName).isEqualTo("Smith");
+		assertThat(persons.get(0).age).isEqualTo(35);
+		assertThat(persons.get(1).lastName).isEqualTo("Johns");
+		assertThat(persons.get(1).age).isEqualTo(25);
+	}
+
+	@Test
+	public void readObjectsWithFactoryMethod() {
+		List<Age> ages = reader.readObjects(TAB_NAME, Age.class);
+
+		assertThat(ages).hasSize(2);
+		assertThat(ages.get(0).value).isEqualTo(35L);
+		assertThat(ages.get(1).value).isEqualTo(25L);
+	}
+
+	@Test
+	public void readObjectsFromXlsx() {
+		List<Person> persons = new ExcelTemplate("beans.xlsx", getClass()).readObjects(TAB_NAME, Person.class);
+
+		assertThat(persons).hasSize(2);
+		assertThat(persons.get(1).lastName).isEqualTo("Johns");
+		assertThat(persons.get(1).age).isEqualTo(25);
+	}
+
+	@Test
+	public void missingColumnShouldGiveDefaultValue() {
+		List<Unknown> values = reader.readObjects(TAB_NAME, Unknown.class);
+
+		assertThat(values).hasSize(2);
+		assertThat(values.get(0).count).isEqualTo(0);
+	}
+
+	@Test
+	public void missingColumnShouldBeReported() {
+		BeanCreatorRowCallbackHandler<Unknown> handler = new BeanCreatorRowCallbackHandler<Unknown>(Unknown.class);
+		reader.read(TAB_NAME, handler);
+
+		assertThat(handler.getBeans()).hasSize(2);
+		assertThat(handler.getUnmappedColumnNames()).containsOnly("count");
+	}
+
+	@Test
+	public void matchedColumnsShouldNotBeReported() {
+		BeanCreatorRowCallbackHandler<Person> handler = new BeanCreatorRowCallbackHandler<Person>(Person.class);
+		reader.read(TAB_NAME, handler);
+
+		assertThat(handler.getUnmappedColumnNames()).isEmpty();
+	}
+
+	@Test
+	public void readObjectsShouldFailWithoutCreator() {
+		expectedException.expect(BeanCreationException.class);
+
+		reader.readObjects(TAB_NAME, NoCreator.class);
+	}
+
+	public static class Person {
+		final String lastName;
+		final int age;
+
+		@ExcelCreator
+		public Person(@ExcelColumn("lastname") String lastName, @ExcelColumn("Age") int age) {
+			this.lastName = lastName;
+			this.age = age;
+		}
+	}
+
+	public static class Age {
+		final long value;
+
+		private Age(long value) {
+			this.value = value;
+		}
+
+		@ExcelCreator
+		public static Age of(@ExcelColumn("AGE") long value) {
+			return new Age(value);
+		}
+	}
+
+	public static class Unknown {
+		final int count;
+
+		public Unknown(@ExcelColumn("count") int count) {
+			this.count = count;
+		}
+	}
+
+	public static class NoCreator {
+		public NoCreator() {
+			// Not a creator
+		}
+
+		public NoCreator(@SuppressWarnings("unused") String name) {
+			// Not a creator either
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package org.gageot.excel.core;
+
+import static org.fest.assertions.Assertions.*;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.beans.InvalidPropertyException;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import com.google.common.collect.ImmutableList;
+
+public class BeanRowWriterTest {
+	private static final String TAB_NAME = "Tests";
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private List<BeanCellCallbackHandlerTest.NameAndAge> beans;
+
+	@Before
+	public void setUp() {
+		beans = ImmutableList.of(nameAndAge("Smith", 35), nameAndAge("Johns", 25));
+	}
+
+	@Test
+	public void headersAreSortedPropertyNames() {
+		assertThat(new BeanRowWriter<BeanCellCallbackHandlerTest.NameAndAge>(BeanCellCallbackHandlerTest.NameAndAge.class).getHeaders()).containsOnly("age", "lastName");
+	}
+
+	@Test
+	public void writeAndReadBackXls() {
+		ExcelTemplate template = new ExcelTemplate(new File(temporaryFolder.getRoot(), "beans.xls"));
+
+		template.write(TAB_NAME, beans);
+
+		List<BeanCellCallbackHandlerTest.NameAndAge> readBeans = template.readBeans(TAB_NAME, BeanCellCallbackHandlerTest.NameAndAge.class);
+		assertThat(readBeans).hasSize(2);
+		assertThat(readBeans.get(0).getLastName()).isEqualTo("Smith");
+		assertThat(readBeans.get(1).getAge()).isEqualTo(25.0);
+	}
+
+	@Test
+	public void writeAndReadBackXlsx() {
+		ExcelTemplate template = new ExcelTemplate(new File(temporaryFolder.getRoot(), "beans.xlsx"));
+
+		template.writeBeans(TAB_NAME, beans, BeanCellCallbackHandlerTest.NameAndAge.class);
+
+		List<BeanCellCallbackHandlerTest.NameAndAge> readBeans = template.readBeans(TAB_NAME, BeanCellCallbackHandlerTest.NameAndAge.class);
+		assertThat(readBeans).hasSize(2);
+		assertThat(readBeans.get(1).getLastName()).isEqualTo("Johns");
+		assertThat(readBeans.get(1).getAge()).isEqualTo(25.0);
+	}
+
+	@Test
+	public void writeSomeProperties() {
+		ExcelTemplate template = new ExcelTemplate(new File(temporaryFolder.getRoot(), "names.xls"));
+		BeanRowWriter<BeanCellCallbackHandlerTest.NameAndAge> rowWriter = new BeanRowWriter<BeanCellCallbackHandlerTest.NameAndAge>(BeanCellCallbackHandlerTest.NameAndAge.class, "lastName");
+
+		template.write(TAB_NAME, rowWriter.getHeaders(), beans, rowWriter);
+
+		String[][] lines = template.read(TAB_NAME);
+		assertThat(lines).hasSize(3);
+		assertThat(lines[0]).containsOnly("lastName");
+		assertThat(lines[2]).containsOnly("Johns");
+	}
+
+	@Test
+	public void writeObjectArrays() {
+		ExcelTemplate template = new ExcelTemplate(new File(temporaryFolder.getRoot(), "objects.xls"));
+		Date date = new GregorianCalendar(2007, Calendar.JANUARY, 31).getTime();
+
+		template.write(TAB_NAME, new Object[][] {
+			{"A", 1.5, true, date, null, 'c'}
+		});
+
+		Object[][] values = template.read(TAB_NAME, new ObjectCellMapper(), Object.class);
+		assertThat(Arrays.asList(values[0])).containsExactly("A", 1.5, true, date, null, "c");
+	}
+
+	@Test
+	public void writeLargeXlsxThroughSlidingWindow() {
+		ExcelTemplate template = new ExcelTemplate(new File(temporaryFolder.getRoot(), "large.xlsx"));
+		template.setWriteWindowSize(10);
+
+		Object[][] values = new Object[5000][];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = new Object[] {"Row" + i, i};
+		}
+		template.write(TAB_NAME, values);
+
+		String[][] lines = template.read(TAB_NAME);
+		assertThat(lines).hasSize(5000);
+		assertThat(lines[4999][0]).isEqualTo("Row4999");
+	}
+
+	@Test
+	public void unknownPropertyShouldFail() {
+		expectedException.expect(InvalidPropertyException.class);
+
+		new BeanRowWriter<BeanCellCallbackHandlerTest.NameAndAge>(BeanCellCallbackHandlerTest.NameAndAge.class, "firstName");
+	}
+
+	@Test
+	public void onlyFilesCanBeWritten() {
+		expectedException.expect(InvalidDataAccessApiUsageException.class);
+
+		new ExcelTemplate(new ByteArrayResource(new byte[0])).write(TAB_NAME, beans);
+	}
+
+	private static BeanCellCallbackHandlerTest.NameAndAge nameAndAge(String lastName, double age) {
+		BeanCellCallbackHandlerTest.NameAndAge bean = new BeanCellCallbackHandlerTest.NameAndAge();
+		bean.setLastName(lastName);
+		bean.setAge(age);
+		return bean;
+	}
+}
@@ -2,10 +2,20 @@ package org.gageot.excel.core;
 
 import static org.fest.assertions.Assertions.*;
 import static org.fest.assertions.MapAssert.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.TreeMap;
 import java.util.List;
 import java.util.Map;
 import org.junit.Before;
 import org.junit.Test;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
 
 public class ColumnMapRowMapperTest {
 	private static final String FILE_NAME = "simple.xls";
@@ -38,4 +48,95 @@ public class ColumnMapRowMapperTest {
 		assertThat(lines.get(0)).hasSize(3).includes(entry("KEY1", "Value1")).includes(entry("KEY2", "Value2")).includes(entry("KEY3", "Value3"));
 		assertThat(lines.get(1)).hasSize(3).includes(entry("KEY1", "Value10")).includes(entry("KEY2", "Value20")).includes(entry("KEY3", "Value30"));
 	}
+
+	@Test
+	public void rowsShouldBeCaseInsensitiveMaps() {
+		Map<String, String> line = reader.readList(TAB_NAME).get(0);
+
+		assertThat(line.get("key2")).isEqualTo("Value2");
+		assertThat(line.containsKey("Key3")).isTrue();
+		assertThat(line.containsKey("KEY4")).isFalse();
+		assertThat(line.keySet()).isEqualTo(Sets.newLinkedHashSet(Arrays.asList("KEY1", "KEY2", "KEY3")));
+		assertThat(line).isEqualTo(ImmutableMap.of("KEY1", "Value1", "KEY2", "Value2", "KEY3", "Value3"));
+
+		line.put("key1", "Changed");
+		assertThat(line.get("KEY1")).isEqualTo("Changed");
+	}
+
+	@Test
+	public void shortRowsShouldOnlyContainTheirColumns() {
+		List<Map<String, String>> lines = new ExcelTemplate("indexedLines.xls", getClass()).readList(TAB_NAME);
+
+		assertThat(lines).hasSize(2);
+		assertThat(lines.get(0)).hasSize(1).includes(entry("INDEX", "1"));
+		assertThat(lines.get(0).get("KEY1")).isNull();
+		assertThat(lines.get(1)).hasSize(4).includes(entry("KEY3", "C"));
+	}
+
+	@Test
+	public void columnsCanBeAddedAndRemoved() {
+		Map<String, String> line = reader.readList(TAB_NAME).get(0);
+
+		line.put("Key4", "Value4");
+		line.remove("KEY1");
+
+		assertThat(line.keySet()).isEqualTo(Sets.newLinkedHashSet(Arrays.asList("KEY2", "KEY3", "Key4")));
+		assertThat(line.get("key4")).isEqualTo("Value4");
+		assertThat(line.containsKey("key1")).isFalse();
+	}
+
+	@Test
+	public void columnsCanBeRemovedThroughViews() {
+		Map<String, String> line = reader.readList(TAB_NAME).get(0);
+
+		line.keySet().remove("KEY1");
+		line.values().remove("Value2");
+		assertThat(line).isEqualTo(ImmutableMap.of("KEY3", "Value3"));
+
+		line = reader.readList(TAB_NAME).get(1);
+		line.entrySet().retainAll(ImmutableMap.of("KEY2", "Value20").entrySet());
+		assertThat(line).isEqualTo(ImmutableMap.of("KEY2", "Value20"));
+
+		line = reader.readList(TAB_NAME).get(0);
+		Iterator<String> keys = line.keySet().iterator();
+		keys.next();
+		keys.next();
+		keys.remove();
+		assertThat(keys.next()).isEqualTo("KEY3");
+		assertThat(keys.hasNext()).isFalse();
+		assertThat(line.keySet()).isEqualTo(Sets.newLinkedHashSet(Arrays.asList("KEY1", "KEY3")));
+		assertThat(line.get("key3")).isEqualTo("Value3");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void rowsShouldBeSerializable() throws IOException, ClassNotFoundException {
+		Map<String, String> line = reader.readList(TAB_NAME).get(0);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(line);
+		out.close();
+
+		Map<String, String> copy = (Map<String, String>) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+
+		assertThat(copy).isEqualTo(line);
+		assertThat(copy.get("key2")).isEqualTo("Value2");
+	}
+
+	@Test
+	public void deprecatedCreateColumnMapShouldStillBeUsed() {
+		List<Map<String, String>> lines = reader.readList(TAB_NAME, new ColumnMapRowMapper<String>(new String[] {
+				"KEY1", "KEY2", "KEY3"
+		}, new StringCellMapper()) {
+			@Override
+			@SuppressWarnings("deprecation")
+			protected Map<String, String> createColumnMap(int columnCount) {
+				return new TreeMap<String, String>();
+			}
+		});
+
+		assertThat((Object) lines.get(1)).isInstanceOf(TreeMap.class);
+		assertThat(lines.get(1)).hasSize(3).includes(entry("KEY2", "Value2"));
+	}
 }
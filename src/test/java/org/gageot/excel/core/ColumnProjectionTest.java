@@ -0,0 +1,120 @@
+package org.gageot.excel.core;
+
+import static org.fest.assertions.Assertions.*;
+import static org.fest.assertions.MapAssert.*;
+import java.util.List;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.dao.DataRetrievalFailureException;
+import com.google.common.collect.Lists;
+
+public class ColumnProjectionTest {
+	private static final String TAB_NAME = "Tests";
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	@Test
+	public void readColumnsByName() {
+		String[][] lines = new ExcelTemplate("simple.xls", getClass()).read(TAB_NAME, ColumnProjection.byName("KEY3", "key1"));
+
+		assertThat(lines).hasSize(3);
+		assertThat(lines[0]).isEqualTo(new String[] {
+				"KEY3", "KEY1"
+		});
+		assertThat(lines[2]).isEqualTo(new String[] {
+				"Value30", "Value10"
+		});
+	}
+
+	@Test
+	public void streamColumnsByIndex() {
+		String[][] lines = new ExcelTemplate("simple.xlsx", getClass()).read(TAB_NAME, ColumnProjection.byIndex(1));
+
+		assertThat(lines).hasSize(3);
+		assertThat(lines[0]).isEqualTo(new String[] {
+			"KEY2"
+		});
+		assertThat(lines[1]).isEqualTo(new String[] {
+			"Value2"
+		});
+	}
+
+	@Test
+	public void readListWithProjection() {
+		List<Map<String, String>> lines = new ExcelTemplate("simple.xls", getClass()).readList(TAB_NAME, ColumnProjection.byName("KEY2"));
+
+		assertThat(lines).hasSize(2);
+		assertThat(lines.get(0)).hasSize(1).includes(entry("key2", "Value2"));
+		assertThat(lines.get(1)).hasSize(1).includes(entry("KEY2", "Value20"));
+	}
+
+	@Test
+	public void streamListWithProjection() {
+		List<Map<String, String>> lines = new ExcelTemplate("simple.xlsx", getClass()).readList(TAB_NAME, ColumnProjection.byName("KEY3", "KEY1"));
+
+		assertThat(lines).hasSize(2);
+		assertThat(lines.get(0)).hasSize(2).includes(entry("KEY1", "Value1")).includes(entry("KEY3", "Value3"));
+	}
+
+	@Test
+	public void readBeansWithProjection() {
+		List<BeanCellCallbackHandlerTest.NameAndAge> beans = new ExcelTemplate("beans.xls", getClass()).readBeans(TAB_NAME, BeanCellCallbackHandlerTest.NameAndAge.class, ColumnProjection.byName("LastName"));
+
+		assertThat(beans).hasSize(2);
+		assertThat(beans.get(0).getLastName()).isEqualTo("Smith");
+		assertThat(beans.get(0).getAge()).isEqualTo(0);
+	}
+
+	@Test
+	public void streamBeansWithProjection() {
+		List<BeanCellCallbackHandlerTest.NameAndAge> beans = new ExcelTemplate("beans.xlsx", getClass()).readBeans(TAB_NAME, BeanCellCallbackHandlerTest.NameAndAge.class, ColumnProjection.byIndex(1));
+
+		assertThat(beans).hasSize(2);
+		assertThat(beans.get(1).getLastName()).isNull();
+		assertThat(beans.get(1).getAge()).isEqualTo(25);
+	}
+
+	@Test
+	public void excludedColumnsShouldNotBeDecoded() {
+		final List<EventCell[]> rows = Lists.newArrayList();
+
+		new ExcelTemplate("simple.xls", getClass()).stream(TAB_NAME, new FilteringRowCallbackHandler(rows));
+		new ExcelTemplate("simple.xlsx", getClass()).stream(TAB_NAME, new FilteringRowCallbackHandler(rows));
+
+		assertThat(rows).hasSize(6);
+		for (EventCell[] cells : rows) {
+			assertThat(cells[0]).isNotNull();
+			assertThat(cells[1]).isNull();
+			assertThat(cells[2]).isNotNull();
+		}
+	}
+
+	@Test
+	public void unknownColumnShouldFail() {
+		expectedException.expect(DataRetrievalFailureException.class);
+		expectedException.expectMessage("Unknown column: KEY4");
+
+		new ExcelTemplate("simple.xls", getClass()).readList(TAB_NAME, ColumnProjection.byName("KEY4"));
+	}
+
+	private static class FilteringRowCallbackHandler implements EventRowCallbackHandler, ColumnFilter {
+		private final List<EventCell[]> rows;
+
+		FilteringRowCallbackHandler(List<EventCell[]> someRows) {
+			rows = someRows;
+		}
+
+		@Override
+		public boolean isColumnIncluded(int rowNum, int columnNum) {
+			return 1 != columnNum;
+		}
+
+		@Override
+		public void processRow(EventCell[] cells, int rowNum) {
+			rows.add(cells);
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package org.gageot.excel.core;
+
+import static org.fest.assertions.Assertions.*;
+import org.junit.Test;
+
+public class ColumnTableTest {
+	private static final String TAB_NAME = "Tests";
+
+	@Test
+	public void numbersShouldBeReadAsPrimitives() {
+		ColumnTable table = new ExcelTemplate("cellFormat.xls", getClass()).readColumns(TAB_NAME);
+
+		assertThat(table.getRowCount()).isEqualTo(1);
+		assertThat(((LongColumn) table.getColumn("number")).getValues()).isEqualTo(new long[] {1L});
+		assertThat(((LongColumn) table.getColumn("Numeric Formula")).getLong(0)).isEqualTo(3L);
+		assertThat(((DoubleColumn) table.getColumn(3)).getValues()).isEqualTo(new double[] {1.5});
+	}
+
+	@Test
+	public void otherValuesShouldBeReadAsStrings() {
+		ColumnTable table = new ExcelTemplate("cellFormat.xls", getClass()).readColumns(TAB_NAME);
+
+		assertThat(table.getColumn("Text Integer").getValue(0)).isEqualTo("1");
+		assertThat(table.getColumn("Date").getValue(0)).isEqualTo("31/01/2007");
+		assertThat(table.getColumn("Blank").isNull(0)).isTrue();
+	}
+
+	@Test
+	public void stringsShouldBeDictionaryEncoded() {
+		ColumnTable table = new ExcelTemplate("simple.xls", getClass()).readColumns(TAB_NAME);
+
+		assertThat(table.getColumnCount()).isEqualTo(3);
+		assertThat(table.getColumn(0).getName()).isEqualTo("KEY1");
+
+		StringColumn column = (StringColumn) table.getColumn("key3");
+		assertThat(column.getDictionary()).containsOnly("Value3", "Value30");
+		assertThat(column.getCodes()).isEqualTo(new int[] {0, 1});
+		assertThat(column.getString(1)).isEqualTo("Value30");
+	}
+
+	@Test
+	public void xlsxShouldGiveSameColumns() {
+		ColumnTable xls = new ExcelTemplate("simple.xls", getClass()).readColumns(TAB_NAME);
+		ColumnTable xlsx = new ExcelTemplate("simple.xlsx", getClass()).readColumns(TAB_NAME);
+
+		assertThat(xlsx.getColumnCount()).isEqualTo(xls.getColumnCount());
+		for (int i = 0; i < xls.getColumnCount(); i++) {
+			assertThat(xlsx.getColumn(i).getClass()).isEqualTo(xls.getColumn(i).getClass());
+			for (int row = 0; row < xls.getRowCount(); row++) {
+				assertThat(xlsx.getColumn(i).getValue(row)).isEqualTo(xls.getColumn(i).getValue(row));
+			}
+		}
+	}
+
+	@Test
+	public void missingValuesShouldBeNull() {
+		ColumnTable.Builder builder = new ColumnTable.Builder(new String[] {"A", "B"});
+		builder.addRow();
+		builder.addNumber(0, 1.5);
+		builder.addRow();
+		builder.addString(1, "X");
+		ColumnTable table = builder.build();
+
+		DoubleColumn doubles = (DoubleColumn) table.getColumn("A");
+		assertThat(doubles.getDouble(0)).isEqualTo(1.5);
+		assertThat(doubles.isNull(1)).isTrue();
+		assertThat((Object) doubles.getValue(1)).isNull();
+		assertThat(table.getColumn("B").isNull(0)).isTrue();
+		assertThat(((StringColumn) table.getColumn("B")).getCode(0)).isEqualTo(-1);
+	}
+
+	@Test
+	public void mixedColumnShouldBeReadAsStrings() {
+		ColumnTable.Builder builder = new ColumnTable.Builder(new String[] {"A"});
+		builder.addRow();
+		builder.addNumber(0, 1.5);
+		builder.addRow();
+		builder.addString(0, "X");
+		ColumnTable table = builder.build();
+
+		StringColumn column = (StringColumn) table.getColumn("A");
+		assertThat(column.getString(0)).isEqualTo("1.5");
+		assertThat(column.getString(1)).isEqualTo("X");
+		assertThat(column.getNulls().isEmpty()).isTrue();
+	}
+}
@@ -1,11 +1,33 @@
 package org.gageot.excel.core;
 
 import static org.fest.assertions.Assertions.*;
+import static org.junit.Assert.fail;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.util.FileCopyUtils;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 
 public class ExcelTemplateTest {
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
 	@Test(expected = IllegalArgumentException.class)
 	public void springBeanFactory() {
 		ExcelTemplate reader = new ExcelTemplate();
@@ -82,4 +104,272 @@ public class ExcelTemplateTest {
 
 		assertThat(sheetNames).containsOnly("Sheet1", "Sheet2");
 	}
+
+	@Test
+	public void readAllSheetsConcurrently() {
+		ExcelTemplate reader = new ExcelTemplate("twoSheets.xls", getClass());
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		reader.setExecutorService(executor);
+
+		SheetExtractor<String> sheetName = new SheetExtractor<String>() {
+			@Override
+			public String extractData(HSSFSheet sheet) {
+				return sheet.getSheetName();
+			}
+		};
+
+		try {
+			Map<String, Object> results = reader.readAll(ImmutableMap.of("Sheet1", sheetName, "Sheet2", sheetName));
+
+			assertThat(results.keySet()).containsOnly("Sheet1", "Sheet2");
+			assertThat(results.get("Sheet1")).isEqualTo("Sheet1");
+			assertThat(results.get("Sheet2")).isEqualTo("Sheet2");
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void readAllWithoutExecutor() {
+		ExcelTemplate reader = new ExcelTemplate("simple.xls", getClass());
+
+		Map<String, Object> results = reader.readAll(ImmutableMap.of("Tests", new RowMapperSheetExtractor<HSSFSheet>(new RowMapper<HSSFSheet>() {
+			@Override
+			public HSSFSheet mapRow(HSSFRow row, int rowNum) {
+				return row.getSheet();
+			}
+		})));
+
+		assertThat((List<?>) results.get("Tests")).hasSize(3);
+	}
+
+	@Test
+	public void readDoubles() {
+		ExcelTemplate reader = new ExcelTemplate("cellFormat.xls", getClass());
+
+		double[][] values = reader.readDoubles("Tests");
+
+		assertThat(values).hasSize(2);
+		assertThat(values[1][0]).isEqualTo(1.0);
+		assertThat(Double.isNaN(values[1][1])).isTrue();
+		assertThat(values[1][3]).isEqualTo(1.5);
+	}
+
+	@Test
+	public void readDoublesFromXlsx() {
+		ExcelTemplate reader = new ExcelTemplate("simple.xlsx", getClass());
+
+		double[][] values = reader.readDoubles("Types");
+
+		assertThat(values).hasSize(2);
+		assertThat(values[1][0]).isEqualTo(1.5);
+		assertThat(Double.isNaN(values[1][1])).isTrue();
+		assertThat(values[1][4]).isEqualTo(3.0);
+	}
+
+	@Test
+	public void readRange() {
+		ExcelTemplate reader = new ExcelTemplate("simple.xls", getClass());
+
+		String[][] lines = reader.read("Tests", new CellRangeAddress(1, 3, 1, 3));
+
+		assertThat(lines).hasSize(3);
+		assertThat(lines[0]).isEqualTo(new String[] {
+				"Value2", "Value3", ""
+		});
+		assertThat(lines[1]).isEqualTo(new String[] {
+				"Value20", "Value30", ""
+		});
+		assertThat(lines[2]).isEqualTo(new String[] {
+				"", "", ""
+		});
+	}
+
+	@Test
+	public void readRangeFromXlsx() {
+		ExcelTemplate reader = new ExcelTemplate("simple.xlsx", getClass());
+
+		String[][] lines = reader.read("Tests", new CellRangeAddress(0, 1, 1, 2));
+
+		assertThat(lines).hasSize(2);
+		assertThat(lines[0]).isEqualTo(new String[] {
+				"KEY2", "KEY3"
+		});
+		assertThat(lines[1]).isEqualTo(new String[] {
+				"Value2", "Value3"
+		});
+	}
+
+	@Test
+	public void readNonFileResource() throws IOException {
+		ExcelTemplate reader = new ExcelTemplate(inMemory("simple.xls"));
+
+		assertThat(reader.read("Tests")).isEqualTo(new ExcelTemplate("simple.xls", getClass()).read("Tests"));
+	}
+
+	@Test
+	public void streamNonFileResource() throws IOException {
+		ExcelTemplate reader = new ExcelTemplate(inMemory("simple.xls"));
+
+		final List<Integer> rowNums = Lists.newArrayList();
+		reader.stream("Tests", new EventRowCallbackHandler() {
+			@Override
+			public void processRow(EventCell[] cells, int rowNum) {
+				rowNums.add(rowNum);
+			}
+		});
+
+		assertThat(rowNums).containsExactly(0, 1, 2);
+	}
+
+	@Test
+	public void canonicalStrings() {
+		ExcelTemplate template = new ExcelTemplate(new File(temporaryFolder.getRoot(), "repeated.xls"));
+		template.write("Tests", new Object[][] {
+			{"KEY", "CURRENCY"}, {1.5, "EUR"}, {1.5, "EUR"}
+		});
+
+		template.setCanonicalStrings(true);
+		String[][] lines = template.read("Tests");
+		List<Map<String, String>> maps = template.readList("Tests");
+
+		assertThat(lines[1][0]).isEqualTo("1.5").isSameAs(lines[2][0]);
+		assertThat(maps.get(0).get("KEY")).isSameAs(maps.get(1).get("KEY"));
+	}
+
+	@Test
+	public void canonicalInlineStrings() {
+		ExcelTemplate template = new ExcelTemplate(new File(temporaryFolder.getRoot(), "repeated.xlsx"));
+		template.write("Tests", new Object[][] {
+			{"EUR"}, {"EUR"}
+		});
+
+		template.setCanonicalStrings(true);
+		String[][] lines = template.read("Tests");
+
+		assertThat(lines[0][0]).isEqualTo("EUR").isSameAs(lines[1][0]);
+	}
+
+	@Test
+	public void stringsAreNotCanonicalByDefault() {
+		ExcelTemplate template = new ExcelTemplate(new File(temporaryFolder.getRoot(), "repeated.xlsx"));
+		template.write("Tests", new Object[][] {
+			{"EUR"}, {"EUR"}
+		});
+
+		String[][] lines = template.read("Tests");
+
+		assertThat(lines[0][0]).isEqualTo(lines[1][0]).isNotSameAs(lines[1][0]);
+	}
+
+	@Test
+	public void failedWriteLeavesFileUntouched() {
+		ExcelTemplate template = new ExcelTemplate(new File(temporaryFolder.getRoot(), "tooLong.xls"));
+		template.write("Tests", new Object[][] {{"A"}});
+
+		try {
+			template.write("Tests", new Object[65537][0]);
+			fail();
+		} catch (InvalidDataAccessApiUsageException e) {
+			// Expected
+		}
+
+		assertThat(template.read("Tests")).hasSize(1);
+		assertThat(temporaryFolder.getRoot().list()).containsOnly("tooLong.xls");
+	}
+
+	@Test
+	public void formulasAreReadFromCachedResultByDefault() throws IOException {
+		ExcelTemplate template = new ExcelTemplate(formulas());
+
+		assertThat(template.read("Tests")[0]).containsOnly("1.0", "2.0", "0.0");
+	}
+
+	@Test
+	public void evaluateFormulas() throws IOException {
+		ExcelTemplate template = new ExcelTemplate(formulas());
+		template.setEvaluateFormulas(true);
+
+		assertThat(template.read("Tests")[0]).containsOnly("1.0", "2.0", "3.0");
+		assertThat(template.readDoubles("Other")[0]).isEqualTo(new double[] {6.0});
+	}
+
+	@Test
+	public void evaluatedFormulasAreKeptInCachedWorkbook() throws IOException {
+		File file = formulas();
+		WorkbookCache cache = new WorkbookCache(1);
+
+		ExcelTemplate template = new ExcelTemplate(file);
+		template.setWorkbookCache(cache);
+		template.setEvaluateFormulas(true);
+		template.read("Tests", ColumnProjection.byIndex(2));
+
+		HSSFWorkbook workbook = cache.get(template.getResource(), file.lastModified(), true);
+		assertThat(workbook.getSheet("Tests").getRow(0).getCell(2).getNumericCellValue()).isEqualTo(3.0);
+		assertThat(workbook.getSheet("Other").getRow(0).getCell(0).getNumericCellValue()).isEqualTo(0.0);
+	}
+
+	@Test
+	public void iterateEvaluatesOnlyPulledRows() throws IOException {
+		File file = formulas();
+		WorkbookCache cache = new WorkbookCache(1);
+
+		ExcelTemplate template = new ExcelTemplate(file);
+		template.setWorkbookCache(cache);
+		template.setEvaluateFormulas(true);
+		CloseableIterator<Double> iterator = template.iterate("Tests", new RowMapper<Double>() {
+			@Override
+			public Double mapRow(HSSFRow row, int rowNum) {
+				return row.getCell(2).getNumericCellValue();
+			}
+		});
+
+		HSSFWorkbook workbook = cache.get(template.getResource(), file.lastModified(), true);
+		assertThat(workbook.getSheet("Tests").getRow(0).getCell(2).getNumericCellValue()).isEqualTo(0.0);
+		assertThat(iterator.next()).isEqualTo(3.0);
+		iterator.close();
+	}
+
+	@Test
+	public void evaluatedWorkbookIsNotSharedWithOtherTemplates() throws IOException {
+		File file = formulas();
+		WorkbookCache cache = new WorkbookCache(2);
+
+		ExcelTemplate evaluating = new ExcelTemplate(file);
+		evaluating.setWorkbookCache(cache);
+		evaluating.setEvaluateFormulas(true);
+		ExcelTemplate template = new ExcelTemplate(file);
+		template.setWorkbookCache(cache);
+
+		assertThat(evaluating.read("Tests")[0]).containsOnly("1.0", "2.0", "3.0");
+		assertThat(template.read("Tests")[0]).containsOnly("1.0", "2.0", "0.0");
+		assertThat(cache.size()).isEqualTo(2);
+	}
+
+	private File formulas() throws IOException {
+		HSSFWorkbook workbook = new HSSFWorkbook();
+		HSSFRow row = workbook.createSheet("Tests").createRow(0);
+		row.createCell(0).setCellValue(1.0);
+		row.createCell(1).setCellValue(2.0);
+		row.createCell(2).setCellFormula("A1+B1");
+		workbook.createSheet("Other").createRow(0).createCell(0).setCellFormula("Tests!C1*2");
+
+		File file = new File(temporaryFolder.getRoot(), "formulas.xls");
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			workbook.write(out);
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+
+	private Resource inMemory(final String fileName) throws IOException {
+		return new ByteArrayResource(FileCopyUtils.copyToByteArray(getClass().getResourceAsStream(fileName))) {
+			@Override
+			public String getFilename() {
+				return fileName;
+			}
+		};
+	}
 }
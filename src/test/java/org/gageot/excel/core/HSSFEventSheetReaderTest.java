@@ -0,0 +1,89 @@
+package org.gageot.excel.core;
+
+import static org.fest.assertions.Assertions.*;
+import java.io.IOException;
+import java.util.List;
+import org.junit.Test;
+import org.springframework.dao.DataRetrievalFailureException;
+import com.google.common.collect.Lists;
+
+public class HSSFEventSheetReaderTest {
+	private static final String TAB_NAME = "Tests";
+
+	@Test
+	public void streamRows() {
+		List<String[]> lines = streamStrings("simple.xls", TAB_NAME);
+
+		assertThat(lines).hasSize(3);
+		assertThat(lines.get(0)).containsOnly("KEY1", "KEY2", "KEY3");
+		assertThat(lines.get(1)).containsOnly("Value1", "Value2", "Value3");
+		assertThat(lines.get(2)).containsOnly("Value10", "Value20", "Value30");
+	}
+
+	@Test
+	public void streamShouldMapCellsLikeRead() {
+		String[][] expected = new ExcelTemplate("cellFormat.xls", getClass()).read(TAB_NAME);
+
+		List<String[]> lines = streamStrings("cellFormat.xls", TAB_NAME);
+
+		assertThat(lines).hasSize(expected.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertThat(lines.get(i)).isEqualTo(expected[i]);
+		}
+	}
+
+	@Test
+	public void streamShouldSkipMissingCellsAndRows() {
+		List<String[]> lines = streamStrings("indexedLines.xls", TAB_NAME);
+
+		assertThat(lines).hasSize(3);
+		assertThat(lines.get(1)).containsOnly("1");
+		assertThat(lines.get(2)).containsOnly("2", "A", "B", "C");
+	}
+
+	@Test
+	public void streamCells() {
+		final List<String> values = Lists.newArrayList();
+
+		new ExcelTemplate("simple.xls", getClass()).stream(TAB_NAME, new EventCellCallbackHandler() {
+			@Override
+			public void processCell(EventCell cell, int rowNum, int columnNum) {
+				values.add(rowNum + ":" + columnNum + "=" + cell.getStringCellValue());
+			}
+		});
+
+		assertThat(values).hasSize(9);
+		assertThat(values.get(0)).isEqualTo("0:0=KEY1");
+		assertThat(values.get(8)).isEqualTo("2:2=Value30");
+	}
+
+	@Test
+	public void streamSecondSheet() {
+		String[][] expected = new ExcelTemplate("twoSheets.xls", getClass()).read("Sheet2");
+
+		assertThat(streamStrings("twoSheets.xls", "Sheet2")).hasSize(expected.length);
+	}
+
+	@Test(expected = DataRetrievalFailureException.class)
+	public void streamUnknownSheet() {
+		streamStrings("simple.xls", "Unknown");
+	}
+
+	private List<String[]> streamStrings(String fileName, String sheetName) {
+		final List<String[]> lines = Lists.newArrayList();
+		final StringCellMapper cellMapper = new StringCellMapper();
+
+		new ExcelTemplate(fileName, getClass()).stream(sheetName, new EventRowCallbackHandler() {
+			@Override
+			public void processRow(EventCell[] cells, int rowNum) throws IOException {
+				String[] line = new String[cells.length];
+				for (int i = 0; i < cells.length; i++) {
+					line[i] = cellMapper.mapCell(cells[i], rowNum, i);
+				}
+				lines.add(line);
+			}
+		});
+
+		return lines;
+	}
+}
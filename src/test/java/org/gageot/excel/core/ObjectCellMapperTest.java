@@ -0,0 +1,54 @@
+package org.gageot.excel.core;
+
+import static org.fest.assertions.Assertions.*;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ObjectCellMapperTest {
+	private static final String FILE_NAME = "cellFormat.xls";
+	private static final String TAB_NAME = "Tests";
+
+	private ExcelTemplate reader;
+
+	@Before
+	public void initialize() {
+		reader = new ExcelTemplate(FILE_NAME, getClass());
+	}
+
+	@Test
+	public void readWithObjectCellMapper() {
+		Object[][] lines = reader.read(TAB_NAME, new ObjectCellMapper(), Object.class);
+
+		assertThat(lines).hasSize(2);
+		assertThat(lines[1][0]).isEqualTo(1.0);
+		assertThat(lines[1][1]).isEqualTo("A");
+		assertThat(lines[1][6]).isEqualTo(Boolean.TRUE);
+		assertThat(lines[1][7]).isEqualTo(Boolean.FALSE);
+		assertThat(lines[1][8]).isNull();
+		assertThat(lines[1][9]).isEqualTo(new GregorianCalendar(2007, Calendar.JANUARY, 31).getTime());
+		assertThat(lines[1][10]).isEqualTo("Text Formula");
+	}
+
+	@Test
+	public void readWholeNumbersAsLong() {
+		Object[][] lines = reader.read(TAB_NAME, new ObjectCellMapper(true), Object.class);
+
+		assertThat(lines[1][0]).isEqualTo(1L);
+		assertThat(lines[1][3]).isEqualTo(1.5);
+	}
+
+	@Test
+	public void streamWithObjectCellMapper() {
+		Object[][] lines = new ExcelTemplate("simple.xlsx", getClass()).read("Types", new ObjectCellMapper(true), Object.class);
+
+		assertThat(lines[1][0]).isEqualTo(1.5);
+		assertThat(lines[1][1]).isEqualTo("A");
+		assertThat(lines[1][2]).isEqualTo(Boolean.TRUE);
+		assertThat(lines[1][3]).isInstanceOf(Date.class);
+		assertThat(lines[1][4]).isEqualTo(3L);
+		assertThat(lines[1][5]).isEqualTo("AB");
+	}
+}
@@ -0,0 +1,194 @@
+package org.gageot.excel.core;
+
+import static org.fest.assertions.Assertions.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.poi.hssf.usermodel.HSSFCell;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+public class ParallelRowMapperSheetExtractorTest {
+	private static final String TAB_NAME = "Tests";
+	private static final int ROW_COUNT = 5000;
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private ExecutorService executor;
+	private ExcelTemplate template;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(4);
+
+		template = new ExcelTemplate(new File(temporaryFolder.getRoot(), "large.xls"));
+		Object[][] values = new Object[ROW_COUNT][];
+		values[0] = new Object[] {"NAME", "INDEX"};
+		for (int i = 1; i < ROW_COUNT; i++) {
+			values[i] = new Object[] {"Row" + i, i};
+		}
+		template.write(TAB_NAME, values);
+
+		template.setExecutorService(executor);
+		template.setParallelThreshold(100);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void readInRowOrder() {
+		String[][] lines = template.read(TAB_NAME);
+
+		assertThat(lines).hasSize(ROW_COUNT);
+		for (int i = 1; i < ROW_COUNT; i++) {
+			assertThat(lines[i][0]).isEqualTo("Row" + i);
+		}
+	}
+
+	@Test
+	public void readListInRowOrder() {
+		List<Map<String, String>> lines = template.readList(TAB_NAME);
+
+		assertThat(lines).hasSize(ROW_COUNT - 1);
+		assertThat(lines.get(0).get("NAME")).isEqualTo("Row1");
+		assertThat(lines.get(ROW_COUNT - 2).get("NAME")).isEqualTo("Row" + (ROW_COUNT - 1));
+	}
+
+	@Test
+	public void userCellMappersAreUsedInCallingThread() {
+		final Set<Thread> threads = Sets.newHashSet();
+		CellMapper<String> cellMapper = new CellMapper<String>() {
+			private final StringCellMapper delegate = new StringCellMapper();
+
+			@Override
+			public String mapCell(HSSFCell cell, int rowNum, int columnNum) throws IOException {
+				threads.add(Thread.currentThread());
+				return delegate.mapCell(cell, rowNum, columnNum);
+			}
+		};
+
+		assertThat(template.read(TAB_NAME, cellMapper, String.class)).hasSize(ROW_COUNT);
+		assertThat(template.readList(TAB_NAME, cellMapper)).hasSize(ROW_COUNT - 1);
+		assertThat(threads).containsOnly(Thread.currentThread());
+	}
+
+	@Test
+	public void oneRowMapperPerChunk() {
+		RowNumSupplier rowMappers = new RowNumSupplier();
+
+		List<Integer> rowNums = template.readList(TAB_NAME, rowMappers);
+
+		assertThat(rowNums).hasSize(ROW_COUNT);
+		for (int i = 0; i < ROW_COUNT; i++) {
+			assertThat(rowNums.get(i)).isEqualTo(i);
+		}
+		assertThat(rowMappers.count.get()).isGreaterThan(1);
+	}
+
+	@Test
+	public void smallSheetsAreMappedInCallingThread() {
+		RowNumSupplier rowMappers = new RowNumSupplier();
+		template.setParallelThreshold(ROW_COUNT + 1);
+
+		template.readList(TAB_NAME, rowMappers);
+
+		assertThat(rowMappers.count.get()).isEqualTo(1);
+	}
+
+	@Test(timeout = 30000L)
+	public void readAllOnSingleThreadPool() {
+		ExecutorService singleThread = Executors.newFixedThreadPool(1);
+		try {
+			template.setExecutorService(singleThread);
+
+			Map<String, Object> results = template.readAll(ImmutableMap.of(TAB_NAME, new ParallelRowMapperSheetExtractor<Integer>(new RowNumSupplier(), singleThread, 100)));
+
+			assertThat((List<?>) results.get(TAB_NAME)).hasSize(ROW_COUNT);
+		} finally {
+			singleThread.shutdownNow();
+		}
+	}
+
+	@Test(timeout = 30000L)
+	public void readOnSaturatedPool() throws Exception {
+		ExecutorService twoThreads = Executors.newFixedThreadPool(2);
+		try {
+			template.setExecutorService(twoThreads);
+
+			List<Future<String[][]>> reads = Lists.newArrayList();
+			for (int i = 0; i < 2; i++) {
+				reads.add(twoThreads.submit(new Callable<String[][]>() {
+					@Override
+					public String[][] call() {
+						return template.read(TAB_NAME);
+					}
+				}));
+			}
+
+			for (Future<String[][]> read : reads) {
+				assertThat(read.get()).hasSize(ROW_COUNT);
+			}
+		} finally {
+			twoThreads.shutdownNow();
+		}
+	}
+
+	@Test
+	public void failuresArePropagated() {
+		expectedException.expect(IllegalStateException.class);
+
+		template.readList(TAB_NAME, new Supplier<RowMapper<Integer>>() {
+			@Override
+			public RowMapper<Integer> get() {
+				return new RowMapper<Integer>() {
+					@Override
+					public Integer mapRow(HSSFRow row, int rowNum) {
+						if (rowNum == ROW_COUNT / 2) {
+							throw new IllegalStateException();
+						}
+						return rowNum;
+					}
+				};
+			}
+		});
+	}
+
+	static class RowNumSupplier implements Supplier<RowMapper<Integer>> {
+		final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public RowMapper<Integer> get() {
+			count.incrementAndGet();
+
+			return new RowMapper<Integer>() {
+				@Override
+				public Integer mapRow(HSSFRow row, int rowNum) throws IOException {
+					return rowNum;
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package org.gageot.excel.core;
+
+import static org.fest.assertions.Assertions.*;
+import java.io.File;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+
+public class ReadStatisticsTest {
+	private ReadStatistics statistics;
+
+	@Before
+	public void setUp() {
+		statistics = new ReadStatistics();
+	}
+
+	@Test
+	public void countRead() throws Exception {
+		ExcelTemplate reader = new ExcelTemplate("simple.xls", getClass());
+		reader.setReadListener(statistics);
+
+		reader.read("Tests");
+
+		File file = new ClassPathResource("simple.xls", getClass()).getFile();
+		assertThat(statistics.getResourceOpenCount()).isEqualTo(1L);
+		assertThat(statistics.getWorkbookParseCount()).isEqualTo(1L);
+		assertThat(statistics.getSheetReadCount()).isEqualTo(1L);
+		assertThat(statistics.getRowCount()).isEqualTo(3L);
+		assertThat(statistics.getCellCount()).isEqualTo(9L);
+		assertThat(statistics.getBytesRead()).isEqualTo(file.length());
+	}
+
+	@Test
+	public void countStream() {
+		ExcelTemplate reader = new ExcelTemplate("simple.xlsx", getClass());
+		reader.setReadListener(statistics);
+
+		reader.readList("Tests");
+
+		assertThat(statistics.getResourceOpenCount()).isEqualTo(1L);
+		assertThat(statistics.getWorkbookParseCount()).isEqualTo(0L);
+		assertThat(statistics.getSheetReadCount()).isEqualTo(1L);
+		assertThat(statistics.getRowCount()).isEqualTo(3L);
+		assertThat(statistics.getCellCount()).isEqualTo(9L);
+		assertThat(statistics.getBytesRead()).isGreaterThan(0L);
+	}
+
+	@Test
+	public void countOnlyMappedRowsAndCells() {
+		ExcelTemplate reader = new ExcelTemplate("simple.xls", getClass());
+		reader.setReadListener(statistics);
+
+		reader.readList("Tests", new StringCellMapper(), null, 0, 1);
+
+		assertThat(statistics.getSheetReadCount()).isEqualTo(1L);
+		assertThat(statistics.getRowCount()).isEqualTo(2L);
+		assertThat(statistics.getCellCount()).isEqualTo(6L);
+	}
+
+	@Test
+	public void countOnlyProjectedCells() {
+		ExcelTemplate reader = new ExcelTemplate("simple.xls", getClass());
+		reader.setReadListener(statistics);
+
+		reader.read("Tests", ColumnProjection.byIndex(1));
+
+		assertThat(statistics.getRowCount()).isEqualTo(3L);
+		assertThat(statistics.getCellCount()).isEqualTo(3L);
+	}
+
+	@Test
+	public void countIteratedRows() {
+		ExcelTemplate reader = new ExcelTemplate("simple.xls", getClass());
+		reader.setReadListener(statistics);
+
+		CloseableIterator<String> iterator = reader.iterate("Tests", new RowMapper<String>() {
+			@Override
+			public String mapRow(HSSFRow row, int rowNum) {
+				return "";
+			}
+		});
+		iterator.next();
+		assertThat(statistics.getSheetReadCount()).isEqualTo(0L);
+
+		iterator.close();
+
+		assertThat(statistics.getSheetReadCount()).isEqualTo(1L);
+		assertThat(statistics.getRowCount()).isEqualTo(1L);
+		assertThat(statistics.getCellCount()).isEqualTo(3L);
+	}
+
+	@Test
+	public void countCacheHitsAndMisses() {
+		ExcelTemplate reader = new ExcelTemplate("simple.xls", getClass());
+		reader.setWorkbookCache(new WorkbookCache(1));
+		reader.setReadListener(statistics);
+
+		reader.read("Tests");
+		reader.read("Tests");
+		reader.read("Tests");
+
+		assertThat(statistics.getCacheMissCount()).isEqualTo(1L);
+		assertThat(statistics.getCacheHitCount()).isEqualTo(2L);
+		assertThat(statistics.getWorkbookParseCount()).isEqualTo(1L);
+		assertThat(statistics.getSheetReadCount()).isEqualTo(3L);
+	}
+
+	@Test
+	public void reset() {
+		ExcelTemplate reader = new ExcelTemplate("simple.xls", getClass());
+		reader.setReadListener(statistics);
+		reader.read("Tests");
+
+		statistics.reset();
+
+		assertThat(statistics.getResourceOpenCount()).isEqualTo(0L);
+		assertThat(statistics.getRowCount()).isEqualTo(0L);
+	}
+
+	@Test
+	public void publishAsMBean() throws Exception {
+		MBeanServer mbeanServer = MBeanServerFactory.newMBeanServer();
+		statistics.setMbeanServer(mbeanServer);
+		statistics.afterPropertiesSet();
+
+		ExcelTemplate reader = new ExcelTemplate("simple.xls", getClass());
+		reader.setReadListener(statistics);
+		reader.read("Tests");
+
+		ObjectName objectName = new ObjectName(ReadStatistics.DEFAULT_OBJECT_NAME);
+		assertThat(mbeanServer.getAttribute(objectName, "RowCount")).isEqualTo(3L);
+
+		statistics.destroy();
+
+		assertThat(mbeanServer.isRegistered(objectName)).isFalse();
+	}
+}
@@ -0,0 +1,174 @@
+package org.gageot.excel.core;
+
+import static org.fest.assertions.Assertions.*;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.FileCopyUtils;
+import com.google.common.base.Supplier;
+
+public class ResultCacheTest {
+	private static final String TAB_NAME = "Tests";
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	private ResultCache cache;
+
+	@Before
+	public void setUp() {
+		cache = new ResultCache(2);
+	}
+
+	@Test
+	public void staleEntryShouldBeDropped() {
+		Resource resource = new ClassPathResource("simple.xls", getClass());
+		List<String> result = Collections.singletonList("A");
+
+		cache.put(resource, 1L, TAB_NAME, String.class, result);
+
+		assertThat(cache.get(resource, 1L, TAB_NAME, String.class)).isSameAs(result);
+		assertThat(cache.get(resource, 2L, TAB_NAME, String.class)).isNull();
+		assertThat(cache.size()).isEqualTo(0);
+		assertThat(cache.getHitCount()).isEqualTo(1L);
+		assertThat(cache.getMissCount()).isEqualTo(1L);
+	}
+
+	@Test
+	public void leastRecentlyUsedShouldBeEvicted() {
+		Resource resource = new ClassPathResource("simple.xls", getClass());
+
+		cache.put(resource, 0L, "First", String.class, Collections.emptyList());
+		cache.put(resource, 0L, "Second", String.class, Collections.emptyList());
+		cache.get(resource, 0L, "First", String.class);
+		cache.put(resource, 0L, "Third", String.class, Collections.emptyList());
+
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.get(resource, 0L, "First", String.class)).isNotNull();
+		assertThat(cache.get(resource, 0L, "Second", String.class)).isNull();
+	}
+
+	@Test
+	public void softValuesShouldBeReturnedUntilReclaimed() {
+		Resource resource = new ClassPathResource("simple.xls", getClass());
+		List<String> result = Collections.singletonList("A");
+		cache = new ResultCache(2, true);
+
+		cache.put(resource, 0L, TAB_NAME, String.class, result);
+
+		assertThat(cache.get(resource, 0L, TAB_NAME, String.class)).isSameAs(result);
+	}
+
+	@Test
+	public void readBeansShouldBeCached() {
+		ExcelTemplate reader = new ExcelTemplate("beans.xls", getClass());
+		reader.setResultCache(cache);
+
+		List<BeanCellCallbackHandlerTest.NameAndAge> beans = reader.readBeans(TAB_NAME, BeanCellCallbackHandlerTest.NameAndAge.class);
+
+		assertThat(beans).hasSize(2);
+		assertThat(reader.readBeans(TAB_NAME, BeanCellCallbackHandlerTest.NameAndAge.class)).isSameAs(beans);
+		assertThat(reader.readObjects(TAB_NAME, BeanCreatorRowCallbackHandlerTest.Person.class)).hasSize(2);
+		assertThat(cache.getHitCount()).isEqualTo(1L);
+	}
+
+	@Test
+	public void readListShouldBeCachedPerCellMapper() {
+		ExcelTemplate reader = new ExcelTemplate("simple.xlsx", getClass());
+		reader.setResultCache(cache);
+		ObjectCellMapper cellMapper = new ObjectCellMapper();
+
+		List<Map<String, String>> lines = reader.readList(TAB_NAME);
+		List<Map<String, Object>> objects = reader.readList(TAB_NAME, cellMapper);
+
+		assertThat(reader.readList(TAB_NAME)).isSameAs(lines);
+		assertThat(reader.readList(TAB_NAME, cellMapper)).isSameAs(objects);
+		assertThat(reader.readList(TAB_NAME, new ObjectCellMapper())).isNotSameAs(objects);
+	}
+
+	@Test
+	public void readListShouldBeCachedPerRowMapperSupplier() {
+		ExcelTemplate reader = new ExcelTemplate("simple.xls", getClass());
+		reader.setResultCache(cache);
+		Supplier<RowMapper<Integer>> rowMappers = new Supplier<RowMapper<Integer>>() {
+			@Override
+			public RowMapper<Integer> get() {
+				return new RowMapper<Integer>() {
+					@Override
+					public Integer mapRow(HSSFRow row, int rowNum) {
+						return rowNum;
+					}
+				};
+			}
+		};
+
+		List<Integer> rowNums = reader.readList(TAB_NAME, rowMappers);
+
+		assertThat(rowNums).containsExactly(0, 1, 2);
+		assertThat(reader.readList(TAB_NAME, rowMappers)).isSameAs(rowNums);
+	}
+
+	@Test
+	public void readListShouldBeCachedPerSettings() {
+		ExcelTemplate reader = new ExcelTemplate("simple.xls", getClass());
+		reader.setResultCache(cache);
+
+		List<Map<String, String>> lines = reader.readList(TAB_NAME);
+		reader.setEvaluateFormulas(true);
+
+		assertThat(reader.readList(TAB_NAME)).isNotSameAs(lines).isEqualTo(lines);
+		assertThat(cache.getHitCount()).isEqualTo(0L);
+	}
+
+	@Test
+	public void cachedMapsShouldBeImmutable() {
+		ExcelTemplate reader = new ExcelTemplate("simple.xls", getClass());
+		reader.setResultCache(cache);
+
+		expectedException.expect(UnsupportedOperationException.class);
+
+		reader.readList(TAB_NAME).get(0).put("KEY1", "Other");
+	}
+
+	@Test
+	public void cachedListsShouldBeImmutable() {
+		ExcelTemplate reader = new ExcelTemplate("beans.xls", getClass());
+		reader.setResultCache(cache);
+
+		expectedException.expect(UnsupportedOperationException.class);
+
+		reader.readBeans(TAB_NAME, BeanCellCallbackHandlerTest.NameAndAge.class).clear();
+	}
+
+	@Test
+	public void readShouldUseCachedResultUntilFileChanges() throws IOException {
+		File file = File.createTempFile("result", ".xls");
+		file.deleteOnExit();
+		copy("simple.xls", file);
+		file.setLastModified(1000000000L);
+
+		ExcelTemplate reader = new ExcelTemplate(file);
+		reader.setResultCache(cache);
+
+		assertThat(reader.readList(TAB_NAME)).hasSize(2);
+
+		copy("oneLine.xls", file);
+		file.setLastModified(2000000000L);
+
+		assertThat(reader.readList(TAB_NAME)).isEmpty();
+	}
+
+	private void copy(String fixture, File to) throws IOException {
+		FileCopyUtils.copy(new ClassPathResource(fixture, getClass()).getInputStream(), new FileOutputStream(to));
+	}
+}
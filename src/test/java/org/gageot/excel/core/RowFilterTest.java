@@ -0,0 +1,116 @@
+package org.gageot.excel.core;
+
+import static org.fest.assertions.Assertions.*;
+import static org.fest.assertions.MapAssert.*;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Map;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import com.google.common.collect.Lists;
+
+public class RowFilterTest {
+	private static final String FILE_NAME = "simple.xls";
+	private static final String TAB_NAME = "Tests";
+
+	private ExcelTemplate reader;
+	private List<Integer> mappedRows;
+	private RowMapper<String> firstCellMapper;
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	@Before
+	public void setUp() {
+		reader = new ExcelTemplate(FILE_NAME, getClass());
+		mappedRows = Lists.newArrayList();
+		firstCellMapper = new RowMapper<String>() {
+			@Override
+			public String mapRow(HSSFRow row, int rowNum) {
+				mappedRows.add(rowNum);
+				return row.getCell(0).getStringCellValue();
+			}
+		};
+	}
+
+	@Test
+	public void filterByColumnName() {
+		List<Map<String, String>> lines = reader.readList(TAB_NAME, RowFilters.columnEquals("key2", "Value20"), 0, Integer.MAX_VALUE);
+
+		assertThat(lines).hasSize(1);
+		assertThat(lines.get(0)).includes(entry("KEY1", "Value10"));
+	}
+
+	@Test
+	public void filterByColumnNameShouldNotKeepWorkbook() throws IOException {
+		RowFilter rowFilter = RowFilters.columnEquals("key2", "Value20");
+
+		HSSFWorkbook workbook = new HSSFWorkbook(new ClassPathResource(FILE_NAME, getClass()).getInputStream());
+		HSSFSheet sheet = workbook.getSheet(TAB_NAME);
+		assertThat(rowFilter.accept(sheet.getRow(2), 2)).isTrue();
+
+		WeakReference<HSSFWorkbook> reference = new WeakReference<HSSFWorkbook>(workbook);
+		workbook = null;
+		sheet = null;
+		for (int i = 0; (i < 50) && (null != reference.get()); i++) {
+			System.gc();
+		}
+
+		assertThat(reference.get()).isNull();
+	}
+
+	@Test
+	public void rejectedRowsShouldNotBeMapped() {
+		List<String> lines = reader.readList(TAB_NAME, firstCellMapper, RowFilters.columnEquals(2, "Value3"), 0, Integer.MAX_VALUE);
+
+		assertThat(lines).containsExactly("Value1");
+		assertThat(mappedRows).containsExactly(1);
+	}
+
+	@Test
+	public void stopOnceLimitIsReached() {
+		List<String> lines = reader.readList(TAB_NAME, firstCellMapper, null, 0, 2);
+
+		assertThat(lines).containsExactly("KEY1", "Value1");
+		assertThat(mappedRows).containsExactly(0, 1);
+	}
+
+	@Test
+	public void skipOffsetWithoutMapping() {
+		List<String> lines = reader.readList(TAB_NAME, firstCellMapper, null, 2, 10);
+
+		assertThat(lines).containsExactly("Value10");
+		assertThat(mappedRows).containsExactly(2);
+	}
+
+	@Test
+	public void pageMaps() {
+		List<Map<String, String>> lines = reader.readList(TAB_NAME, null, 1, 1);
+
+		assertThat(lines).hasSize(1);
+		assertThat(lines.get(0)).includes(entry("KEY1", "Value10"));
+	}
+
+	@Test
+	public void pageStreamedMaps() {
+		List<Map<String, String>> lines = new ExcelTemplate("simple.xlsx", getClass()).readList(TAB_NAME, null, 0, 1);
+
+		assertThat(lines).hasSize(1);
+		assertThat(lines.get(0)).includes(entry("KEY1", "Value1"));
+	}
+
+	@Test
+	public void rowFiltersShouldFailOnXlsx() {
+		expectedException.expect(InvalidDataAccessApiUsageException.class);
+
+		new ExcelTemplate("simple.xlsx", getClass()).readList(TAB_NAME, RowFilters.columnEquals(0, "Value1"), 0, 1);
+	}
+}
@@ -0,0 +1,72 @@
+package org.gageot.excel.core;
+
+import static org.fest.assertions.Assertions.*;
+import java.util.List;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.dao.DataRetrievalFailureException;
+import com.google.common.collect.Lists;
+
+public class RowMapperIteratorTest {
+	private static final String FILE_NAME = "simple.xls";
+	private static final String TAB_NAME = "Tests";
+
+	private ExcelTemplate reader;
+	private List<Integer> mappedRows;
+	private RowMapper<String> firstCellMapper;
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	@Before
+	public void setUp() {
+		reader = new ExcelTemplate(FILE_NAME, getClass());
+		mappedRows = Lists.newArrayList();
+		firstCellMapper = new RowMapper<String>() {
+			@Override
+			public String mapRow(HSSFRow row, int rowNum) {
+				mappedRows.add(rowNum);
+				return row.getCell(0).getStringCellValue();
+			}
+		};
+	}
+
+	@Test
+	public void iterateAllRows() {
+		CloseableIterator<String> iterator = reader.iterate(TAB_NAME, firstCellMapper);
+
+		assertThat(Lists.newArrayList(iterator)).containsExactly("KEY1", "Value1", "Value10");
+		assertThat(iterator.hasNext()).isFalse();
+	}
+
+	@Test
+	public void mapRowsOnlyWhenPulled() {
+		CloseableIterator<String> iterator = reader.iterate(TAB_NAME, firstCellMapper);
+
+		assertThat(mappedRows).isEmpty();
+		assertThat(iterator.next()).isEqualTo("KEY1");
+		assertThat(iterator.next()).isEqualTo("Value1");
+		assertThat(mappedRows).containsExactly(0, 1);
+	}
+
+	@Test
+	public void closeShouldStopIteration() {
+		CloseableIterator<String> iterator = reader.iterate(TAB_NAME, firstCellMapper);
+
+		assertThat(iterator.hasNext()).isTrue();
+		iterator.close();
+
+		assertThat(iterator.hasNext()).isFalse();
+		assertThat(mappedRows).containsExactly(0);
+	}
+
+	@Test
+	public void unknownSheetShouldFail() {
+		expectedException.expect(DataRetrievalFailureException.class);
+
+		reader.iterate("Unknown", firstCellMapper);
+	}
+}
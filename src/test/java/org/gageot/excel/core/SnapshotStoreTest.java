@@ -0,0 +1,265 @@
+package org.gageot.excel.core;
+
+import static org.fest.assertions.Assertions.*;
+import static org.fest.assertions.MapAssert.*;
+import static org.junit.Assert.fail;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map;
+import org.apache.poi.ss.usermodel.Cell;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.FileCopyUtils;
+import com.google.common.collect.Lists;
+
+public class SnapshotStoreTest {
+	private static final String TAB_NAME = "Tests";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private SnapshotStore store;
+
+	@Before
+	public void setUp() {
+		store = new SnapshotStore(new File(temporaryFolder.getRoot(), "snapshots"));
+	}
+
+	@Test
+	public void firstReadShouldWriteSnapshot() throws IOException {
+		File file = copy("simple.xls", "simple.xls");
+
+		ExcelTemplate reader = new ExcelTemplate(file);
+		reader.setSnapshotStore(store);
+
+		assertThat(reader.read(TAB_NAME)).isEqualTo(new ExcelTemplate(file).read(TAB_NAME));
+		assertThat(store.getSnapshotFile(file, TAB_NAME)).exists();
+		assertThat(reader.read(TAB_NAME)).isEqualTo(new ExcelTemplate(file).read(TAB_NAME));
+	}
+
+	@Test
+	public void snapshotShouldBeWrittenNextToSource() throws IOException {
+		File file = copy("simple.xls", "simple.xls");
+
+		ExcelTemplate reader = new ExcelTemplate(file);
+		reader.setSnapshotStore(new SnapshotStore());
+		reader.read(TAB_NAME);
+
+		assertThat(new SnapshotStore().getSnapshotFile(file, TAB_NAME).getParentFile()).isEqualTo(temporaryFolder.getRoot());
+		assertThat(new SnapshotStore().getSnapshotFile(file, TAB_NAME)).exists();
+	}
+
+	@Test
+	public void snapshotShouldKeepCellTypes() throws IOException {
+		File file = copy("simple.xlsx", "simple.xlsx");
+
+		ExcelTemplate reader = new ExcelTemplate(file);
+		reader.setSnapshotStore(store);
+		reader.stream("Types", new EventRowCallbackHandler() {
+			@Override
+			public void processRow(EventCell[] cells, int rowNum) {
+				// Write the snapshot
+			}
+		});
+
+		final List<EventCell[]> rows = Lists.newArrayList();
+		reader.stream("Types", new EventRowCallbackHandler() {
+			@Override
+			public void processRow(EventCell[] cells, int rowNum) {
+				rows.add(cells);
+			}
+		});
+
+		EventCell[] cells = rows.get(1);
+		assertThat(cells[0].getNumericCellValue()).isEqualTo(1.5);
+		assertThat(cells[1].getStringCellValue()).isEqualTo("A");
+		assertThat(cells[2].getBooleanCellValue()).isTrue();
+		assertThat(cells[3].getDataFormat()).isEqualTo((short) 14);
+		assertThat(cells[3].getDateCellValue()).isEqualTo(new GregorianCalendar(2007, Calendar.JANUARY, 31).getTime());
+		assertThat(cells[4].isFormula()).isTrue();
+		assertThat(cells[4].getNumericCellValue()).isEqualTo(3.0);
+		assertThat(cells[5].getCellType()).isEqualTo(Cell.CELL_TYPE_STRING);
+		assertThat(cells[5].getStringCellValue()).isEqualTo("AB");
+	}
+
+	@Test
+	public void snapshotShouldHonorColumnFilters() throws IOException {
+		File file = copy("beans.xls", "beans.xls");
+
+		ExcelTemplate reader = new ExcelTemplate(file);
+		reader.setSnapshotStore(store);
+
+		for (int i = 0; i < 2; i++) {
+			assertThat(reader.readList(TAB_NAME, ColumnProjection.byName("lastName")).get(0)).hasSize(1).includes(entry("lastName", "Smith"));
+
+			List<BeanCellCallbackHandlerTest.NameAndAge> beans = reader.readBeans(TAB_NAME, BeanCellCallbackHandlerTest.NameAndAge.class);
+			assertThat(beans).hasSize(2);
+			assertThat(beans.get(1).getLastName()).isEqualTo("Johns");
+			assertThat(beans.get(0).getAge()).isEqualTo(35);
+		}
+	}
+
+	@Test
+	public void snapshotShouldBeRebuiltWhenSourceChanges() throws IOException {
+		File file = copy("simple.xls", "data.xls");
+		file.setLastModified(1000000000L);
+
+		ExcelTemplate reader = new ExcelTemplate(file);
+		reader.setSnapshotStore(store);
+
+		assertThat(reader.readList(TAB_NAME)).hasSize(2);
+
+		copy("oneLine.xls", "data.xls");
+		file.setLastModified(2000000000L);
+
+		assertThat(store.open(file, TAB_NAME)).isNull();
+		assertThat(reader.readList(TAB_NAME)).isEmpty();
+	}
+
+	@Test
+	public void snapshotShouldBeKeptWhenSourceIsOnlyTouched() throws IOException {
+		File file = copy("simple.xls", "simple.xls");
+		file.setLastModified(1000000000L);
+
+		ExcelTemplate reader = new ExcelTemplate(file);
+		reader.setSnapshotStore(store);
+		reader.read(TAB_NAME);
+
+		file.setLastModified(2000000000L);
+
+		assertThat(store.open(file, TAB_NAME)).isNotNull();
+		assertThat(store.open(file, TAB_NAME).getSourceLastModified()).isEqualTo(file.lastModified());
+	}
+
+	@Test
+	public void snapshotShouldBeRebuiltWhenContentChangesWithSameTimestamp() throws IOException {
+		File file = copy("simple.xls", "simple.xls");
+		file.setLastModified(1000000000L);
+
+		ExcelTemplate reader = new ExcelTemplate(file);
+		reader.setSnapshotStore(store);
+		reader.read(TAB_NAME);
+
+		byte[] content = FileCopyUtils.copyToByteArray(file);
+		content[content.length - 1] ^= 1;
+		FileCopyUtils.copy(content, file);
+		file.setLastModified(1000000000L);
+
+		assertThat(store.open(file, TAB_NAME)).isNull();
+	}
+
+	@Test
+	public void snapshotShouldKeepRowsOfAllGroups() throws IOException {
+		File file = new File(temporaryFolder.getRoot(), "large.xls");
+		Object[][] values = new Object[2500][];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = (0 == (i % 3)) ? new Object[] {"Row" + i, null, (double) i} : new Object[] {"Row" + i, true};
+		}
+		new ExcelTemplate(file).write(TAB_NAME, values);
+
+		ExcelTemplate reader = new ExcelTemplate(file);
+		reader.setSnapshotStore(store);
+
+		List<Map<String, String>> expected = new ExcelTemplate(file).readList(TAB_NAME);
+		assertThat(reader.readList(TAB_NAME)).hasSize(2499).isEqualTo(expected);
+		assertThat(store.open(file, TAB_NAME)).isNotNull();
+		assertThat(reader.readList(TAB_NAME)).isEqualTo(expected);
+	}
+
+	@Test
+	public void anyCorruptionShouldBeDetectedOrHarmless() throws IOException {
+		File file = copy("simple.xlsx", "simple.xlsx");
+
+		ExcelTemplate reader = new ExcelTemplate(file);
+		reader.setSnapshotStore(store);
+		reader.read("Types");
+
+		File snapshotFile = store.getSnapshotFile(file, "Types");
+		byte[] content = FileCopyUtils.copyToByteArray(snapshotFile);
+		for (int i = 0; i < content.length; i++) {
+			for (byte value : new byte[] {(byte) 0xff, (byte) 0x7f, 0, 1}) {
+				byte[] corrupted = content.clone();
+				corrupted[i] = value;
+				FileCopyUtils.copy(corrupted, snapshotFile);
+
+				SheetSnapshot snapshot = store.open(file, "Types");
+				if (null != snapshot) {
+					snapshot.replay(new EventRowCallbackHandler() {
+						@Override
+						public void processRow(EventCell[] cells, int rowNum) {
+							for (EventCell cell : cells) {
+								if (null != cell) {
+									cell.getStringCellValue();
+									cell.getDataFormatString();
+								}
+							}
+						}
+					});
+				}
+			}
+		}
+	}
+
+	@Test
+	public void corruptedSnapshotShouldBeRebuilt() throws IOException {
+		File file = copy("simple.xls", "simple.xls");
+
+		ExcelTemplate reader = new ExcelTemplate(file);
+		reader.setSnapshotStore(store);
+		reader.read(TAB_NAME);
+
+		FileCopyUtils.copy(new byte[] {1, 2, 3}, store.getSnapshotFile(file, TAB_NAME));
+
+		assertThat(store.open(file, TAB_NAME)).isNull();
+		assertThat(reader.read(TAB_NAME)).hasSize(3);
+		assertThat(store.open(file, TAB_NAME)).isNotNull();
+	}
+
+	@Test
+	public void writeShouldEvictSnapshots() throws IOException {
+		File file = copy("simple.xls", "simple.xls");
+
+		ExcelTemplate template = new ExcelTemplate(file);
+		template.setSnapshotStore(store);
+		template.read(TAB_NAME);
+		template.write(TAB_NAME, new Object[][] {{"A"}});
+
+		assertThat(store.getSnapshotFile(file, TAB_NAME)).doesNotExist();
+		assertThat(template.read(TAB_NAME)).hasSize(1);
+	}
+
+	@Test
+	public void failedReadShouldLeaveNoSnapshot() throws IOException {
+		File file = copy("simple.xls", "simple.xls");
+
+		ExcelTemplate reader = new ExcelTemplate(file);
+		reader.setSnapshotStore(store);
+		try {
+			reader.stream(TAB_NAME, new EventRowCallbackHandler() {
+				@Override
+				public void processRow(EventCell[] cells, int rowNum) {
+					throw new IllegalStateException("Failure");
+				}
+			});
+			fail();
+		} catch (IllegalStateException e) {
+			// Expected
+		}
+
+		assertThat(store.getSnapshotFile(file, TAB_NAME)).doesNotExist();
+		assertThat(store.getSnapshotFile(file, TAB_NAME).getParentFile().list()).isEmpty();
+	}
+
+	private File copy(String fixture, String fileName) throws IOException {
+		File file = new File(temporaryFolder.getRoot(), fileName);
+		FileCopyUtils.copy(new ClassPathResource(fixture, getClass()).getInputStream(), new FileOutputStream(file));
+		return file;
+	}
+}
@@ -1,13 +1,31 @@
 package org.gageot.excel.core;
 
 import static org.fest.assertions.Assertions.*;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.poi.hssf.usermodel.HSSFCell;
+import org.apache.poi.hssf.usermodel.HSSFCellStyle;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import com.google.common.collect.Lists;
 
 public class StringCellMapperTest {
 	private static final String FILE_NAME = "cellFormat.xls";
 	private static final String TAB_NAME = "Tests";
 
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
 	private ExcelTemplate reader;
 
 	@Before
@@ -30,4 +48,55 @@ public class StringCellMapperTest {
 		assertThat(lines).hasSize(2);
 		assertThat(lines[1]).containsOnly("1.0", "A", "3.0", "1.5", "1,5", "1", "VRAI", "FAUX", "", "31/01/2007", "Text Formula");
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void readBuiltinDateFormat() {
+		String[][] lines = new ExcelTemplate("simple.xlsx", getClass()).read("Types");
+
+		assertThat(lines[1]).containsOnly("1.5", "A", "VRAI", "31/01/2007", "3.0", "AB");
+	}
+
+	@Test
+	public void userDefinedDateFormatsAreReadAsNumbers() throws IOException {
+		HSSFWorkbook workbook = new HSSFWorkbook();
+		HSSFCellStyle style = workbook.createCellStyle();
+		style.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd"));
+		HSSFCell cell = workbook.createSheet(TAB_NAME).createRow(0).createCell(0);
+		cell.setCellValue(39113.0);
+		cell.setCellStyle(style);
+
+		File file = temporaryFolder.newFile("userFormat.xls");
+		OutputStream out = new FileOutputStream(file);
+		try {
+			workbook.write(out);
+		} finally {
+			out.close();
+		}
+
+		assertThat(new ExcelTemplate(file).read(TAB_NAME)[0]).containsOnly("39113.0");
+	}
+
+	@Test
+	public void shareMapperBetweenThreads() throws Exception {
+		final StringCellMapper cellMapper = new StringCellMapper();
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<String[][]>> results = Lists.newArrayList();
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(new Callable<String[][]>() {
+					@Override
+					public String[][] call() {
+						return new ExcelTemplate(FILE_NAME, getClass()).read(TAB_NAME, cellMapper, String.class);
+					}
+				}));
+			}
+
+			for (Future<String[][]> result : results) {
+				assertThat(result.get()[1]).containsOnly("1.0", "A", "3.0", "1.5", "1,5", "1", "VRAI", "FAUX", "", "31/01/2007", "Text Formula");
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package org.gageot.excel.core;
+
+import static org.fest.assertions.Assertions.*;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.FileCopyUtils;
+
+public class WorkbookCacheTest {
+	private WorkbookCache cache;
+
+	@Before
+	public void setUp() {
+		cache = new WorkbookCache(2);
+	}
+
+	@Test
+	public void staleEntryShouldBeDropped() {
+		Resource resource = new ClassPathResource("simple.xls", getClass());
+		HSSFWorkbook workbook = new HSSFWorkbook();
+
+		cache.put(resource, 1L, workbook);
+
+		assertThat(cache.get(resource, 1L)).isSameAs(workbook);
+		assertThat(cache.get(resource, 2L)).isNull();
+		assertThat(cache.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void leastRecentlyUsedShouldBeEvicted() {
+		Resource first = new ClassPathResource("simple.xls", getClass());
+		Resource second = new ClassPathResource("empty.xls", getClass());
+		Resource third = new ClassPathResource("oneLine.xls", getClass());
+
+		cache.put(first, 0L, new HSSFWorkbook());
+		cache.put(second, 0L, new HSSFWorkbook());
+		cache.get(first, 0L);
+		cache.put(third, 0L, new HSSFWorkbook());
+
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.get(first, 0L)).isNotNull();
+		assertThat(cache.get(second, 0L)).isNull();
+		assertThat(cache.get(third, 0L)).isNotNull();
+	}
+
+	@Test
+	public void readShouldUseCachedWorkbookUntilFileChanges() throws IOException {
+		File file = File.createTempFile("workbook", ".xls");
+		file.deleteOnExit();
+		copy("simple.xls", file);
+		file.setLastModified(1000000000L);
+
+		ExcelTemplate reader = new ExcelTemplate(file);
+		reader.setWorkbookCache(cache);
+
+		assertThat(reader.read("Tests")).hasSize(3);
+		assertThat(cache.size()).isEqualTo(1);
+
+		copy("oneLine.xls", file);
+		file.setLastModified(2000000000L);
+
+		assertThat(reader.read("Tests")).hasSize(1);
+		assertThat(cache.get(new FileSystemResource(file), 2000000000L)).isNotNull();
+	}
+
+	@Test
+	public void evaluatedWorkbookShouldBeCachedApart() {
+		Resource resource = new ClassPathResource("simple.xls", getClass());
+		HSSFWorkbook workbook = new HSSFWorkbook();
+		HSSFWorkbook evaluated = new HSSFWorkbook();
+
+		cache.put(resource, 0L, workbook);
+		cache.put(resource, 0L, true, evaluated);
+
+		assertThat(cache.get(resource, 0L)).isSameAs(workbook);
+		assertThat(cache.get(resource, 0L, true)).isSameAs(evaluated);
+
+		cache.evict(resource);
+		assertThat(cache.size()).isEqualTo(0);
+	}
+
+	private void copy(String fixture, File to) throws IOException {
+		FileCopyUtils.copy(new ClassPathResource(fixture, getClass()).getInputStream(), new FileOutputStream(to));
+	}
+}
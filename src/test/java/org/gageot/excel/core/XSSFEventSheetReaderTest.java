@@ -0,0 +1,202 @@
+package org.gageot.excel.core;
+
+import static org.fest.assertions.Assertions.*;
+import static org.fest.assertions.MapAssert.*;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+import org.apache.poi.ss.usermodel.Cell;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.util.FileCopyUtils;
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+
+public class XSSFEventSheetReaderTest {
+	private static final String FILE_NAME = "simple.xlsx";
+	private static final String TAB_NAME = "Tests";
+
+	private ExcelTemplate reader;
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Before
+	public void setUp() {
+		reader = new ExcelTemplate(FILE_NAME, getClass());
+	}
+
+	@Test
+	public void readSheetNames() {
+		assertThat(reader.getSheetNames()).containsOnly("Tests", "Types");
+	}
+
+	@Test
+	public void readStringList() {
+		String[][] lines = reader.read(TAB_NAME);
+
+		assertThat(lines).hasSize(3);
+		assertThat(lines[0]).containsOnly("KEY1", "KEY2", "KEY3");
+		assertThat(lines[1]).containsOnly("Value1", "Value2", "Value3");
+		assertThat(lines[2]).containsOnly("Value10", "Value20", "Value30");
+	}
+
+	@Test
+	public void readList() {
+		List<Map<String, String>> lines = reader.readList(TAB_NAME);
+
+		assertThat(lines).hasSize(2);
+		assertThat(lines.get(0)).hasSize(3).includes(entry("KEY1", "Value1")).includes(entry("key2", "Value2"));
+		assertThat(lines.get(1)).hasSize(3).includes(entry("KEY3", "Value30"));
+	}
+
+	@Test
+	public void readBeans() {
+		List<BeanCellCallbackHandlerTest.NameAndAge> beans = new ExcelTemplate("beans.xlsx", getClass()).readBeans(TAB_NAME, BeanCellCallbackHandlerTest.NameAndAge.class);
+
+		assertThat(beans).hasSize(2);
+		assertThat(beans.get(0).getLastName()).isEqualTo("Smith");
+		assertThat(beans.get(0).getAge()).isEqualTo(35);
+		assertThat(beans.get(1).getLastName()).isEqualTo("Johns");
+	}
+
+	@Test
+	public void streamCellTypes() {
+		final List<EventCell[]> rows = Lists.newArrayList();
+
+		reader.stream("Types", new EventRowCallbackHandler() {
+			@Override
+			public void processRow(EventCell[] cells, int rowNum) {
+				rows.add(cells);
+			}
+		});
+
+		EventCell[] cells = rows.get(1);
+		assertThat(cells[0].getNumericCellValue()).isEqualTo(1.5);
+		assertThat(cells[1].getStringCellValue()).isEqualTo("A");
+		assertThat(cells[2].getBooleanCellValue()).isTrue();
+		assertThat(cells[3].getDataFormat()).isEqualTo((short) 14);
+		assertThat(cells[3].getDateCellValue()).isEqualTo(new GregorianCalendar(2007, Calendar.JANUARY, 31).getTime());
+		assertThat(cells[4].isFormula()).isTrue();
+		assertThat(cells[4].getNumericCellValue()).isEqualTo(3.0);
+		assertThat(cells[5].getCellType()).isEqualTo(Cell.CELL_TYPE_STRING);
+		assertThat(cells[5].getStringCellValue()).isEqualTo("AB");
+	}
+
+	@Test
+	public void hssfCallbacksShouldFailOnXlsx() {
+		expectedException.expect(InvalidDataAccessApiUsageException.class);
+
+		reader.readList(TAB_NAME, new ColumnMapRowMapper<String>(new String[] {
+			"KEY1"
+		}, new StringCellMapper()));
+	}
+
+	@Test
+	public void externalEntitiesShouldBeRejected() throws IOException {
+		File file = withPart("xl/worksheets/sheet1.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" //
+				+ "<!DOCTYPE worksheet [<!ENTITY xxe SYSTEM \"" + secret().toURI() + "\">]>" //
+				+ "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>" //
+				+ "<row r=\"1\"><c r=\"A1\" t=\"inlineStr\"><is><t>&xxe;</t></is></c></row>" //
+				+ "</sheetData></worksheet>");
+
+		expectedException.expect(DataAccessResourceFailureException.class);
+
+		new ExcelTemplate(file).read(TAB_NAME);
+	}
+
+	@Test
+	public void externalEntitiesShouldBeRejectedInSharedStrings() throws IOException {
+		File file = withPart("xl/sharedStrings.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" //
+				+ "<!DOCTYPE sst [<!ENTITY xxe SYSTEM \"" + secret().toURI() + "\">]>" //
+				+ "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><si><t>&xxe;</t></si></sst>");
+
+		expectedException.expect(DataAccessResourceFailureException.class);
+
+		new ExcelTemplate(file).read(TAB_NAME);
+	}
+
+	@Test
+	public void externalEntitiesShouldBeRejectedInStyles() throws IOException {
+		File file = withPart("xl/styles.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" //
+				+ "<!DOCTYPE styleSheet [<!ENTITY xxe SYSTEM \"" + secret().toURI() + "\">]>" //
+				+ "<styleSheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">" //
+				+ "<numFmts count=\"1\"><numFmt numFmtId=\"164\" formatCode=\"&xxe;\"/></numFmts></styleSheet>");
+
+		expectedException.expect(DataAccessResourceFailureException.class);
+
+		new ExcelTemplate(file).read(TAB_NAME);
+	}
+
+	@Test
+	public void richTextRunsShouldBeConcatenated() throws IOException {
+		String richText = "<si><r><t>KE</t></r><r><rPr><b/></rPr><t>Y1</t></r><rPh><t>ignored</t></rPh></si>";
+		File file = withPart("xl/sharedStrings.xml", part("xl/sharedStrings.xml").replace("<si><t>KEY1</t></si>", richText));
+
+		assertThat(new ExcelTemplate(file).read(TAB_NAME)[0][0]).isEqualTo("KEY1");
+	}
+
+	private String part(String partName) throws IOException {
+		ZipInputStream zipIn = new ZipInputStream(new ClassPathResource(FILE_NAME, getClass()).getInputStream());
+		try {
+			ZipEntry entry;
+			while (null != (entry = zipIn.getNextEntry())) {
+				if (partName.equals(entry.getName())) {
+					return new String(ByteStreams.toByteArray(zipIn), Charsets.UTF_8);
+				}
+			}
+			throw new IllegalArgumentException(partName);
+		} finally {
+			zipIn.close();
+		}
+	}
+
+	private File secret() throws IOException {
+		File secret = temporaryFolder.newFile("secret.txt");
+		FileCopyUtils.copy("SECRET".getBytes(Charsets.UTF_8), secret);
+		return secret;
+	}
+
+	private File withPart(String partName, String xml) throws IOException {
+		File file = temporaryFolder.newFile("xxe.xlsx");
+
+		InputStream in = new ClassPathResource(FILE_NAME, getClass()).getInputStream();
+		ZipInputStream zipIn = new ZipInputStream(in);
+		ZipOutputStream zipOut = new ZipOutputStream(new FileOutputStream(file));
+		try {
+			ZipEntry entry;
+			while (null != (entry = zipIn.getNextEntry())) {
+				zipOut.putNextEntry(new ZipEntry(entry.getName()));
+				if (partName.equals(entry.getName())) {
+					zipOut.write(xml.getBytes(Charsets.UTF_8));
+				} else {
+					ByteStreams.copy(zipIn, zipOut);
+				}
+				zipOut.closeEntry();
+			}
+		} finally {
+			zipIn.close();
+			zipOut.close();
+		}
+
+		return file;
+	}
+}